@@ -0,0 +1,74 @@
+package com.QS.AppQuickSolutions.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // Pool acotado para renderizar las imágenes QR fuera de la transacción de creación del proyecto.
+    // Si la cola se llena, el hilo que encola renderiza el QR (backpressure en lugar de descartar trabajos).
+    @Bean(name = "qrRenderExecutor")
+    public ThreadPoolTaskExecutor qrRenderExecutor(
+            @Value("${qrcode.render.pool-size:4}") int poolSize,
+            @Value("${qrcode.render.queue-capacity:5000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("qr-render-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Hilos que escriben las respuestas en streaming (hojas de etiquetas QR). Acotado para que
+    // varias descargas grandes a la vez no compitan sin límite con el resto de la aplicación.
+    @Bean(name = "mvcStreamingExecutor")
+    public ThreadPoolTaskExecutor mvcStreamingExecutor(
+            @Value("${app.streaming.pool-size:4}") int poolSize,
+            @Value("${app.streaming.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mvc-stream-");
+        return executor;
+    }
+
+    // Intentos de decodificación de QR en fotos (distintas escalas y rotaciones en paralelo).
+    // Es trabajo de CPU: por defecto un hilo por núcleo. Si la cola se llena se rechaza la foto (invokeAll cancela
+    // los intentos ya encolados y QRCodeController responde 503) en lugar de decodificar en el hilo del request.
+    @Bean(name = "qrDecodeExecutor")
+    public ThreadPoolTaskExecutor qrDecodeExecutor(
+            @Value("${qrcode.photo-decode.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int poolSize,
+            @Value("${qrcode.photo-decode.queue-capacity:64}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("qr-decode-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    // Miniaturas y versiones medianas de las fotos de CustomPart. Si la cola está llena el trabajo se
+    // descarta: la versión que falte se genera la primera vez que se pida.
+    @Bean(name = "imageDerivativeExecutor")
+    public ThreadPoolTaskExecutor imageDerivativeExecutor(
+            @Value("${image.derivatives.pool-size:2}") int poolSize,
+            @Value("${image.derivatives.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-derivative-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        return executor;
+    }
+}
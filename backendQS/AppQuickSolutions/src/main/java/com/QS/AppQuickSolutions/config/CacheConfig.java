@@ -0,0 +1,72 @@
+package com.QS.AppQuickSolutions.config;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.CacheManager;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.QS.AppQuickSolutions.entity.CustomPart;
+import com.QS.AppQuickSolutions.entity.PartMaterial;
+import com.QS.AppQuickSolutions.entity.User;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+
+/**
+ * Caches de datos de referencia, todas en un mismo CacheManager JCache (Caffeine) con tope de entradas y
+ * vencimiento:
+ * - Regiones de segundo nivel de Hibernate para CustomPart, PartMaterial y User (una por entidad, con el
+ *   nombre de la clase). Las cargas por ID, incluidas las de las relaciones @ManyToOne de Part y
+ *   PartStatusTracking, salen de memoria; Hibernate las actualiza al guardar o borrar la entidad.
+ * - Caches de Spring para los listados de referencia y el usuario del token JWT, que los servicios
+ *   invalidan con @CacheEvict al modificar esos datos.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USER_DETAILS = "userDetails";
+    public static final String CUSTOM_PARTS = "customParts";
+    public static final String PART_MATERIALS = "partMaterials";
+
+    private static final List<Class<?>> ENTITY_REGIONS = List.of(CustomPart.class, PartMaterial.class, User.class);
+
+    @Bean
+    public JCacheManagerCustomizer referenceCaches(
+            @Value("${cache.reference.max-entries:10000}") long maxEntries,
+            @Value("${cache.reference.ttl-minutes:30}") long ttlMinutes) {
+        return cacheManager -> {
+            for (Class<?> entity : ENTITY_REGIONS) {
+                createCache(cacheManager, entity.getName(), maxEntries, ttlMinutes);
+            }
+            for (String name : List.of(USER_DETAILS, CUSTOM_PARTS, PART_MATERIALS)) {
+                createCache(cacheManager, name, maxEntries, ttlMinutes);
+            }
+        };
+    }
+
+    // Hibernate usa el mismo CacheManager que Spring, así las regiones de entidades tienen esta configuración.
+    // Sin CacheManager JCache (spring.cache.type=none, p. ej. en tests) Hibernate crea sus regiones por defecto
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManager(ObjectProvider<CacheManager> cacheManager) {
+        return properties -> cacheManager.ifAvailable(manager -> properties.put(ConfigSettings.CACHE_MANAGER, manager));
+    }
+
+    private static void createCache(CacheManager cacheManager, String name, long maxEntries, long ttlMinutes) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes)));
+        configuration.setStoreByValue(false); // Se guardan las mismas instancias, sin copiarlas
+        configuration.setNativeStatisticsEnabled(true); // Aciertos y fallos para /api/cache/stats
+        configuration.setStatisticsEnabled(true); // También por JMX (javax.cache:type=CacheStatistics)
+        cacheManager.createCache(name, configuration);
+    }
+}
@@ -0,0 +1,51 @@
+package com.QS.AppQuickSolutions.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Primario + réplica de lectura. Solo se activa con datasource.replica.enabled=true; si no, Spring Boot arma
+ * el pool único de siempre con spring.datasource.*. El primario sigue usando spring.datasource.* y la
+ * réplica datasource.replica.* (mismo driver).
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties,
+            @Value("${datasource.replica.url}") String replicaUrl,
+            @Value("${datasource.replica.username:${spring.datasource.username:}}") String replicaUsername,
+            @Value("${datasource.replica.password:${spring.datasource.password:}}") String replicaPassword,
+            @Value("${datasource.replica.maximum-pool-size:10}") int replicaPoolSize,
+            @Value("${datasource.replica.connection-timeout-ms:2000}") long replicaConnectionTimeoutMs,
+            @Value("${datasource.replica.retry-after-ms:30000}") long replicaRetryAfterMs) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(replicaUrl);
+        replica.setUsername(replicaUsername);
+        replica.setPassword(replicaPassword);
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setMaximumPoolSize(replicaPoolSize);
+        // Timeout corto: si la réplica no responde, la lectura pasa rápido al primario
+        replica.setConnectionTimeout(replicaConnectionTimeoutMs);
+        // La aplicación arranca aunque la réplica esté caída
+        replica.setInitializationFailTimeout(-1);
+        replica.setReadOnly(true);
+
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, replicaRetryAfterMs));
+    }
+}
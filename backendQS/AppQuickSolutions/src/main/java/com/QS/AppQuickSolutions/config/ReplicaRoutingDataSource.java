@@ -0,0 +1,94 @@
+package com.QS.AppQuickSolutions.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Elige entre el primario y la réplica en cada conexión. Va a la réplica solo si la transacción actual
+ * es de solo lectura (@Transactional(readOnly = true)) y el pedido tolera datos atrasados
+ * (@StaleReadsAllowed); todo lo demás va al primario.
+ *
+ * Si la réplica no da conexión, la lectura se hace en el primario y la réplica queda descartada durante
+ * retryAfterMillis, así un corte de la réplica no suma un timeout a cada pedido.
+ *
+ * Tiene que usarse detrás de un LazyConnectionDataSourceProxy: el administrador de transacciones pide la
+ * conexión antes de marcar la transacción como de solo lectura, y el proxy demora el pedido real hasta la
+ * primera sentencia.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> staleReadsAllowed = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long retryAfterMillis;
+
+    private volatile long replicaDownUntil;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long retryAfterMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    // El hilo actual atiende un pedido que tolera leer de la réplica (lo marca StaleReadsInterceptor)
+    public static void setStaleReadsAllowed(boolean allowed) {
+        if (allowed) {
+            staleReadsAllowed.set(Boolean.TRUE);
+        } else {
+            staleReadsAllowed.remove();
+        }
+    }
+
+    public static boolean isStaleReadsAllowed() {
+        return Boolean.TRUE.equals(staleReadsAllowed.get());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (useReplica()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                markReplicaDown(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (useReplica()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                markReplicaDown(e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    public boolean isReplicaAvailable() {
+        return System.currentTimeMillis() >= replicaDownUntil;
+    }
+
+    private boolean useReplica() {
+        return isStaleReadsAllowed()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && isReplicaAvailable();
+    }
+
+    private void markReplicaDown(SQLException e) {
+        replicaDownUntil = System.currentTimeMillis() + retryAfterMillis;
+        logger.warn("Réplica sin conexión, se lee del primario durante {} ms: {}", retryAfterMillis, e.getMessage());
+    }
+}
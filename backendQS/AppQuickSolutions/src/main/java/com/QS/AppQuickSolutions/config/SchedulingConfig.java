@@ -0,0 +1,10 @@
+package com.QS.AppQuickSolutions.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Tareas periódicas (limpieza de archivos huérfanos, recálculo de estadísticas por operario)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
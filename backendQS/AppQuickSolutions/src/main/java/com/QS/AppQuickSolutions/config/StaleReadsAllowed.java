@@ -0,0 +1,18 @@
+package com.QS.AppQuickSolutions.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un endpoint (o todo un controller) que tolera leer de la réplica, es decir, datos con algunos
+ * segundos de atraso respecto del primario. Solo las transacciones de solo lectura de ese pedido van a la
+ * réplica; las escrituras, y las lecturas de endpoints sin esta marca, siguen en el primario.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface StaleReadsAllowed {
+}
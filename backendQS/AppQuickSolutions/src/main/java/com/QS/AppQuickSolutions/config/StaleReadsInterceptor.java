@@ -0,0 +1,27 @@
+package com.QS.AppQuickSolutions.config;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Marca el hilo del pedido cuando el endpoint tiene @StaleReadsAllowed, para que ReplicaRoutingDataSource
+// mande sus lecturas a la réplica
+public class StaleReadsInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod
+                && (handlerMethod.hasMethodAnnotation(StaleReadsAllowed.class)
+                        || handlerMethod.getBeanType().isAnnotationPresent(StaleReadsAllowed.class))) {
+            ReplicaRoutingDataSource.setStaleReadsAllowed(true);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReplicaRoutingDataSource.setStaleReadsAllowed(false);
+    }
+}
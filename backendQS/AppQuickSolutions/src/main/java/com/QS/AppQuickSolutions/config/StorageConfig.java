@@ -0,0 +1,26 @@
+package com.QS.AppQuickSolutions.config;
+
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.QS.AppQuickSolutions.services.storage.BlobStore;
+import com.QS.AppQuickSolutions.services.storage.FileSystemBlobStore;
+
+@Configuration
+public class StorageConfig {
+
+    // Imágenes QR de las piezas (clave: <uuid>_part_qr.png)
+    @Bean(name = "qrBlobStore")
+    public BlobStore qrBlobStore(@Value("${qrcode.upload-dir}") String qrDirectory) {
+        return new FileSystemBlobStore(Paths.get(qrDirectory));
+    }
+
+    // Fotos de CustomPart (clave: hash del contenido, las subidas repetidas se guardan una sola vez)
+    @Bean(name = "imageBlobStore")
+    public BlobStore imageBlobStore(@Value("${file.upload-dir}") String uploadDirectory) {
+        return new FileSystemBlobStore(Paths.get(uploadDirectory));
+    }
+}
@@ -1,21 +1,41 @@
 package com.QS.AppQuickSolutions.config;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final ThreadPoolTaskExecutor mvcStreamingExecutor;
+
+    public WebConfig(@Qualifier("mvcStreamingExecutor") ThreadPoolTaskExecutor mvcStreamingExecutor) {
+        this.mvcStreamingExecutor = mvcStreamingExecutor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // Las respuestas StreamingResponseBody se escriben en este pool y no en un hilo nuevo por descarga. El
+        // timeout queda en el del contenedor; cada descarga larga fija el suyo (ProjectController.downloadQRLabels)
+        configurer.setTaskExecutor(mvcStreamingExecutor);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Endpoints con @StaleReadsAllowed: sus lecturas pueden ir a la réplica (ver DataSourceConfig)
+        registry.addInterceptor(new StaleReadsInterceptor());
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Configuración para servir la carpeta uploads como recurso estático
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations("file:src/main/resources/uploads/");
 
-
-       // Agregar configuración para los códigos QR
-        registry.addResourceHandler("/qr-codes/**")
-        .addResourceLocations("file:src/main/resources/qr-codes/");
+        // Los códigos QR no se sirven desde una carpeta: salen del BlobStore por ImageQRController
     }
 }
@@ -0,0 +1,28 @@
+package com.QS.AppQuickSolutions.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.QS.AppQuickSolutions.dto.CacheStatsDTO;
+import com.QS.AppQuickSolutions.services.CacheStatsService;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    // Aciertos, fallos y tamaño de cada cache de datos de referencia
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(cacheStatsService.getStats());
+    }
+}
@@ -0,0 +1,89 @@
+package com.QS.AppQuickSolutions.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.QS.AppQuickSolutions.dto.DeliveryManifestDTO;
+import com.QS.AppQuickSolutions.services.DeliveryManifestService;
+import com.QS.AppQuickSolutions.services.IdempotencyService;
+
+import jakarta.persistence.EntityNotFoundException;
+
+// Carga al camión de un proyecto con control de presencia: start -> scan (una o varias veces) -> finish
+@RestController
+@RequestMapping("/api/delivery/{projectId}")
+public class DeliveryController {
+
+    @Autowired
+    private DeliveryManifestService deliveryManifestService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @PostMapping("/start")
+    public ResponseEntity<DeliveryManifestDTO> start(@PathVariable Long projectId) {
+        try {
+            return ResponseEntity.ok(deliveryManifestService.start(projectId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+
+    // Acepta QR de piezas y de bultos
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @PostMapping("/scan")
+    public ResponseEntity<?> scan(@PathVariable Long projectId, @RequestBody List<String> qrPayloads,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "delivery-" + projectId + "-scan", () -> {
+            try {
+                return ResponseEntity.ok(deliveryManifestService.scan(projectId, qrPayloads));
+            } catch (EntityNotFoundException e) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+            }
+        });
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @GetMapping("/missing")
+    public ResponseEntity<DeliveryManifestDTO> missing(@PathVariable Long projectId) {
+        try {
+            return ResponseEntity.ok(deliveryManifestService.missing(projectId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @PostMapping("/finish")
+    public ResponseEntity<DeliveryManifestDTO> finish(@PathVariable Long projectId) {
+        try {
+            return ResponseEntity.ok(deliveryManifestService.finish(projectId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @DeleteMapping
+    public ResponseEntity<Void> cancel(@PathVariable Long projectId) {
+        try {
+            deliveryManifestService.cancel(projectId);
+            return ResponseEntity.noContent().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -1,8 +1,9 @@
 package com.QS.AppQuickSolutions.controller;
 
-import java.util.List;
+import java.time.LocalDate;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -13,8 +14,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.QS.AppQuickSolutions.config.StaleReadsAllowed;
+import com.QS.AppQuickSolutions.dto.CursorPageDTO;
 import com.QS.AppQuickSolutions.entity.Event;
 import com.QS.AppQuickSolutions.services.EventService;
 
@@ -27,11 +31,20 @@ public class EventController {
     @Autowired
     private EventService eventService;
 
+    // Eventos paginados por fecha: ?cursor=<nextCursor de la página anterior>&limit=&from=&to=
     @PreAuthorize("hasRole('ADMIN')")
+    @StaleReadsAllowed
     @GetMapping
-    public ResponseEntity<List<Event>> getAllEvents() {
-        List<Event> events = eventService.getAllEvents();
-        return ResponseEntity.ok(events);
+    public ResponseEntity<CursorPageDTO<Event>> getAllEvents(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPageDTO.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(eventService.getEventsPage(cursor, limit, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
     }
 
     @PreAuthorize("hasRole('ADMIN')")
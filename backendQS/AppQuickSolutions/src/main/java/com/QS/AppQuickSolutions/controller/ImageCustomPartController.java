@@ -1,66 +1,71 @@
 package com.QS.AppQuickSolutions.controller;
 
-import java.net.MalformedURLException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.Locale;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.QS.AppQuickSolutions.entity.CustomPart;
+import com.QS.AppQuickSolutions.enums.ImageSize;
 import com.QS.AppQuickSolutions.services.CustomPartService;
+import com.QS.AppQuickSolutions.services.ImageDerivativeService;
+import com.QS.AppQuickSolutions.services.StaticAssetService;
+import com.QS.AppQuickSolutions.services.storage.BlobStore;
 
 import io.jsonwebtoken.io.IOException;
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/image-custom-part")
 public class ImageCustomPartController {
 
-    @Value("${file.upload-dir}")
-    private String uploadDir;
-
     private final CustomPartService customPartService;
 
-    public ImageCustomPartController(CustomPartService customPartService) {
+    private final StaticAssetService staticAssetService;
+
+    private final BlobStore imageBlobStore;
+
+    private final ImageDerivativeService imageDerivativeService;
+
+    public ImageCustomPartController(CustomPartService customPartService, StaticAssetService staticAssetService,
+            @Qualifier("imageBlobStore") BlobStore imageBlobStore, ImageDerivativeService imageDerivativeService) {
         this.customPartService = customPartService;
+        this.staticAssetService = staticAssetService;
+        this.imageBlobStore = imageBlobStore;
+        this.imageDerivativeService = imageDerivativeService;
     }
 
+    // size=thumb (listados), medium (detalle) u original
     @GetMapping("/{filename:.+}")
     @PreAuthorize("hasAnyRole('ADMIN', 'OPERATOR')")
-    public ResponseEntity<Resource> serveImage(@PathVariable String filename) {
+    public ResponseEntity<Resource> serveImage(@PathVariable String filename,
+            @RequestParam(defaultValue = "original") String size) {
+        ImageSize imageSize;
         try {
-            Path filePath = Paths.get(uploadDir).resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (!resource.exists() || !resource.isReadable()) {
-                return ResponseEntity.notFound().build();
-            }
-
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) {
-                contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
-            }
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
-
-        } catch (MalformedURLException e) {
+            imageSize = ImageSize.valueOf(size.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        }
+        try {
+            String key = imageDerivativeService.resolve(filename, imageSize);
+            // El nombre de las imágenes subidas cambia si cambia la foto (hash o UUID),
+            // así que el navegador puede guardarlas sin volver a preguntar
+            CacheControl cacheControl = staticAssetService.hasImmutableName(key)
+                    ? staticAssetService.immutable()
+                    : staticAssetService.revalidateAfter(0);
+            return staticAssetService.serveBlob(imageBlobStore, key, cacheControl);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -74,4 +79,18 @@ public class ImageCustomPartController {
         CustomPart updatedPart = customPartService.uploadImage(id, image);
         return ResponseEntity.ok(updatedPart);
     }
+
+    // Subida con la imagen como cuerpo del pedido (Content-Type image/*). No pasa por el parser
+    // multipart, así que el contenedor no la guarda en un temporal antes de llegar acá
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping(value = "/{id}/image", consumes = "image/*")
+    public ResponseEntity<?> uploadImageBody(@PathVariable Long id, HttpServletRequest request) throws java.io.IOException {
+        try {
+            CustomPart updatedPart = customPartService.uploadImage(id, request.getInputStream(),
+                    request.getContentLengthLong(), request.getContentType());
+            return ResponseEntity.ok(updatedPart);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -1,15 +1,12 @@
 package com.QS.AppQuickSolutions.controller;
 
 import java.io.IOException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,16 +14,33 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.QS.AppQuickSolutions.services.QRCodeService;
+import com.QS.AppQuickSolutions.services.StaticAssetService;
+import com.QS.AppQuickSolutions.services.storage.BlobStore;
+import com.google.zxing.WriterException;
+
 @RestController
 @RequestMapping("/qr-codes")
 public class ImageQRController {
 
     // private final Path qrCodeDirectory = Paths.get("backenQS/src/main/resources/qr-codes");
 
-    private final Path qrCodeDirectory;
+    private final BlobStore qrBlobStore;
+
+    private final QRCodeService qrCodeService;
+
+    private final StaticAssetService staticAssetService;
 
-    public ImageQRController(@Value("${qrcode.upload-dir:../../qr-codes}") String qrDirectory) {
-        this.qrCodeDirectory = Paths.get(qrDirectory);
+    // Un QR se reescribe con el mismo nombre al actualizar la pieza, por eso no se marca como inmutable:
+    // pasado este tiempo el cliente revalida con el ETag
+    private final long cacheMaxAgeSeconds;
+
+    public ImageQRController(@Qualifier("qrBlobStore") BlobStore qrBlobStore, QRCodeService qrCodeService,
+            StaticAssetService staticAssetService, @Value("${qrcode.http-cache.max-age-seconds:3600}") long cacheMaxAgeSeconds) {
+        this.qrBlobStore = qrBlobStore;
+        this.qrCodeService = qrCodeService;
+        this.staticAssetService = staticAssetService;
+        this.cacheMaxAgeSeconds = cacheMaxAgeSeconds;
     }
 
 
@@ -34,18 +48,21 @@ public class ImageQRController {
     @PreAuthorize("isAuthenticated() or hasRole('ADMIN') or hasRole('OPERATOR')")
     public ResponseEntity<Resource> serveImage(@PathVariable String filename) {
         try {
-            Path file = qrCodeDirectory.resolve(filename);
-            Resource resource = new UrlResource(file.toUri());
-
-            if (resource.exists() && resource.isReadable()) {
-                return ResponseEntity.ok()
-                        .contentType(MediaType.IMAGE_PNG)
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
+            if (qrCodeService.isOnDemandRendering()) {
+                return serveRenderedImage(filename);
             }
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
-        } catch (IOException e) {
+            return staticAssetService.serveBlob(qrBlobStore, filename, staticAssetService.revalidateAfter(cacheMaxAgeSeconds));
+        } catch (IOException | WriterException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
-}
\ No newline at end of file
+
+    // Modo on-demand: el PNG sale de la cache en memoria o se renderiza con los datos de la pieza
+    private ResponseEntity<Resource> serveRenderedImage(String filename) throws IOException, WriterException {
+        Optional<byte[]> png = qrCodeService.getQRCodePng(filename);
+        if (png.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        return staticAssetService.serveBytes(png.get(), filename, staticAssetService.revalidateAfter(cacheMaxAgeSeconds));
+    }
+}
@@ -1,9 +1,10 @@
 package com.QS.AppQuickSolutions.controller;
 
-import java.util.List;
+import java.time.LocalDate;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -14,13 +15,18 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.QS.AppQuickSolutions.config.StaleReadsAllowed;
+import com.QS.AppQuickSolutions.dto.CursorPageDTO;
 import com.QS.AppQuickSolutions.dto.PartDto;
 import com.QS.AppQuickSolutions.entity.Part;
 import com.QS.AppQuickSolutions.entity.Project;
+import com.QS.AppQuickSolutions.enums.PartState;
 import com.QS.AppQuickSolutions.services.PartService;
 import com.QS.AppQuickSolutions.services.ProjectService;
+import com.QS.AppQuickSolutions.services.TaskConflictException;
 import com.google.zxing.WriterException;
 
 import io.jsonwebtoken.io.IOException;
@@ -64,6 +70,8 @@ public class PartController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         } catch (IOException | WriterException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        } catch (TaskConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
@@ -79,10 +87,22 @@ public class PartController {
         }
     }
 
+    // Listado paginado: ?cursor=<nextCursor de la página anterior>&limit=&state=&projectId=&from=&to=
     @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @StaleReadsAllowed
     @GetMapping("/list")
-    public ResponseEntity<List<Part>> getAllParts() {
-        return ResponseEntity.ok(partService.getAllParts());
+    public ResponseEntity<CursorPageDTO<Part>> getAllParts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPageDTO.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) PartState state,
+            @RequestParam(required = false) Long projectId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(partService.getPartsPage(cursor, limit, state, projectId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
     }
 
     @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
@@ -92,6 +112,8 @@ public class PartController {
             return ResponseEntity.ok(partService.scanPart(id));
         } catch (EntityNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        } catch (TaskConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
         }
     }
 
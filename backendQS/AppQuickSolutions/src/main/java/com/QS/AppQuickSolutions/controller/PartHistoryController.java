@@ -0,0 +1,79 @@
+package com.QS.AppQuickSolutions.controller;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.QS.AppQuickSolutions.config.StaleReadsAllowed;
+import com.QS.AppQuickSolutions.dto.PartStateAtDTO;
+import com.QS.AppQuickSolutions.dto.ReworkStatsDTO;
+import com.QS.AppQuickSolutions.entity.PartStateEvent;
+import com.QS.AppQuickSolutions.services.PartStateHistoryService;
+
+@RestController
+@RequestMapping("/api/part-history")
+public class PartHistoryController {
+
+    @Autowired
+    private PartStateHistoryService partStateHistoryService;
+
+    // Todos los cambios de estado de una pieza, del más viejo al más nuevo
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @StaleReadsAllowed
+    @GetMapping("/{partId}/timeline")
+    public ResponseEntity<List<PartStateEvent>> getTimeline(@PathVariable UUID partId) {
+        return ResponseEntity.ok(partStateHistoryService.getTimeline(partId));
+    }
+
+    // Estado de la pieza en una fecha: ?at=2025-03-01T10:00:00
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @StaleReadsAllowed
+    @GetMapping("/{partId}/state")
+    public ResponseEntity<PartStateAtDTO> getStateAt(@PathVariable UUID partId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(partStateHistoryService.getStateAt(partId, at));
+    }
+
+    // Estado de todas las piezas de un proyecto en una fecha
+    @PreAuthorize("hasRole('ADMIN')")
+    @StaleReadsAllowed
+    @GetMapping("/project/{projectId}/state")
+    public ResponseEntity<List<PartStateAtDTO>> getProjectStateAt(@PathVariable Long projectId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(partStateHistoryService.getProjectStateAt(projectId, at));
+    }
+
+    // Retrabajo (devoluciones, repintados y reparaciones) por estado de origen: ?from=&to= (inclusivas)
+    @PreAuthorize("hasRole('ADMIN')")
+    @StaleReadsAllowed
+    @GetMapping("/rework")
+    public ResponseEntity<List<ReworkStatsDTO>> getReworkStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(partStateHistoryService.getReworkStats(from, to));
+    }
+
+    // Foto del estado de las piezas que cambiaron (también corre sola, ver part-history.snapshot.cron)
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/snapshot")
+    public ResponseEntity<?> takeSnapshots() {
+        int rows = partStateHistoryService.takeSnapshots();
+        if (rows < 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Ya hay una foto en curso.");
+        }
+        return ResponseEntity.ok(rows);
+    }
+}
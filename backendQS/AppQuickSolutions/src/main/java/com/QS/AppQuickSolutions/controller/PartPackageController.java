@@ -0,0 +1,69 @@
+package com.QS.AppQuickSolutions.controller;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.QS.AppQuickSolutions.dto.PartPackageDTO;
+import com.QS.AppQuickSolutions.services.PartPackageService;
+
+import jakarta.persistence.EntityNotFoundException;
+
+@RestController
+@RequestMapping("/api/packages")
+public class PartPackageController {
+
+    @Autowired
+    private PartPackageService partPackageService;
+
+    // Crear un bulto EMBALADO con piezas del proyecto; el QR del bulto se genera al crearlo
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @PostMapping("/project/{projectId}")
+    public ResponseEntity<?> createPackage(@PathVariable Long projectId, @RequestBody List<UUID> partIds) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(partPackageService.createPackage(projectId, partIds));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @GetMapping("/project/{projectId}")
+    public ResponseEntity<List<PartPackageDTO>> getPackagesByProject(@PathVariable Long projectId) {
+        return ResponseEntity.ok(partPackageService.getPackagesByProject(projectId));
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @GetMapping("/{packageId}")
+    public ResponseEntity<PartPackageDTO> getPackage(@PathVariable UUID packageId) {
+        try {
+            return ResponseEntity.ok(partPackageService.getPackage(packageId));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @DeleteMapping("/{packageId}")
+    public ResponseEntity<Void> deletePackage(@PathVariable UUID packageId) {
+        try {
+            partPackageService.deletePackage(packageId);
+            return ResponseEntity.noContent().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.QS.AppQuickSolutions.config.StaleReadsAllowed;
 import com.QS.AppQuickSolutions.dto.PartsByStateDTO;
 import com.QS.AppQuickSolutions.services.PartStateService;
 
@@ -17,6 +18,7 @@ public class PartStateController {
     @Autowired
     private PartStateService partStateService;
 
+    @StaleReadsAllowed
     @GetMapping("/by-state")
     public ResponseEntity<List<PartsByStateDTO>> getPartsByState() {
         List<PartsByStateDTO> partsByState = partStateService.getPartsByState();
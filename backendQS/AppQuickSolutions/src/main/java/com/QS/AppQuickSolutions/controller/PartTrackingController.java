@@ -1,22 +1,39 @@
 package com.QS.AppQuickSolutions.controller;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.QS.AppQuickSolutions.config.StaleReadsAllowed;
+import com.QS.AppQuickSolutions.dto.BulkTransitionRequestDTO;
+import com.QS.AppQuickSolutions.dto.CursorPageDTO;
+import com.QS.AppQuickSolutions.dto.LockStatsDTO;
 import com.QS.AppQuickSolutions.dto.OperatorMetricsDTO;
 import com.QS.AppQuickSolutions.dto.PartTrackingSummaryDTO;
+import com.QS.AppQuickSolutions.dto.StationStatsDTO;
 import com.QS.AppQuickSolutions.entity.PartStatusTracking;
+import com.QS.AppQuickSolutions.enums.PartState;
+import com.QS.AppQuickSolutions.services.OperatorStatsService;
+import com.QS.AppQuickSolutions.services.PartLockService;
 import com.QS.AppQuickSolutions.services.PartTrackingService;
+import com.QS.AppQuickSolutions.services.TaskConflictException;
 
 @RestController
 @RequestMapping("/api/part-tracking")
@@ -24,6 +41,12 @@ public class PartTrackingController {
     @Autowired
     private PartTrackingService partTrackingService;
 
+    @Autowired
+    private OperatorStatsService operatorStatsService;
+
+    @Autowired
+    private PartLockService partLockService;
+
     @PostMapping("/take/{partId}/{userId}")
     public ResponseEntity<PartTrackingSummaryDTO> takePart(
             @PathVariable UUID partId,
@@ -40,6 +63,12 @@ public class PartTrackingController {
         return ResponseEntity.ok(dto);
     }
 
+    // Pieza ya tomada, operario con otra tarea activa o tarea ya completada por otro pedido
+    @ExceptionHandler(TaskConflictException.class)
+    public ResponseEntity<Map<String, String>> handleTaskConflict(TaskConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+    }
+
     @PutMapping("/complete/{partId}/{userId}")
     public ResponseEntity<PartTrackingSummaryDTO> completePart(
             @PathVariable UUID partId,
@@ -57,24 +86,37 @@ public class PartTrackingController {
         return ResponseEntity.ok(dto);
     }
 
+    // Pasa muchas piezas al siguiente estado de una vez (por IDs, o por proyecto y estado de origen), con el
+    // resultado de cada pieza
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @PostMapping("/bulk-transition")
+    public ResponseEntity<?> bulkTransition(@RequestBody BulkTransitionRequestDTO request) {
+        try {
+            return ResponseEntity.ok(partTrackingService.bulkTransition(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Historial paginado: ?cursor=<nextCursor de la página anterior>&limit=&completed=&state=&initialState=&projectId=&from=&to=
+    @StaleReadsAllowed
     @GetMapping("/history/{userId}")
-    public ResponseEntity<List<PartTrackingSummaryDTO>> getUserHistory(
-            @PathVariable Long userId) {
-        List<PartStatusTracking> history = partTrackingService.getTrackingHistory(userId);
-        List<PartTrackingSummaryDTO> dtos = history.stream().map(tracking -> {
-            PartTrackingSummaryDTO dto = new PartTrackingSummaryDTO();
-            dto.setTrackingId(tracking.getId());
-            dto.setPartId(tracking.getPart().getId());
-            dto.setProjectId(tracking.getPart().getProject().getId());
-            dto.setPartName(tracking.getPart().getCustomPart().getCustomPartName());
-            dto.setPartState(tracking.getPartState()); // Mantenemos PartState
-            dto.setScanDateTime(tracking.getPart().getScanDateTime());
-            dto.setStartTime(tracking.getStartTime());
-            dto.setEndTime(tracking.getEndTime());
-            dto.setCompleted(tracking.isCompleted());
-            return dto;
-        }).collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<CursorPageDTO<PartTrackingSummaryDTO>> getUserHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPageDTO.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) PartState state,
+            @RequestParam(required = false) PartState initialState,
+            @RequestParam(required = false) Long projectId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(partTrackingService.getTrackingHistoryPage(userId, cursor, limit, completed,
+                    state, initialState, projectId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/active/{userId}")
@@ -97,10 +139,70 @@ public class PartTrackingController {
         return ResponseEntity.ok(dtos);
     }
 
+    @StaleReadsAllowed
     @GetMapping("/metrics/{userId}")
     public ResponseEntity<OperatorMetricsDTO> getUserMetrics(
             @PathVariable Long userId) {
         OperatorMetricsDTO metrics = partTrackingService.getUserMetrics(userId);
         return ResponseEntity.ok(metrics);
     }
+
+    // Totales por estación (estado) de todos los operarios, o de uno con ?userId=; from y to inclusivas
+    @StaleReadsAllowed
+    @GetMapping("/stats/stations")
+    public ResponseEntity<List<StationStatsDTO>> getStationStats(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(operatorStatsService.getStationStats(userId, from, to));
+    }
+
+    // Recalcula los resúmenes desde el historial de tareas (también corre solo, ver stats.rebuild.cron)
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<?> rebuildStats() {
+        int rows = operatorStatsService.rebuild();
+        if (rows < 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Ya hay un recálculo en curso.");
+        }
+        return ResponseEntity.ok(rows);
+    }
+
+    // Esperas y conflictos en los locks por pieza / operario (PartLockService)
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/locks/stats")
+    public ResponseEntity<LockStatsDTO> getLockStats() {
+        return ResponseEntity.ok(partLockService.getStats());
+    }
+
+    // Tareas completadas del operario, paginadas (antes venían todas dentro de las métricas)
+    @StaleReadsAllowed
+    @GetMapping("/metrics/{userId}/completed-parts")
+    public ResponseEntity<CursorPageDTO<PartTrackingSummaryDTO>> getCompletedParts(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPageDTO.DEFAULT_LIMIT) int limit) {
+        try {
+            return ResponseEntity.ok(partTrackingService.getTrackingHistoryPage(userId, cursor, limit, true,
+                    null, null, null, null, null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Tareas completadas que empezaron con la pieza en un estado dado, paginadas
+    @StaleReadsAllowed
+    @GetMapping("/metrics/{userId}/by-initial-state/{initialState}")
+    public ResponseEntity<CursorPageDTO<PartTrackingSummaryDTO>> getCompletedPartsByInitialState(
+            @PathVariable Long userId,
+            @PathVariable PartState initialState,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPageDTO.DEFAULT_LIMIT) int limit) {
+        try {
+            return ResponseEntity.ok(partTrackingService.getTrackingHistoryPage(userId, cursor, limit, true,
+                    null, initialState, null, null, null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
\ No newline at end of file
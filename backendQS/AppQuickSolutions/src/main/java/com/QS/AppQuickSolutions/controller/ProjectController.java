@@ -1,9 +1,16 @@
 package com.QS.AppQuickSolutions.controller;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,16 +20,32 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.QS.AppQuickSolutions.config.StaleReadsAllowed;
+import com.QS.AppQuickSolutions.dto.CursorPageDTO;
 import com.QS.AppQuickSolutions.dto.PartDto;
 import com.QS.AppQuickSolutions.dto.ProjectDto;
+import com.QS.AppQuickSolutions.dto.ProjectSummaryDTO;
 import com.QS.AppQuickSolutions.dto.ProjectWithPartsDto;
+import com.QS.AppQuickSolutions.dto.QRGenerationStatusDTO;
 import com.QS.AppQuickSolutions.entity.Project;
+import com.QS.AppQuickSolutions.enums.LabelSheetFormat;
 import com.QS.AppQuickSolutions.services.ProjectService;
+import com.QS.AppQuickSolutions.services.QRGenerationService;
+import com.QS.AppQuickSolutions.services.QRLabelSheetService;
+import com.QS.AppQuickSolutions.services.QRLabelSheetService.LabelRow;
 import com.google.zxing.WriterException;
 
 import io.jsonwebtoken.io.IOException;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/api/project")
@@ -31,6 +54,16 @@ public class ProjectController {
     @Autowired
     private ProjectService projectService;
 
+    @Autowired
+    private QRGenerationService qrGenerationService;
+
+    @Autowired
+    private QRLabelSheetService qrLabelSheetService;
+
+    // Timeout de las descargas de hojas de etiquetas (el resto de los pedidos usa el del contenedor)
+    @Value("${app.streaming.timeout-ms:600000}")
+    private long streamingTimeoutMs;
+
     // Crear un nuevo proyecto junto con sus piezas
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("/create")
@@ -45,11 +78,22 @@ public class ProjectController {
         }
     }
 
-    // Obtener todos los proyectos
+    // Listado paginado de proyectos (sin las piezas, solo su cantidad):
+    // ?cursor=<nextCursor de la página anterior>&limit=&from=&to=&search=
     @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @StaleReadsAllowed
     @GetMapping("/list")
-    public ResponseEntity<List<Project>> getAllProjects() {
-        return ResponseEntity.ok(projectService.getAllProjects());
+    public ResponseEntity<CursorPageDTO<ProjectSummaryDTO>> getAllProjects(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CursorPageDTO.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String search) {
+        try {
+            return ResponseEntity.ok(projectService.getProjectsPage(cursor, limit, from, to, search));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
     }
 
     // Obtener un proyecto por ID
@@ -89,6 +133,46 @@ public class ProjectController {
         }
     }
 
+    // Estado de la generación de imágenes QR del proyecto (se renderizan después de crearlo)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @GetMapping("/{id}/qr-status")
+    public ResponseEntity<QRGenerationStatusDTO> getQRGenerationStatus(@PathVariable Long id) {
+        return qrGenerationService.getStatus(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body(null));
+    }
+
+    // Hojas de etiquetas con todos los QR del proyecto (format=pdf o png, las PNG van en un zip).
+    // La respuesta se escribe hoja por hoja a medida que se genera
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @GetMapping("/{id}/qr-labels")
+    public ResponseEntity<StreamingResponseBody> downloadQRLabels(@PathVariable Long id,
+            @RequestParam(defaultValue = "pdf") String format, HttpServletRequest request) {
+        LabelSheetFormat sheetFormat;
+        try {
+            sheetFormat = LabelSheetFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+
+        List<LabelRow> labels;
+        try {
+            labels = qrLabelSheetService.loadLabels(id);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+
+        String baseName = "etiquetas_qr_proyecto_" + id;
+        boolean pdf = sheetFormat == LabelSheetFormat.PDF;
+        StreamingResponseBody body = out -> qrLabelSheetService.writeSheets(labels, sheetFormat, baseName, out);
+        extendAsyncTimeout(request, streamingTimeoutMs);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(baseName + (pdf ? ".pdf" : ".zip")).build().toString())
+                .contentType(pdf ? MediaType.APPLICATION_PDF : MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
     @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
     @GetMapping("/{id}/parts")
     public ResponseEntity<List<PartDto>> getPartsByProject(@PathVariable Long id) {
@@ -99,4 +183,18 @@ public class ProjectController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
     }
-}
\ No newline at end of file
+
+    // Fija el timeout de la respuesta asíncrona de este pedido. Spring llama a beforeConcurrentHandling con el
+    // AsyncWebRequest justo antes de iniciar el modo asíncrono, cuando todavía se puede cambiar el timeout
+    private static void extendAsyncTimeout(HttpServletRequest request, long timeoutMs) {
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor("streamingTimeout",
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                        if (webRequest instanceof AsyncWebRequest asyncWebRequest) {
+                            asyncWebRequest.setTimeout(timeoutMs);
+                        }
+                    }
+                });
+    }
+}
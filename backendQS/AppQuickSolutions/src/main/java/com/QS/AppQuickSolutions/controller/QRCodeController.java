@@ -1,9 +1,12 @@
 package com.QS.AppQuickSolutions.controller;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,11 +15,19 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
+import com.QS.AppQuickSolutions.dto.DeliveryScanBatchDTO;
 import com.QS.AppQuickSolutions.dto.PartDto;
+import com.QS.AppQuickSolutions.dto.PhotoScanResultDTO;
+import com.QS.AppQuickSolutions.services.IdempotencyService;
 import com.QS.AppQuickSolutions.services.QRCodeService;
+import com.QS.AppQuickSolutions.services.QRPhotoDecoderService;
+import com.QS.AppQuickSolutions.services.QRScanService;
 import com.google.zxing.WriterException;
 
 @RestController
@@ -26,6 +37,15 @@ public class QRCodeController {
     @Autowired
     private QRCodeService qrCodeService;
 
+    @Autowired
+    private QRPhotoDecoderService qrPhotoDecoderService;
+
+    @Autowired
+    private QRScanService qrScanService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PreAuthorize("hasRole('ADMIN') or hasrole('OPERATOR')")
     @PostMapping("/generate-qr")
     public ResponseEntity<?> generateQRCode(@RequestBody PartDto partDto) {
@@ -73,4 +93,68 @@ public class QRCodeController {
             return ResponseEntity.status(500).body("Error al eliminar el código QR: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // Escaneo de un QR con el lector de mano. type=reception: recepción en fábrica / delivery: carga al camión.
+    // Las lecturas repetidas de la misma pieza en la ventana de qrcode.scan.dedupe-window-ms no llegan a la base
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @PostMapping("/scan")
+    public ResponseEntity<?> scan(@RequestBody String qrData, @RequestParam(defaultValue = "reception") String type,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (!List.of("reception", "delivery").contains(type)) {
+            return ResponseEntity.badRequest().body("Valor de type inválido: " + type);
+        }
+        return idempotencyService.execute(idempotencyKey, "scan-" + type, () -> type.equals("reception")
+                ? ResponseEntity.ok(qrScanService.scanReception(qrData))
+                : ResponseEntity.ok(qrScanService.scanDelivery(qrData)));
+    }
+
+    // Escaneo de carga al camión: recibe todos los QR leídos y los procesa en una sola transacción
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @PostMapping("/delivery-scan/batch")
+    public ResponseEntity<?> scanDeliveryBatch(@RequestBody List<String> qrPayloads,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "delivery-scan-batch", () -> {
+            try {
+                DeliveryScanBatchDTO result = qrCodeService.scanDeliveryQRCodes(qrPayloads);
+                return ResponseEntity.ok(result);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
+    }
+
+    // Lee todos los QR de una foto (pallet, estante, bulto EMBALADO) y los aplica en un solo lote.
+    // apply=reception: recepción en fábrica (como scanQRCode) / delivery: carga al camión / none: solo leer
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPERATOR')")
+    @PostMapping("/photo-scan")
+    public ResponseEntity<?> scanPhoto(@RequestParam("photo") MultipartFile photo,
+            @RequestParam(defaultValue = "reception") String apply,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (!List.of("reception", "delivery", "none").contains(apply)) {
+            return ResponseEntity.badRequest().body("Valor de apply inválido: " + apply);
+        }
+        return idempotencyService.execute(idempotencyKey, "photo-scan-" + apply, () -> scanPhoto(photo, apply));
+    }
+
+    private ResponseEntity<?> scanPhoto(MultipartFile photo, String apply) {
+        try {
+            long start = System.nanoTime();
+            List<String> payloads = qrPhotoDecoderService.decodeAll(photo.getInputStream());
+            long decodeMillis = (System.nanoTime() - start) / 1_000_000;
+
+            PhotoScanResultDTO result = new PhotoScanResultDTO(payloads, decodeMillis, null, null);
+            if (!payloads.isEmpty() && apply.equals("reception")) {
+                result.setReception(qrCodeService.scanQRCodes(payloads));
+            } else if (!payloads.isEmpty() && apply.equals("delivery")) {
+                result.setDelivery(qrCodeService.scanDeliveryQRCodes(payloads));
+            }
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body("Error al leer la foto: " + e.getMessage());
+        }
+    }
+}
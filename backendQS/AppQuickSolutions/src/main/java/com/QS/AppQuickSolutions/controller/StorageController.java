@@ -0,0 +1,28 @@
+package com.QS.AppQuickSolutions.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.QS.AppQuickSolutions.dto.SweepReportDTO;
+import com.QS.AppQuickSolutions.services.storage.OrphanSweeperService;
+
+@RestController
+@RequestMapping("/api/storage")
+public class StorageController {
+
+    @Autowired
+    private OrphanSweeperService orphanSweeperService;
+
+    // Resultado de la última limpieza de archivos huérfanos de cada directorio (duración, bytes liberados)
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/sweeper/reports")
+    public ResponseEntity<List<SweepReportDTO>> getSweepReports() {
+        return ResponseEntity.ok(orphanSweeperService.getLastReports());
+    }
+}
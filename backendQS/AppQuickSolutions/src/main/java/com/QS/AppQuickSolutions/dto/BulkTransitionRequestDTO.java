@@ -0,0 +1,25 @@
+package com.QS.AppQuickSolutions.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.QS.AppQuickSolutions.enums.PartState;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Piezas a pasar al siguiente estado: una lista de IDs, o todas las piezas de un proyecto que estén en fromState
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BulkTransitionRequestDTO {
+    private List<UUID> partIds;
+    private Long projectId; // Solo si no se mandan partIds (requiere fromState)
+    private PartState fromState; // Con partIds es opcional: las piezas en otro estado no se mueven
+    private Long userId; // Operario que queda registrado en el historial de cada pieza
+}
@@ -0,0 +1,21 @@
+package com.QS.AppQuickSolutions.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BulkTransitionResultDTO {
+    private int transitioned; // Piezas que pasaron al siguiente estado
+    private int skipped;
+    private List<PartTransitionResultDTO> results; // Un resultado por pieza, en el orden del pedido
+    private String error; // Null si se procesaron todas las tandas; si no, por qué se cortó
+}
@@ -0,0 +1,22 @@
+package com.QS.AppQuickSolutions.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Aciertos y fallos de una cache desde que arrancó la aplicación
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class CacheStatsDTO {
+    private String name;
+    private long size; // Entradas (aproximado)
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+}
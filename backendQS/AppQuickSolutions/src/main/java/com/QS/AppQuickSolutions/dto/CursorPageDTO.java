@@ -0,0 +1,45 @@
+package com.QS.AppQuickSolutions.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Una página de un listado paginado por clave (keyset). nextCursor se manda tal cual en el pedido
+ * siguiente; es null cuando no hay más resultados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class CursorPageDTO<T> {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private List<T> items;
+    private String nextCursor;
+
+    // Tamaño de página pedido, acotado a 1..MAX_LIMIT
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Arma la página a partir de una consulta que trajo limit + 1 filas: si vino la fila extra hay
+     * otra página, y el cursor es la clave de la última fila devuelta.
+     */
+    public static <T> CursorPageDTO<T> of(List<T> rows, int limit, Function<T, String> cursorOf) {
+        if (rows.size() <= limit) {
+            return new CursorPageDTO<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPageDTO<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+}
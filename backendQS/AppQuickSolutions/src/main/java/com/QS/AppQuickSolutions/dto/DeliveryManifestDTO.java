@@ -0,0 +1,26 @@
+package com.QS.AppQuickSolutions.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class DeliveryManifestDTO {
+    private Long projectId;
+    private LocalDateTime startedAt; // Inicio de la carga
+    private int totalParts;
+    private int loadedParts; // Incluye las que ya estaban marcadas antes de empezar
+    private int missingParts;
+    private List<UUID> missingPartIds; // Solo en GET /missing
+    private DeliveryScanBatchDTO scan; // Solo en la respuesta de un escaneo
+}
@@ -0,0 +1,22 @@
+package com.QS.AppQuickSolutions.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class DeliveryScanBatchDTO {
+    private int loaded; // Piezas marcadas en este lote
+    private int alreadyLoaded;
+    private int unknown;
+    private int invalid;
+    private List<DeliveryScanResultDTO> results; // Un resultado por QR, en el mismo orden del pedido
+}
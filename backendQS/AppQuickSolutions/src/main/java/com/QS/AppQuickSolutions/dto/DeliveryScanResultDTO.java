@@ -0,0 +1,22 @@
+package com.QS.AppQuickSolutions.dto;
+
+import java.util.UUID;
+
+import com.QS.AppQuickSolutions.enums.DeliveryScanStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class DeliveryScanResultDTO {
+    private String qrData; // Contenido escaneado, tal como llegó
+    private UUID partId; // Null si el QR no es válido
+    private DeliveryScanStatus status;
+}
@@ -0,0 +1,23 @@
+package com.QS.AppQuickSolutions.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Uso de los locks de PartLockService desde que arrancó la aplicación
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class LockStatsDTO {
+    private int stripes;
+    private long heldStripes; // Franjas tomadas en este momento
+    private long acquisitions;
+    private long contended; // Veces que hubo que esperar a otro pedido
+    private long timeouts; // Esperas que vencieron (respondidas con 409)
+    private double averageWaitMs; // Promedio sobre todas las adquisiciones, incluidas las que no esperaron
+    private double maxWaitMs;
+}
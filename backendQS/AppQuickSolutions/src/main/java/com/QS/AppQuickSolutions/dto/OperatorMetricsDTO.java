@@ -1,10 +1,7 @@
 package com.QS.AppQuickSolutions.dto;
 
-import java.util.List;
 import java.util.Map;
 
-import com.QS.AppQuickSolutions.entity.PartStatusTracking;
-import com.QS.AppQuickSolutions.entity.User;
 import com.QS.AppQuickSolutions.enums.PartState;
 
 import lombok.AllArgsConstructor;
@@ -13,16 +10,18 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+// Métricas de un operario, calculadas en la base. Las tareas completadas se listan aparte, paginadas
+// (GET /api/part-tracking/metrics/{userId}/completed-parts)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
 @Setter
 public class OperatorMetricsDTO {
-    private User user;
-    private List<PartStatusTracking> completedParts;
+    private Long userId;
+    private String userName;
     private Map<PartState, Double> avgDurationByCategory;
-    private Map<PartState, List<PartStatusTracking>> trackingsByInitialState;
+    private Map<PartState, Long> countByInitialState; // Tareas completadas según el estado en que estaba la pieza al tomarla
     private Map<String, Long> partCountByPeriod; // e.g., {"DAY": 5, "MONTH": 20, "YEAR": 100}
     private long totalTasks; // Total de tareas completadas
     private double averageTaskDuration; // Duración promedio general de las tareas
@@ -0,0 +1,25 @@
+package com.QS.AppQuickSolutions.dto;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class PartPackageDTO {
+    private UUID id;
+    private Long projectId;
+    private Set<UUID> partIds; // Piezas del bulto (al crear, las que se embalan juntas)
+    private String qrCodeData;
+    private String qrCodeFilePath;
+    private Date createdDate;
+}
@@ -0,0 +1,24 @@
+package com.QS.AppQuickSolutions.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.QS.AppQuickSolutions.enums.PartState;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Estado de una pieza en una fecha, reconstruido desde el historial de cambios
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class PartStateAtDTO {
+    private UUID partId;
+    private PartState state; // Null si no hay datos de la pieza hasta esa fecha
+    private LocalDateTime since; // Fecha del cambio o de la foto de la que sale el estado
+}
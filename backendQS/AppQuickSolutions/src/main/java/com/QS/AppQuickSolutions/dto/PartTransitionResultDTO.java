@@ -0,0 +1,24 @@
+package com.QS.AppQuickSolutions.dto;
+
+import java.util.UUID;
+
+import com.QS.AppQuickSolutions.enums.PartState;
+import com.QS.AppQuickSolutions.enums.PartTransitionStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class PartTransitionResultDTO {
+    private UUID partId;
+    private PartState fromState; // Estado en que estaba la pieza (null si no existe o si su tanda no se aplicó)
+    private PartState toState; // Null si la pieza no se movió
+    private PartTransitionStatus status;
+}
@@ -0,0 +1,21 @@
+package com.QS.AppQuickSolutions.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class PhotoScanResultDTO {
+    private List<String> qrPayloads; // Contenido de cada QR encontrado en la foto, sin repetidos
+    private long decodeMillis; // Tiempo que llevó leer la foto
+    private List<ReceptionScanResultDTO> reception; // Resultado por QR si se aplicó como recepción
+    private DeliveryScanBatchDTO delivery; // Resultado si se aplicó como carga al camión
+}
@@ -0,0 +1,30 @@
+package com.QS.AppQuickSolutions.dto;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Fila del listado de proyectos: los datos del proyecto y la cantidad de piezas, sin las piezas
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class ProjectSummaryDTO {
+    private Long id;
+    private String clientAlias;
+    private Long contact;
+    private Date createdDate;
+    private LocalDateTime visitDateTime;
+    private Boolean visitStatus;
+    private Boolean developmentStatus;
+    private Boolean inFolder;
+    private LocalDateTime installationDateTime;
+    private Boolean state;
+    private long partCount;
+}
@@ -0,0 +1,26 @@
+package com.QS.AppQuickSolutions.dto;
+
+import java.time.LocalDateTime;
+
+import com.QS.AppQuickSolutions.enums.QRGenerationState;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class QRGenerationStatusDTO {
+    private Long projectId;
+    private QRGenerationState state;
+    private int totalParts; // Cantidad de QR a generar
+    private int renderedParts; // QR ya escritos
+    private int failedParts; // QR que fallaron al generarse
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,21 @@
+package com.QS.AppQuickSolutions.dto;
+
+import com.QS.AppQuickSolutions.enums.PartState;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Piezas que pasaron de fromState a un estado de retrabajo (toState) en el rango pedido
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class ReworkStatsDTO {
+    private PartState fromState;
+    private PartState toState;
+    private long count;
+}
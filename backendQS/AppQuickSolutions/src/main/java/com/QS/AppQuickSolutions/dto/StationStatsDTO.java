@@ -0,0 +1,25 @@
+package com.QS.AppQuickSolutions.dto;
+
+import com.QS.AppQuickSolutions.enums.PartState;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Tareas completadas en un estado (estación), sumando los resúmenes diarios de uno o todos los operarios
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class StationStatsDTO {
+    private PartState partState;
+    private long completedCount;
+    private long timedCount; // Tareas con duración registrada
+    private long totalDuration; // Minutos, suma de las tareas con duración
+    private double averageDuration; // Minutos, sobre las tareas con duración
+    private Long minDuration;
+    private Long maxDuration;
+}
@@ -0,0 +1,26 @@
+package com.QS.AppQuickSolutions.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class SweepReportDTO {
+    private String store; // qrBlobStore / imageBlobStore
+    private LocalDateTime startedAt;
+    private long durationMillis;
+    private int scanned; // Archivos revisados
+    private int quarantined; // Huérfanos que pasaron a cuarentena en esta pasada
+    private int restored; // Archivos en cuarentena que volvieron a estar referenciados
+    private int purged; // Borrados definitivamente (cumplieron el período de gracia)
+    private long bytesReclaimed;
+    private String error; // Null si la pasada terminó bien
+}
@@ -0,0 +1,27 @@
+package com.QS.AppQuickSolutions.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Una fila por recurso compartido. Se bloquea en modo compartido (escrituras normales, no se esperan entre sí)
+// o exclusivo (recálculos completos, que esperan a las escrituras en curso y las frenan hasta terminar)
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Table(name = "maintenance_lock")
+public class MaintenanceLock {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+}
@@ -0,0 +1,62 @@
+package com.QS.AppQuickSolutions.entity;
+
+import java.time.LocalDate;
+
+import com.QS.AppQuickSolutions.enums.PartState;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Resumen de tareas completadas por operario, estado (estación) y día. Se actualiza en la misma
+// transacción que completa la tarea; OperatorStatsService.rebuild lo recalcula desde PartStatusTracking
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Table(name = "operator_daily_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_operator_daily_stats", columnNames = {"operator_id", "part_state", "stat_day"})})
+public class OperatorDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "operator_id", nullable = false)
+    private Long operatorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "part_state", nullable = false)
+    private PartState partState;
+
+    @Column(name = "stat_day", nullable = false)
+    private LocalDate day; // Día en que terminó la tarea
+
+    @Column(name = "completed_count", nullable = false)
+    private long completedCount; // Tareas completadas
+
+    @Column(name = "timed_count", nullable = false)
+    private long timedCount; // Tareas completadas con duración registrada
+
+    @Column(name = "total_duration_minutes", nullable = false)
+    private long totalDurationMinutes; // Suma de las duraciones registradas
+
+    @Column(name = "min_duration")
+    private Long minDuration;
+
+    @Column(name = "max_duration")
+    private Long maxDuration;
+}
@@ -3,36 +3,43 @@ package com.QS.AppQuickSolutions.entity;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+import org.springframework.data.domain.Persistable;
+
 import com.QS.AppQuickSolutions.enums.PartState;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
-import lombok.AllArgsConstructor;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import lombok.ToString;
 
 @Entity
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @Getter
 @Setter
 @Table(indexes = {@Index(name = "idx_part_state", columnList = "part_state")})
-public class Part {
+public class Part implements Persistable<UUID> {
 
+    // El ID lo asigna la aplicación antes del primer INSERT (Part.newId): así el contenido del QR se
+    // calcula antes de guardar y Hibernate puede mandar los INSERT de muchas piezas en lotes JDBC.
+    // En MySQL se guarda como BINARY(16); los IDs anteriores (UUID al azar) siguen siendo válidos
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)  // Usa GenerationType.AUTO para UUID
     @Column(updatable = false, nullable = false)
     private UUID id;
 
@@ -66,4 +73,38 @@ public class Part {
 
     @Column
     private boolean isReadyForDelivery;
+
+    // Con el ID asignado de antemano Spring Data no puede saber por el ID si la fila ya existe. Es estado del
+    // objeto en memoria, no de la pieza: transient lo deja fuera de equals/hashCode, y no va en toString
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient boolean persisted;
+
+    // UUID versión 7 (ordenado por fecha de creación): las piezas nuevas se insertan al final del índice
+    public static UUID newId() {
+        return TimeOrderedUuid.next();
+    }
+
+    @PrePersist
+    void assignIdIfMissing() {
+        if (id == null) {
+            id = newId();
+        }
+    }
+
+    @PostPersist
+    @PostLoad
+    void markPersisted() {
+        persisted = true;
+    }
+
+    // save() de una pieza nueva hace un INSERT directo, sin el SELECT previo de merge
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !persisted;
+    }
 }
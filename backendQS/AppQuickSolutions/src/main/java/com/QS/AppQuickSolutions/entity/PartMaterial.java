@@ -1,5 +1,9 @@
 package com.QS.AppQuickSolutions.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -16,6 +20,8 @@ import lombok.Setter;
 @AllArgsConstructor
 @Getter
 @Setter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // Región de segundo nivel, ver CacheConfig
 public class PartMaterial {
     
     @Id
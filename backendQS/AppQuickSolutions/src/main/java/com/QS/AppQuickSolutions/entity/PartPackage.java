@@ -0,0 +1,65 @@
+package com.QS.AppQuickSolutions.entity;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Bulto EMBALADO: varias piezas de un proyecto unidas en un solo paquete con su propio QR.
+ * Al cargar el camión, escanear el QR del bulto cuenta todas sus piezas.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Table(name = "part_package")
+public class PartPackage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(updatable = false, nullable = false)
+    private UUID id;
+
+    @ManyToOne
+    @JoinColumn(name = "project_id", nullable = false)
+    @JsonIgnore
+    private Project project;
+
+    // Solo los IDs de las piezas; una pieza puede estar en un único bulto
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "part_package_item", joinColumns = @JoinColumn(name = "package_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_part_package_item_part", columnNames = "part_id"))
+    @Column(name = "part_id", nullable = false)
+    private Set<UUID> partIds = new HashSet<>();
+
+    private String qrCodeData; //Contenido del QR del bulto (QS1K...)
+    private String qrCodeFilePath; //Nombre del archivo de imagen del QR
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdDate = new Date();
+}
@@ -0,0 +1,77 @@
+package com.QS.AppQuickSolutions.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.hibernate.annotations.Immutable;
+import org.springframework.data.domain.Persistable;
+
+import com.QS.AppQuickSolutions.enums.PartState;
+import com.QS.AppQuickSolutions.enums.PartStateEventSource;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Un cambio de estado de una pieza: de qué estado a cuál, quién y cuándo. Solo se agregan filas, nunca se
+// modifican ni se borran; PartStateSnapshot guarda cada tanto el estado de todas las piezas como punto de partida
+@Entity
+@Immutable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Table(name = "part_state_event", indexes = {
+        @Index(name = "idx_part_state_event_part_time", columnList = "part_id, occurred_at"),
+        @Index(name = "idx_part_state_event_to_time", columnList = "to_state, occurred_at")})
+public class PartStateEvent implements Persistable<UUID> {
+
+    // UUID versión 7 asignado al crear el evento: ordenado por fecha y sin IDENTITY, así los INSERT van en lotes
+    @Id
+    @Column(updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "part_id", nullable = false)
+    private UUID partId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_state")
+    private PartState fromState;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_state", nullable = false)
+    private PartState toState;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PartStateEventSource source;
+
+    private Long actorId; // Operario que hizo el cambio, si se conoce
+    private String actorEmail; // Usuario autenticado en el pedido (null en procesos automáticos)
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    public PartStateEvent(UUID partId, PartState fromState, PartState toState, PartStateEventSource source,
+            Long actorId, String actorEmail, LocalDateTime occurredAt) {
+        this(TimeOrderedUuid.next(), partId, fromState, toState, source, actorId, actorEmail, occurredAt);
+    }
+
+    // Siempre es un INSERT: los eventos no se actualizan
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,51 @@
+package com.QS.AppQuickSolutions.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.hibernate.annotations.Immutable;
+
+import com.QS.AppQuickSolutions.enums.PartState;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Estado de una pieza en un momento dado. Lo escribe PartStateHistoryService.takeSnapshots solo para las piezas
+// sin foto o con cambios desde la anterior; el estado en cualquier fecha sale de la última foto más los eventos
+@Entity
+@Immutable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Table(name = "part_state_snapshot", indexes = {
+        @Index(name = "idx_part_state_snapshot_part_time", columnList = "part_id, taken_at")})
+public class PartStateSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "part_id", nullable = false)
+    private UUID partId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "part_state")
+    private PartState partState;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
@@ -1,8 +1,12 @@
 package com.QS.AppQuickSolutions.entity;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.hibernate.annotations.GeneratedColumn;
 
 import com.QS.AppQuickSolutions.enums.PartState;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -15,6 +19,7 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
@@ -27,8 +32,18 @@ import lombok.Setter;
 @AllArgsConstructor
 @Getter
 @Setter
-@Table(indexes = {@Index(name = "idx_user_part_completed", columnList = "operator_id, part_id, is_completed")})
+@Table(indexes = {@Index(name = "idx_user_part_completed", columnList = "operator_id, part_id, is_completed"),
+        @Index(name = "idx_operator_completed_end", columnList = "operator_id, is_completed, end_time")},
+        uniqueConstraints = {
+                @UniqueConstraint(name = PartStatusTracking.ACTIVE_PART_CONSTRAINT, columnNames = "active_part_id"),
+                @UniqueConstraint(name = PartStatusTracking.ACTIVE_OPERATOR_CONSTRAINT, columnNames = "active_operator_id")})
 public class PartStatusTracking {
+
+    // Una pieza tiene a lo sumo un seguimiento activo y un operario a lo sumo una tarea activa. Lo garantiza
+    // la base con índices únicos sobre columnas calculadas (NULL en las tareas completadas, y los NULL no
+    // chocan entre sí), así dos pedidos simultáneos no pueden tomar la misma pieza
+    public static final String ACTIVE_PART_CONSTRAINT = "uk_tracking_active_part";
+    public static final String ACTIVE_OPERATOR_CONSTRAINT = "uk_tracking_active_operator";
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -63,4 +78,15 @@ public class PartStatusTracking {
 
     @Column
     private String description; // Para describir problemas (REPARACION, DEVOLUCION_FUERA_DE_MEDIDA, etc.)
+
+    // Calculadas por la base, solo para los índices únicos de arriba
+    @GeneratedColumn("CASE WHEN is_completed THEN NULL ELSE part_id END")
+    @Column(name = "active_part_id", insertable = false, updatable = false)
+    @JsonIgnore
+    private UUID activePartId;
+
+    @GeneratedColumn("CASE WHEN is_completed THEN NULL ELSE operator_id END")
+    @Column(name = "active_operator_id", insertable = false, updatable = false)
+    @JsonIgnore
+    private Long activeOperatorId;
 }
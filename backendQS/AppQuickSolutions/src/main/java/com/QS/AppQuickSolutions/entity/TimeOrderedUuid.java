@@ -0,0 +1,64 @@
+package com.QS.AppQuickSolutions.entity;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * UUID versión 7 (RFC 9562): los primeros 48 bits son el instante de creación en milisegundos, así los IDs
+ * nuevos quedan ordenados y cada INSERT cae al final del índice en lugar de en una página al azar.
+ *
+ * <pre>
+ *   | 48 bits: ms desde 1970 | ver (7) | 12 bits: secuencia | var (10) | 62 bits al azar |
+ * </pre>
+ *
+ * Dentro de un mismo milisegundo la secuencia (que arranca en un valor al azar) mantiene el orden; si se
+ * agota se usa el milisegundo siguiente. Si el reloj retrocede se sigue desde el último valor emitido,
+ * nunca se repite ni se desordena un ID. Los 62 bits finales salen de SecureRandom, como en UUID.randomUUID.
+ */
+public final class TimeOrderedUuid {
+
+    private static final int SEQUENCE_MAX = 0xFFF;
+
+    private static final SecureRandom random = new SecureRandom();
+
+    private static final Object lock = new Object();
+    private static long lastMillis;
+    private static int sequence;
+
+    private TimeOrderedUuid() {
+    }
+
+    public static UUID next() {
+        return next(System.currentTimeMillis());
+    }
+
+    static UUID next(long nowMillis) {
+        long millis;
+        int seq;
+        synchronized (lock) {
+            if (nowMillis > lastMillis) {
+                lastMillis = nowMillis;
+                // Mitad inferior, para dejar lugar a muchos IDs en el mismo milisegundo
+                sequence = random.nextInt(SEQUENCE_MAX / 2);
+            } else if (++sequence > SEQUENCE_MAX) {
+                lastMillis++;
+                sequence = 0;
+            }
+            millis = lastMillis;
+            seq = sequence;
+        }
+        long msb = (millis << 16) | 0x7000L | seq;
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Milisegundo de creación de un UUID versión 7.
+     */
+    public static long timestampMillis(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("No es un UUID versión 7: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,9 @@
+package com.QS.AppQuickSolutions.enums;
+
+public enum DeliveryScanStatus {
+
+    CARGADA, //la pieza quedo marcada como lista para entrega con este escaneo
+    YA_CARGADA, //la pieza ya estaba marcada (escaneo repetido o de otro lote)
+    DESCONOCIDA, //el QR es valido pero no hay ninguna pieza con ese ID (en una carga: no es del proyecto)
+    QR_INVALIDO; //el contenido no es un QR de pieza ni de bulto
+}
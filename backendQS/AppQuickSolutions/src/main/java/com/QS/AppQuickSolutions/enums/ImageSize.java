@@ -0,0 +1,18 @@
+package com.QS.AppQuickSolutions.enums;
+
+public enum ImageSize {
+
+    THUMB(200), //listados y tablas (miniatura de 48-64 px, con margen para pantallas de alta densidad)
+    MEDIUM(800), //vista de detalle
+    ORIGINAL(0); //archivo tal como se subio
+
+    private final int maxSide;
+
+    ImageSize(int maxSide) {
+        this.maxSide = maxSide;
+    }
+
+    public int getMaxSide() {
+        return maxSide;
+    }
+}
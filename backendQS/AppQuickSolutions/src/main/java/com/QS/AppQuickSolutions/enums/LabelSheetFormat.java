@@ -0,0 +1,7 @@
+package com.QS.AppQuickSolutions.enums;
+
+public enum LabelSheetFormat {
+
+    PDF, //un solo documento con todas las hojas de etiquetas
+    PNG; //un zip con una imagen PNG por hoja
+}
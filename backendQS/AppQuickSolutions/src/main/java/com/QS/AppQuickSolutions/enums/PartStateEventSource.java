@@ -0,0 +1,9 @@
+package com.QS.AppQuickSolutions.enums;
+
+public enum PartStateEventSource {
+
+    RECEPCION, //escaneo del QR al recibir la pieza en fabrica
+    TAREA_COMPLETADA, //un operario completo su tarea y la pieza paso al siguiente estado
+    MOVIMIENTO_MASIVO, //movimiento de muchas piezas a la vez (bulk-transition)
+    EDICION; //cambio de estado al editar la pieza
+}
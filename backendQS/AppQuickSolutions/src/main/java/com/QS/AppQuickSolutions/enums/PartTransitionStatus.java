@@ -0,0 +1,12 @@
+package com.QS.AppQuickSolutions.enums;
+
+public enum PartTransitionStatus {
+
+    AVANZADA, //la pieza paso al siguiente estado con este pedido
+    SEGUIMIENTO_ACTIVO, //la pieza tiene una tarea sin completar, no se modifica
+    ESTADO_DISTINTO, //la pieza no esta en el estado de origen pedido, no se modifica
+    SIN_SIGUIENTE_ESTADO, //el estado de la pieza no tiene siguiente (ver PartTrackingService.getNextState)
+    DESCONOCIDA, //no hay ninguna pieza con ese ID
+    FALLIDA, //fallo la tanda de la pieza y su transaccion se deshizo, no se modifica
+    NO_PROCESADA; //no se intento porque fallo una tanda anterior
+}
@@ -0,0 +1,9 @@
+package com.QS.AppQuickSolutions.enums;
+
+public enum QRGenerationState {
+
+    PENDIENTE, //el proyecto se guardo pero la transaccion todavia no confirmo, no se encolo ningun QR
+    EN_PROCESO, //los QR estan en la cola de renderizado
+    COMPLETADO, //todas las imagenes QR del proyecto se escribieron
+    COMPLETADO_CON_ERRORES; //termino la generacion pero alguna imagen no se pudo escribir
+}
@@ -0,0 +1,10 @@
+package com.QS.AppQuickSolutions.enums;
+
+public enum ReceptionScanStatus {
+
+    RECIBIDA, //la pieza quedo recibida y paso a CONTROL_CALIDAD_EN_FABRICA con este escaneo
+    YA_RECIBIDA, //la pieza ya estaba recibida, no se modifica (escaneo repetido o pieza mas avanzada)
+    SEGUIMIENTO_ACTIVO, //la pieza tiene un seguimiento sin completar, no se modifica
+    DESCONOCIDA, //el QR es valido pero no hay ninguna pieza con ese ID
+    QR_INVALIDO; //el contenido no es un QR de pieza
+}
@@ -0,0 +1,7 @@
+package com.QS.AppQuickSolutions.enums;
+
+public enum ScanType {
+
+    RECEPCION, //recepcion de la pieza en fabrica
+    CARGA; //carga de la pieza al camion para la entrega
+}
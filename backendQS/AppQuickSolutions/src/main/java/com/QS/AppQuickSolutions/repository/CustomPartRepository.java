@@ -1,11 +1,19 @@
 package com.QS.AppQuickSolutions.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.QS.AppQuickSolutions.entity.CustomPart;
 
 @Repository
 public interface CustomPartRepository extends JpaRepository <CustomPart, Long>{
-    
+
+    // Limpieza de archivos: cuáles de estas imágenes siguen en uso
+    @Query("SELECT c.imageFilePath FROM CustomPart c WHERE c.imageFilePath IN :fileNames")
+    List<String> findImageFilePathsIn(@Param("fileNames") Collection<String> fileNames);
 }
@@ -1,11 +1,22 @@
 package com.QS.AppQuickSolutions.repository;
 
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.QS.AppQuickSolutions.entity.Event;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long> {
-    
+
+    // Eventos ordenados por fecha e ID; la página sigue después del par (fecha, ID) de la anterior
+    @Query("SELECT e FROM Event e WHERE (:afterDate IS NULL OR e.date > :afterDate OR (e.date = :afterDate AND e.id > :afterId)) "
+            + "AND (:from IS NULL OR e.date >= :from) AND (:to IS NULL OR e.date <= :to) ORDER BY e.date, e.id")
+    List<Event> findPage(@Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId,
+            @Param("from") LocalDate from, @Param("to") LocalDate to, Limit limit);
 }
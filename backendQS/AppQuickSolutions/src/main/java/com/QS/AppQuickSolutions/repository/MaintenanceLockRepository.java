@@ -0,0 +1,27 @@
+package com.QS.AppQuickSolutions.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.QS.AppQuickSolutions.entity.MaintenanceLock;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface MaintenanceLockRepository extends JpaRepository<MaintenanceLock, String> {
+
+    // SELECT ... FOR SHARE: se mantiene hasta el commit
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT l FROM MaintenanceLock l WHERE l.name = :name")
+    Optional<MaintenanceLock> lockShared(@Param("name") String name);
+
+    // SELECT ... FOR UPDATE: espera a que terminen los que tienen el lock compartido
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM MaintenanceLock l WHERE l.name = :name")
+    Optional<MaintenanceLock> lockExclusive(@Param("name") String name);
+}
@@ -0,0 +1,62 @@
+package com.QS.AppQuickSolutions.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.QS.AppQuickSolutions.entity.OperatorDailyStats;
+
+@Repository
+public interface OperatorDailyStatsRepository extends JpaRepository<OperatorDailyStats, Long> {
+
+    // Suma una tarea completada a su resumen del día, creándolo si no existe. Es un único INSERT ... ON
+    // DUPLICATE KEY UPDATE (clave única operario/estado/día), así dos tareas simultáneas no se pisan. timed es 1
+    // si la tarea tiene duración y 0 si no: en ese caso solo suma a completed_count
+    @Modifying
+    @Query(value = "INSERT INTO operator_daily_stats (operator_id, part_state, stat_day, completed_count, timed_count, "
+            + "total_duration_minutes, min_duration, max_duration) VALUES (:operatorId, :partState, :day, 1, :timed, "
+            + ":duration, CASE WHEN :timed = 1 THEN :duration END, CASE WHEN :timed = 1 THEN :duration END) "
+            + "ON DUPLICATE KEY UPDATE completed_count = completed_count + 1, timed_count = timed_count + :timed, "
+            + "total_duration_minutes = total_duration_minutes + :duration, "
+            + "min_duration = CASE WHEN :timed = 1 THEN LEAST(COALESCE(min_duration, :duration), :duration) "
+            + "ELSE min_duration END, "
+            + "max_duration = CASE WHEN :timed = 1 THEN GREATEST(COALESCE(max_duration, :duration), :duration) "
+            + "ELSE max_duration END", nativeQuery = true)
+    int upsertCompletedTask(@Param("operatorId") Long operatorId, @Param("partState") String partState,
+            @Param("day") LocalDate day, @Param("timed") int timed, @Param("duration") long duration);
+
+    // Por estado: tareas completadas, cuántas con duración, suma de duraciones, mínimo y máximo. operatorId
+    // null = todos
+    @Query("SELECT s.partState, SUM(s.completedCount), SUM(s.timedCount), SUM(s.totalDurationMinutes), "
+            + "MIN(s.minDuration), MAX(s.maxDuration) "
+            + "FROM OperatorDailyStats s WHERE (:operatorId IS NULL OR s.operatorId = :operatorId) "
+            + "AND (:from IS NULL OR s.day >= :from) AND (:to IS NULL OR s.day <= :to) GROUP BY s.partState")
+    List<Object[]> sumByState(@Param("operatorId") Long operatorId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    // Tareas completadas de un operario después de cada día (excluido), en una sola pasada
+    @Query("SELECT SUM(CASE WHEN s.day > :dayStart THEN s.completedCount ELSE 0 END), "
+            + "SUM(CASE WHEN s.day > :monthStart THEN s.completedCount ELSE 0 END), SUM(s.completedCount) "
+            + "FROM OperatorDailyStats s WHERE s.operatorId = :operatorId AND s.day > :yearStart")
+    List<Object[]> countCompletedSince(@Param("operatorId") Long operatorId, @Param("dayStart") LocalDate dayStart,
+            @Param("monthStart") LocalDate monthStart, @Param("yearStart") LocalDate yearStart);
+
+    @Modifying
+    @Query("DELETE FROM OperatorDailyStats s")
+    int deleteAllStats();
+
+    // Recalcula todos los resúmenes desde las tareas completadas
+    @Modifying
+    @Query(value = "INSERT INTO operator_daily_stats (operator_id, part_state, stat_day, completed_count, timed_count, "
+            + "total_duration_minutes, min_duration, max_duration) SELECT operator_id, part_state, CAST(end_time AS DATE), "
+            + "COUNT(*), COUNT(task_duration), COALESCE(SUM(task_duration), 0), MIN(task_duration), MAX(task_duration) "
+            + "FROM part_status_tracking "
+            + "WHERE is_completed = true AND end_time IS NOT NULL "
+            + "GROUP BY operator_id, part_state, CAST(end_time AS DATE)", nativeQuery = true)
+    int rebuildFromTrackings();
+}
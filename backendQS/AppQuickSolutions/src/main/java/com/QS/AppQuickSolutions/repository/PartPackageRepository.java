@@ -0,0 +1,34 @@
+package com.QS.AppQuickSolutions.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.QS.AppQuickSolutions.entity.PartPackage;
+
+@Repository
+public interface PartPackageRepository extends JpaRepository<PartPackage, UUID> {
+
+    List<PartPackage> findByProjectId(Long projectId);
+
+    // Pares (ID de bulto, ID de pieza) de todos los bultos de un proyecto, en una sola consulta
+    @Query("SELECT pk.id, item FROM PartPackage pk JOIN pk.partIds item WHERE pk.project.id = :projectId")
+    List<Object[]> findItemsByProjectId(@Param("projectId") Long projectId);
+
+    // Cuáles de estas piezas ya están en algún bulto
+    @Query("SELECT item FROM PartPackage pk JOIN pk.partIds item WHERE item IN :partIds")
+    List<UUID> findPackagedPartIdsIn(@Param("partIds") Collection<UUID> partIds);
+
+    @Query("SELECT pk.qrCodeFilePath FROM PartPackage pk WHERE pk.qrCodeFilePath IN :fileNames")
+    List<String> findQrCodeFilePathsIn(@Param("fileNames") Collection<String> fileNames);
+
+    // Solo los datos del QR, para renderizar la imagen sin cargar el bulto
+    @Query("SELECT pk.qrCodeData FROM PartPackage pk WHERE pk.id = :packageId")
+    Optional<String> findQrCodeDataById(@Param("packageId") UUID packageId);
+}
@@ -1,16 +1,27 @@
 package com.QS.AppQuickSolutions.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.QS.AppQuickSolutions.dto.PartTrackingSummaryDTO;
 import com.QS.AppQuickSolutions.entity.Part;
 import com.QS.AppQuickSolutions.entity.Project;
 import com.QS.AppQuickSolutions.enums.PartState;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface PartRepository extends JpaRepository<Part, UUID> {
 
@@ -19,7 +30,10 @@ public interface PartRepository extends JpaRepository<Part, UUID> {
     
     Optional<Part> findByQrCodeData(String qrCodeData);
 
-    List<Part> findByProjectId(Long projectId); // Método para encontrar partes por ID de proyecto
+    // Método para encontrar partes por ID de proyecto. Trae las relaciones en el mismo select
+    // para no hacer una consulta extra por cada CustomPart o material distinto
+    @EntityGraph(attributePaths = {"project", "customPart", "partMaterial"})
+    List<Part> findByProjectId(Long projectId);
 
     Optional<Part> findById(UUID partId);
 
@@ -27,6 +41,84 @@ public interface PartRepository extends JpaRepository<Part, UUID> {
     // List<Part> findAllByPartState(PartState partState);
 
     List<Part> findByPartState(PartState partState);
+
+    // Listado paginado por ID (keyset): la página arranca después del último ID de la anterior, así que
+    // cuesta lo mismo la primera que la milésima. Los filtros en null no se aplican
+    @EntityGraph(attributePaths = {"project", "customPart", "partMaterial"})
+    @Query("SELECT p FROM Part p WHERE (:after IS NULL OR p.id > :after) "
+            + "AND (:state IS NULL OR p.partState = :state) AND (:projectId IS NULL OR p.project.id = :projectId) "
+            + "AND (:from IS NULL OR p.scanDateTime >= :from) AND (:to IS NULL OR p.scanDateTime < :to) ORDER BY p.id")
+    List<Part> findPage(@Param("after") UUID after, @Param("state") PartState state, @Param("projectId") Long projectId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Limit limit);
+
+    // Tablero de piezas por estado en una sola consulta: cada pieza con su proyecto, el nombre de la
+    // CustomPart y el seguimiento activo (si lo hay), sin cargar ninguna entidad
+    @Query("SELECT new com.QS.AppQuickSolutions.dto.PartTrackingSummaryDTO(p.id, pr.id, cp.customPartName, p.partState, "
+            + "p.scanDateTime, t.id, t.startTime, t.endTime, COALESCE(t.isCompleted, false), COALESCE(t.isTaken, false)) "
+            + "FROM Part p LEFT JOIN p.project pr LEFT JOIN p.customPart cp "
+            + "LEFT JOIN PartStatusTracking t ON t.part = p AND t.isCompleted = false "
+            + "WHERE p.partState NOT IN :excludedStates")
+    List<PartTrackingSummaryDTO> findTrackingSummariesExcludingStates(@Param("excludedStates") Collection<PartState> excludedStates);
+
+    // ID y estado de entrega de un lote de piezas. Bloquea las filas hasta el commit para que dos
+    // escaneos simultáneos de la misma pieza no la den ambos como recién cargada
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id, p.isReadyForDelivery FROM Part p WHERE p.id IN :partIds")
+    List<Object[]> findDeliveryStateByIdIn(@Param("partIds") Collection<UUID> partIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Part p SET p.isReadyForDelivery = true WHERE p.id IN :partIds")
+    int markReadyForDelivery(@Param("partIds") Collection<UUID> partIds);
+
+    // ID, estado de recepción y estado de un lote de piezas, con las filas bloqueadas hasta el commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id, p.receptionState, p.partState FROM Part p WHERE p.id IN :partIds")
+    List<Object[]> findReceptionStateByIdIn(@Param("partIds") Collection<UUID> partIds);
+
+    // Recepción por lotes: lo mismo que hace scanQRCode con cada pieza, en un solo UPDATE
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Part p SET p.receptionState = true, p.scanDateTime = :scanDateTime, p.partState = :partState WHERE p.id IN :partIds")
+    int markReceived(@Param("partIds") Collection<UUID> partIds, @Param("scanDateTime") LocalDateTime scanDateTime,
+            @Param("partState") PartState partState);
+
+    // Avanza el estado solo si la pieza sigue en el estado leído (0 filas si otro pedido la cambió antes)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Part p SET p.partState = :nextState WHERE p.id = :partId AND p.partState = :currentState")
+    int advanceState(@Param("partId") UUID partId, @Param("currentState") PartState currentState,
+            @Param("nextState") PartState nextState);
+
+    // Movimiento masivo: ID y estado de un lote de piezas, con las filas bloqueadas hasta el commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id, p.partState FROM Part p WHERE p.id IN :partIds")
+    List<Object[]> findStateByIdIn(@Param("partIds") Collection<UUID> partIds);
+
+    @Query("SELECT p.id FROM Part p WHERE p.project.id = :projectId AND p.partState = :partState ORDER BY p.id")
+    List<UUID> findIdsByProjectIdAndPartState(@Param("projectId") Long projectId, @Param("partState") PartState partState);
+
+    // Movimiento masivo: un UPDATE por estado de origen, solo sobre las piezas que siguen en ese estado
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Part p SET p.partState = :nextState WHERE p.id IN :partIds AND p.partState = :currentState")
+    int advanceStates(@Param("partIds") Collection<UUID> partIds, @Param("currentState") PartState currentState,
+            @Param("nextState") PartState nextState);
+
+    // ID y estado de entrega de todas las piezas de un proyecto, sin cargar las entidades
+    @Query("SELECT p.id, p.isReadyForDelivery FROM Part p WHERE p.project.id = :projectId")
+    List<Object[]> findDeliveryStateByProjectId(@Param("projectId") Long projectId);
+
+    // Cuáles de estas piezas pertenecen al proyecto
+    @Query("SELECT p.id FROM Part p WHERE p.project.id = :projectId AND p.id IN :partIds")
+    List<UUID> findIdsByProjectIdAndIdIn(@Param("projectId") Long projectId, @Param("partIds") Collection<UUID> partIds);
+
+    // Limpieza de archivos: cuáles de estos nombres de imagen QR siguen asignados a una pieza
+    @Query("SELECT p.qrCodeFilePath FROM Part p WHERE p.qrCodeFilePath IN :fileNames")
+    List<String> findQrCodeFilePathsIn(@Param("fileNames") Collection<String> fileNames);
+
+    @Query("SELECT p.id FROM Part p WHERE p.id IN :partIds")
+    List<UUID> findExistingIdsIn(@Param("partIds") Collection<UUID> partIds);
+
+    // Solo los datos del QR, para renderizar la imagen sin cargar la pieza con sus relaciones
+    @Query("SELECT p.qrCodeData FROM Part p WHERE p.id = :partId")
+    Optional<String> findQrCodeDataById(@Param("partId") UUID partId);
     
 
 }
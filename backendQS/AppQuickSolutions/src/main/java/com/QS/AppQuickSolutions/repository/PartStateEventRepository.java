@@ -0,0 +1,42 @@
+package com.QS.AppQuickSolutions.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.QS.AppQuickSolutions.entity.PartStateEvent;
+import com.QS.AppQuickSolutions.enums.PartState;
+
+@Repository
+public interface PartStateEventRepository extends JpaRepository<PartStateEvent, UUID> {
+
+    // Línea de tiempo de una pieza (el ID es versión 7, así que también desempata por orden de creación)
+    List<PartStateEvent> findByPartIdOrderByOccurredAtAscIdAsc(UUID partId);
+
+    // Último cambio hasta una fecha y primero después de ella (idx_part_state_event_part_time)
+    Optional<PartStateEvent> findFirstByPartIdAndOccurredAtLessThanEqualOrderByOccurredAtDescIdDesc(UUID partId,
+            LocalDateTime at);
+
+    Optional<PartStateEvent> findFirstByPartIdAndOccurredAtAfterOrderByOccurredAtAscIdAsc(UUID partId, LocalDateTime at);
+
+    // Último cambio de cada pieza del proyecto hasta una fecha. Si dos eventos de la misma pieza tienen la
+    // misma fecha vienen los dos; el servicio se queda con el de ID mayor
+    @Query("SELECT e FROM PartStateEvent e WHERE e.partId IN (SELECT p.id FROM Part p WHERE p.project.id = :projectId) "
+            + "AND e.occurredAt = (SELECT MAX(e2.occurredAt) FROM PartStateEvent e2 "
+            + "WHERE e2.partId = e.partId AND e2.occurredAt <= :at)")
+    List<PartStateEvent> findLatestByProjectIdAt(@Param("projectId") Long projectId, @Param("at") LocalDateTime at);
+
+    // Retrabajo: cuántas piezas entraron a cada estado de retrabajo y desde qué estado, en un rango de fechas
+    @Query("SELECT e.fromState, e.toState, COUNT(e) FROM PartStateEvent e WHERE e.toState IN :reworkStates "
+            + "AND (:from IS NULL OR e.occurredAt >= :from) AND (:to IS NULL OR e.occurredAt < :to) "
+            + "GROUP BY e.fromState, e.toState")
+    List<Object[]> countReworkTransitions(@Param("reworkStates") Collection<PartState> reworkStates,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
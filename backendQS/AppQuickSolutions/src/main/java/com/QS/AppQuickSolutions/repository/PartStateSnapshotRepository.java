@@ -0,0 +1,38 @@
+package com.QS.AppQuickSolutions.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.QS.AppQuickSolutions.entity.PartStateSnapshot;
+
+@Repository
+public interface PartStateSnapshotRepository extends JpaRepository<PartStateSnapshot, Long> {
+
+    Optional<PartStateSnapshot> findFirstByPartIdAndTakenAtLessThanEqualOrderByTakenAtDesc(UUID partId, LocalDateTime at);
+
+    // Última foto de cada pieza del proyecto hasta una fecha
+    @Query("SELECT s FROM PartStateSnapshot s WHERE s.partId IN (SELECT p.id FROM Part p WHERE p.project.id = :projectId) "
+            + "AND s.takenAt = (SELECT MAX(s2.takenAt) FROM PartStateSnapshot s2 "
+            + "WHERE s2.partId = s.partId AND s2.takenAt <= :at)")
+    List<PartStateSnapshot> findLatestByProjectIdAt(@Param("projectId") Long projectId, @Param("at") LocalDateTime at);
+
+    @Query("SELECT MAX(s.takenAt) FROM PartStateSnapshot s")
+    Optional<LocalDateTime> findLastTakenAt();
+
+    // Foto del estado actual de las piezas que todavía no tienen ninguna o que cambiaron desde :since (la foto
+    // anterior); las demás siguen bien representadas por su última foto. Un solo INSERT ... SELECT
+    @Modifying
+    @Query(value = "INSERT INTO part_state_snapshot (part_id, part_state, taken_at) SELECT p.id, p.part_state, :takenAt "
+            + "FROM part p WHERE NOT EXISTS (SELECT 1 FROM part_state_snapshot s WHERE s.part_id = p.id) "
+            + "OR EXISTS (SELECT 1 FROM part_state_event e WHERE e.part_id = p.id AND e.occurred_at >= :since)",
+            nativeQuery = true)
+    int insertSnapshots(@Param("takenAt") LocalDateTime takenAt, @Param("since") LocalDateTime since);
+}
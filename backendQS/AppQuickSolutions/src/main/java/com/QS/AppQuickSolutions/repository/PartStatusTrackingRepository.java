@@ -1,15 +1,23 @@
 package com.QS.AppQuickSolutions.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.QS.AppQuickSolutions.dto.PartTrackingSummaryDTO;
 import com.QS.AppQuickSolutions.entity.Part;
 import com.QS.AppQuickSolutions.entity.PartStatusTracking;
 import com.QS.AppQuickSolutions.entity.User;
+import com.QS.AppQuickSolutions.enums.PartState;
 
 @Repository
 public interface PartStatusTrackingRepository extends JpaRepository<PartStatusTracking, Long> {
@@ -31,4 +39,46 @@ public interface PartStatusTrackingRepository extends JpaRepository<PartStatusTr
     Optional<PartStatusTracking> findByPartIdAndUserOperatorUserIDAndIsCompletedFalse(UUID partId, Long userOperatorUserID);
 
     List<PartStatusTracking> findByUserOperatorUserIDAndIsCompletedTrue(Long userOperatorUserID);
+
+    // Completa la tarea solo si sigue activa: de dos pedidos simultáneos uno cambia la fila y el otro recibe 0
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PartStatusTracking t SET t.isCompleted = true, t.isTaken = false, t.endTime = :endTime, "
+            + "t.taskDuration = :taskDuration, t.partState = :partState WHERE t.id = :trackingId AND t.isCompleted = false")
+    int completeIfActive(@Param("trackingId") Long trackingId, @Param("endTime") LocalDateTime endTime,
+            @Param("taskDuration") long taskDuration, @Param("partState") PartState partState);
+
+    // Piezas de un lote que tienen un seguimiento sin completar
+    @Query("SELECT DISTINCT t.part.id FROM PartStatusTracking t WHERE t.part.id IN :partIds AND t.isCompleted = false")
+    List<UUID> findActivePartIdsIn(@Param("partIds") Collection<UUID> partIds);
+
+    // Historial de un operario paginado por ID, del más nuevo al más viejo, ya armado como resumen
+    @Query("SELECT new com.QS.AppQuickSolutions.dto.PartTrackingSummaryDTO(p.id, pr.id, cp.customPartName, t.partState, "
+            + "p.scanDateTime, t.id, t.startTime, t.endTime, t.isCompleted, t.isTaken) "
+            + "FROM PartStatusTracking t JOIN t.part p LEFT JOIN p.project pr LEFT JOIN p.customPart cp "
+            + "WHERE t.userOperator.userID = :userId AND (:before IS NULL OR t.id < :before) "
+            + "AND (:completed IS NULL OR t.isCompleted = :completed) AND (:state IS NULL OR t.partState = :state) "
+            + "AND (:initialState IS NULL OR t.initialPartState = :initialState) AND (:projectId IS NULL OR pr.id = :projectId) "
+            + "AND (:from IS NULL OR t.startTime >= :from) AND (:to IS NULL OR t.startTime < :to) ORDER BY t.id DESC")
+    List<PartTrackingSummaryDTO> findHistoryPage(@Param("userId") Long userId, @Param("before") Long before,
+            @Param("completed") Boolean completed, @Param("state") PartState state,
+            @Param("initialState") PartState initialState, @Param("projectId") Long projectId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Limit limit);
+
+    // Métricas de un operario mientras operator_daily_stats no está lista: por estado, cantidad de tareas
+    // completadas, cuántas tienen duración y la suma de esas duraciones
+    @Query("SELECT t.partState, COUNT(t), COUNT(t.taskDuration), SUM(t.taskDuration) FROM PartStatusTracking t "
+            + "WHERE t.userOperator.userID = :userId AND t.isCompleted = true GROUP BY t.partState")
+    List<Object[]> aggregateCompletedByState(@Param("userId") Long userId);
+
+    // Tareas completadas que terminaron después de cada fecha, en una sola pasada
+    @Query("SELECT SUM(CASE WHEN t.endTime >= :dayStart THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN t.endTime >= :monthStart THEN 1 ELSE 0 END), COUNT(t) FROM PartStatusTracking t "
+            + "WHERE t.userOperator.userID = :userId AND t.isCompleted = true AND t.endTime >= :yearStart")
+    List<Object[]> countCompletedSince(@Param("userId") Long userId, @Param("dayStart") LocalDateTime dayStart,
+            @Param("monthStart") LocalDateTime monthStart, @Param("yearStart") LocalDateTime yearStart);
+
+    // Tareas completadas de un operario según el estado en que estaba la pieza al tomarla
+    @Query("SELECT t.initialPartState, COUNT(t) FROM PartStatusTracking t "
+            + "WHERE t.userOperator.userID = :userId AND t.isCompleted = true GROUP BY t.initialPartState")
+    List<Object[]> countCompletedByInitialState(@Param("userId") Long userId);
 }
\ No newline at end of file
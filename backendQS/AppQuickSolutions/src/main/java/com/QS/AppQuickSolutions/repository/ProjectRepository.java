@@ -1,10 +1,15 @@
 package com.QS.AppQuickSolutions.repository;
 
+import java.util.Date;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.QS.AppQuickSolutions.dto.ProjectSummaryDTO;
 import com.QS.AppQuickSolutions.entity.Project;
 
 @Repository
@@ -15,6 +20,19 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     
     List<Project> findByClientAlias(String clientAlias);
 
+    // Listado paginado por ID, del más nuevo al más viejo. Trae la cantidad de piezas en lugar de las piezas.
+    // search es un patrón LIKE en minúsculas (con '!' como escape) sobre alias del cliente, contacto e ID
+    @Query("SELECT new com.QS.AppQuickSolutions.dto.ProjectSummaryDTO(pr.id, pr.clientAlias, pr.contact, pr.createdDate, "
+            + "pr.visitDateTime, pr.visitStatus, pr.developmentStatus, pr.inFolder, pr.installationDateTime, pr.state, "
+            + "(SELECT COUNT(p) FROM Part p WHERE p.project = pr)) FROM Project pr "
+            + "WHERE (:before IS NULL OR pr.id < :before) "
+            + "AND (:from IS NULL OR pr.createdDate >= :from) AND (:to IS NULL OR pr.createdDate < :to) "
+            + "AND (:search IS NULL OR LOWER(pr.clientAlias) LIKE :search ESCAPE '!' "
+            + "OR CAST(pr.contact AS String) LIKE :search ESCAPE '!' OR CAST(pr.id AS String) LIKE :search ESCAPE '!') "
+            + "ORDER BY pr.id DESC")
+    List<ProjectSummaryDTO> findSummaryPage(@Param("before") Long before, @Param("from") Date from, @Param("to") Date to,
+            @Param("search") String search, Limit limit);
+
     
 
 
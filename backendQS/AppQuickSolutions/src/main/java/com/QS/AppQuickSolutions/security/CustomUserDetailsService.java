@@ -2,13 +2,17 @@ package com.QS.AppQuickSolutions.security;
 
 import java.util.Collections;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.QS.AppQuickSolutions.config.CacheConfig;
 import com.QS.AppQuickSolutions.entity.User;
+import com.QS.AppQuickSolutions.enums.Role;
 import com.QS.AppQuickSolutions.repository.UserRepository;
 
 @Service
@@ -16,22 +20,37 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    // JwtRequestFilter carga el usuario en cada pedido; se guarda por email hasta que UserService lo modifica.
+    // Se cachean solo los datos y se arma un UserDetails nuevo cada vez, porque Spring Security borra la
+    // contraseña del UserDetails después de un login
+    private final Cache userCache;
+
+    public CustomUserDetailsService(UserRepository userRepository, CacheManager cacheManager) {
         this.userRepository = userRepository;
+        this.userCache = cacheManager.getCache(CacheConfig.USER_DETAILS);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con el email: " + username));
-    
-        System.out.println("Loading user details for: " + user.getEmail());
-        System.out.println("Role assigned: " + user.getRole().name()); // Log para confirmar el rol
-    
+        CachedUser cached = userCache.get(username, CachedUser.class);
+        if (cached == null) {
+            User user = userRepository.findByEmail(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con el email: " + username));
+
+            System.out.println("Loading user details for: " + user.getEmail());
+            System.out.println("Role assigned: " + user.getRole().name()); // Log para confirmar el rol
+
+            cached = new CachedUser(user.getEmail(), user.getPassword(), user.getRole());
+            userCache.put(username, cached);
+        }
+
         return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                Collections.singleton(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
+                cached.email(),
+                cached.password(),
+                Collections.singleton(new SimpleGrantedAuthority("ROLE_" + cached.role().name()))
         );
     }
-}
\ No newline at end of file
+
+    private record CachedUser(String email, String password, Role role) {
+    }
+}
@@ -52,4 +52,11 @@ protected void doFilterInternal(HttpServletRequest request, HttpServletResponse
     chain.doFilter(request, response);
 }
 
+    // El dispatch ASYNC (fin de una respuesta en streaming) vuelve a pasar por la autorización: el token se valida
+    // de nuevo en lugar de dejar pasar cualquier dispatch ASYNC sin autenticar
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
 }
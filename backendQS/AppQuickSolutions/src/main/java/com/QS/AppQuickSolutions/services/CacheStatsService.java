@@ -0,0 +1,39 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.cache.CacheManager;
+
+import org.springframework.stereotype.Service;
+
+import com.QS.AppQuickSolutions.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+// Estadísticas de las caches de CacheConfig (regiones de Hibernate y caches de Spring)
+@Service
+public class CacheStatsService {
+
+    private final CacheManager cacheManager;
+
+    public CacheStatsService(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public List<CacheStatsDTO> getStats() {
+        List<CacheStatsDTO> stats = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            javax.cache.Cache<Object, Object> cache = cacheManager.getCache(name);
+            if (cache == null) {
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            Cache<Object, Object> caffeine = cache.unwrap(Cache.class);
+            CacheStats cacheStats = caffeine.stats();
+            stats.add(new CacheStatsDTO(name, caffeine.estimatedSize(), cacheStats.hitCount(), cacheStats.missCount(),
+                    cacheStats.hitRate(), cacheStats.evictionCount()));
+        }
+        return stats;
+    }
+}
@@ -1,59 +1,62 @@
 package com.QS.AppQuickSolutions.services;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
 import java.util.List;
-import java.util.UUID;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.QS.AppQuickSolutions.config.CacheConfig;
 import com.QS.AppQuickSolutions.entity.CustomPart;
 import com.QS.AppQuickSolutions.repository.CustomPartRepository;
 
 @Service
 public class CustomPartService {
 
-    @Value("${file.upload-dir}")
-    private String uploadDir;
-
     private final CustomPartRepository customPartRepository;
 
-    public CustomPartService(CustomPartRepository customPartRepository) {
+    private final ImageDerivativeService imageDerivativeService;
+
+    private final ImageUploadService imageUploadService;
+
+    public CustomPartService(CustomPartRepository customPartRepository,
+            ImageDerivativeService imageDerivativeService,
+            ImageUploadService imageUploadService) {
         this.customPartRepository = customPartRepository;
+        this.imageDerivativeService = imageDerivativeService;
+        this.imageUploadService = imageUploadService;
     }
 
-    // Obtener todas las piezas personalizadas
+    // Obtener todas las piezas personalizadas (cacheado hasta que se crea, modifica o borra alguna)
+    @Cacheable(CacheConfig.CUSTOM_PARTS)
     public List<CustomPart> getAllCustomParts() {
-        return customPartRepository.findAll();
+        return List.copyOf(customPartRepository.findAll());
     }
 
-    // Obtener una pieza personalizada por ID
+    // Obtener una pieza personalizada por ID (sale de la cache de segundo nivel si ya se cargó)
     public CustomPart getCustomPartById(Long id) {
         return customPartRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Custom Part not found with id: " + id));
     }
 
     // Crear una nueva pieza personalizada
+    @CacheEvict(cacheNames = CacheConfig.CUSTOM_PARTS, allEntries = true)
     public CustomPart createCustomPart(String customPartName, MultipartFile image) throws IOException {
         CustomPart customPart = new CustomPart();
         customPart.setCustomPartName(customPartName);
 
         if (image != null && !image.isEmpty()) {
-            String imageName = UUID.randomUUID().toString() + "_" + image.getOriginalFilename();
-            Path imagePath = Paths.get(uploadDir, imageName);
-            Files.createDirectories(imagePath.getParent());
-            Files.copy(image.getInputStream(), imagePath);
-            customPart.setImageFilePath(imageName);
+            customPart.setImageFilePath(storeImage(image));
         }
 
         return customPartRepository.save(customPart);
     }
 
     // Actualizar una pieza personalizada existente
+    @CacheEvict(cacheNames = CacheConfig.CUSTOM_PARTS, allEntries = true)
     public CustomPart updateCustomPart(Long id, String customPartName, MultipartFile image) throws IOException {
         CustomPart existingPart = customPartRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Custom Part not found with id: " + id));
@@ -65,17 +68,7 @@ public class CustomPartService {
     
         // Actualiza la imagen solo si se proporciona
         if (image != null && !image.isEmpty()) {
-            String imageName = UUID.randomUUID().toString() + "_" + image.getOriginalFilename();
-            Path imagePath = Paths.get(uploadDir, imageName);
-    
-            // Crear el directorio si no existe
-            Files.createDirectories(imagePath.getParent());
-    
-            // Guardar la nueva imagen en el sistema de archivos
-            Files.copy(image.getInputStream(), imagePath);
-    
-            // Actualizar la ruta de la imagen
-            existingPart.setImageFilePath(imageName);
+            existingPart.setImageFilePath(storeImage(image));
         }
     
         return customPartRepository.save(existingPart);
@@ -83,38 +76,50 @@ public class CustomPartService {
     
     
 
-    // Eliminar una pieza personalizada
+    // Eliminar una pieza personalizada. La imagen no se borra acá: la misma foto puede ser de otra pieza
+    // (o de una que se está guardando ahora), y la limpieza de huérfanos la reclama si ya nadie la usa
+    @CacheEvict(cacheNames = CacheConfig.CUSTOM_PARTS, allEntries = true)
     public void deleteCustomPart(Long id) {
         CustomPart customPart = customPartRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Custom Part not found with id: " + id));
-        try {
-            deleteImageFile(customPart.getImageFilePath());
-        } catch (IOException e) {
-            throw new RuntimeException("Error deleting associated image file.", e);
-        }
         customPartRepository.delete(customPart);
     }
 
     // Subir una imagen para una pieza personalizada existente
+    @CacheEvict(cacheNames = CacheConfig.CUSTOM_PARTS, allEntries = true)
     public CustomPart uploadImage(Long id, MultipartFile image) throws IOException {
         CustomPart customPart = customPartRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Custom part not found."));
         if (image != null && !image.isEmpty()) {
-            String imageName = UUID.randomUUID().toString() + "_" + image.getOriginalFilename();
-            Path imagePath = Paths.get(uploadDir, imageName);
-            Files.createDirectories(imagePath.getParent());
-            Files.copy(image.getInputStream(), imagePath);
-            customPart.setImageFilePath(imageName);
+            customPart.setImageFilePath(storeImage(image));
         }
         return customPartRepository.save(customPart);
     }
 
-
-    // Eliminar un archivo de imagen del sistema de archivos
-    private void deleteImageFile(String imageFilePath) throws IOException {
-        if (imageFilePath != null && !imageFilePath.isEmpty()) {
-            Path filePath = Paths.get(uploadDir, imageFilePath);
-            Files.deleteIfExists(filePath);
+    // Subir la imagen como cuerpo crudo del pedido (sin multipart): se lee directo del request
+    @CacheEvict(cacheNames = CacheConfig.CUSTOM_PARTS, allEntries = true)
+    public CustomPart uploadImage(Long id, InputStream content, long contentLength, String contentType) throws IOException {
+        CustomPart customPart = customPartRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Custom part not found."));
+        String extension = ImageUploadService.extensionForContentType(contentType);
+        if (extension.isEmpty()) {
+            throw new IllegalArgumentException("Tipo de imagen no soportado: " + contentType);
         }
+        customPart.setImageFilePath(storeImage(content, contentLength, extension));
+        return customPartRepository.save(customPart);
+    }
+
+
+    // Guarda la imagen con una clave derivada de su contenido: subir dos veces la misma foto
+    // (aunque tenga otro nombre) ocupa un solo archivo. La miniatura y la versión mediana se
+    // generan en segundo plano
+    private String storeImage(MultipartFile image) throws IOException {
+        return storeImage(image.getInputStream(), image.getSize(), ImageUploadService.extensionOf(image.getOriginalFilename()));
+    }
+
+    private String storeImage(InputStream content, long size, String extension) throws IOException {
+        String key = imageUploadService.store(content, size, extension);
+        imageDerivativeService.scheduleAfterCommit(key);
+        return key;
     }
 }
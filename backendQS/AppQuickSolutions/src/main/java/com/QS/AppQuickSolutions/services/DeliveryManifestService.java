@@ -0,0 +1,279 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.QS.AppQuickSolutions.dto.DeliveryManifestDTO;
+import com.QS.AppQuickSolutions.dto.DeliveryScanBatchDTO;
+import com.QS.AppQuickSolutions.dto.DeliveryScanResultDTO;
+import com.QS.AppQuickSolutions.enums.DeliveryScanStatus;
+import com.QS.AppQuickSolutions.repository.PartPackageRepository;
+import com.QS.AppQuickSolutions.repository.PartRepository;
+import com.QS.AppQuickSolutions.repository.ProjectRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Control de presencia durante la carga del camión de un proyecto.
+ *
+ * Al empezar la carga se arma en memoria el manifiesto del proyecto con dos consultas (piezas y
+ * contenido de los bultos): cada pieza recibe una posición y lo cargado es un BitSet indexado por esa
+ * posición. Cada escaneo (de pieza o de bulto) se resuelve con búsquedas en memoria, sin consultar la
+ * base, y lo que falta se conoce en todo momento. Al terminar, las piezas cargadas se marcan como
+ * listas para entrega en un solo UPDATE.
+ */
+@Service
+public class DeliveryManifestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryManifestService.class);
+
+    private final Map<Long, DeliveryManifest> manifests = new ConcurrentHashMap<>();
+
+    // Una carga sin escaneos durante este tiempo se descarta (no se marca nada)
+    @Value("${delivery.manifest.idle-timeout-minutes:240}")
+    private long idleTimeoutMinutes;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private PartPackageRepository partPackageRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    /**
+     * Empieza la carga de un proyecto. Si ya hay una en curso se devuelve esa.
+     */
+    @Transactional(readOnly = true)
+    public DeliveryManifestDTO start(Long projectId) {
+        pruneIdle();
+        DeliveryManifest current = manifests.get(projectId);
+        if (current != null) {
+            return current.summary(projectId, false);
+        }
+        if (!projectRepository.existsById(projectId)) {
+            throw new EntityNotFoundException("Proyecto no encontrado con ID: " + projectId);
+        }
+
+        DeliveryManifest manifest = new DeliveryManifest(partRepository.findDeliveryStateByProjectId(projectId),
+                partPackageRepository.findItemsByProjectId(projectId));
+        DeliveryManifest previous = manifests.putIfAbsent(projectId, manifest);
+        logger.info("Carga del proyecto {} iniciada: {} piezas, {} ya cargadas", projectId, manifest.size(), manifest.loadedCount());
+        return (previous != null ? previous : manifest).summary(projectId, false);
+    }
+
+    /**
+     * Registra los QR leídos (de piezas o de bultos). Un bulto da un resultado por cada pieza que contiene.
+     */
+    public DeliveryManifestDTO scan(Long projectId, List<String> payloads) {
+        return withManifest(projectId, manifest -> {
+            DeliveryScanBatchDTO batch = new DeliveryScanBatchDTO(0, 0, 0, 0, new ArrayList<>(payloads.size()));
+            for (String payload : payloads) {
+                Optional<UUID> partId = QRPayloadCodec.decodePartId(payload);
+                if (partId.isPresent()) {
+                    addResult(batch, payload, partId.get(), manifest.markPart(partId.get()));
+                    continue;
+                }
+                Optional<UUID> packageId = QRPayloadCodec.decodePackageId(payload);
+                int[] members = packageId.isPresent() ? manifest.packageMembers(packageId.get()) : null;
+                if (members == null) {
+                    addResult(batch, payload, null, packageId.isPresent() ? DeliveryScanStatus.DESCONOCIDA : DeliveryScanStatus.QR_INVALIDO);
+                    continue;
+                }
+                for (int position : members) {
+                    addResult(batch, payload, manifest.partAt(position), manifest.markPosition(position));
+                }
+            }
+            manifest.touch();
+            DeliveryManifestDTO summary = manifest.summary(projectId, false);
+            summary.setScan(batch);
+            return summary;
+        });
+    }
+
+    /**
+     * Estado de la carga con la lista de piezas que todavía no subieron al camión.
+     */
+    public DeliveryManifestDTO missing(Long projectId) {
+        return withManifest(projectId, manifest -> manifest.summary(projectId, true));
+    }
+
+    /**
+     * Termina la carga: marca como listas para entrega las piezas escaneadas y descarta el manifiesto.
+     */
+    @Transactional
+    public DeliveryManifestDTO finish(Long projectId) {
+        return withManifest(projectId, manifest -> {
+            List<UUID> scanned = manifest.scannedParts();
+            if (!scanned.isEmpty()) {
+                partRepository.markReadyForDelivery(scanned);
+            }
+            manifests.remove(projectId, manifest);
+            logger.info("Carga del proyecto {} terminada: {} piezas marcadas, {} faltantes", projectId, scanned.size(),
+                    manifest.size() - manifest.loadedCount());
+            return manifest.summary(projectId, true);
+        });
+    }
+
+    /**
+     * Descarta la carga en curso sin marcar ninguna pieza.
+     */
+    public void cancel(Long projectId) {
+        withManifest(projectId, manifest -> manifests.remove(projectId, manifest));
+    }
+
+    /**
+     * Ejecuta action con el lock del manifiesto en curso. Si mientras se esperaba el lock otro pedido lo terminó o
+     * lo canceló (ya no está en el mapa), se vuelve a buscar: así un escaneo nunca se aplica a un manifiesto
+     * descartado, y si no hay otra carga en curso responde que no la hay.
+     */
+    private <T> T withManifest(Long projectId, Function<DeliveryManifest, T> action) {
+        while (true) {
+            DeliveryManifest manifest = require(projectId);
+            synchronized (manifest) {
+                if (manifests.get(projectId) == manifest) {
+                    return action.apply(manifest);
+                }
+            }
+        }
+    }
+
+    private DeliveryManifest require(Long projectId) {
+        DeliveryManifest manifest = manifests.get(projectId);
+        if (manifest == null || manifest.isIdle(idleTimeoutMinutes)) {
+            if (manifest != null) {
+                manifests.remove(projectId, manifest);
+            }
+            throw new EntityNotFoundException("No hay una carga en curso para el proyecto " + projectId);
+        }
+        return manifest;
+    }
+
+    private void pruneIdle() {
+        manifests.entrySet().removeIf(entry -> entry.getValue().isIdle(idleTimeoutMinutes));
+    }
+
+    private static void addResult(DeliveryScanBatchDTO batch, String payload, UUID partId, DeliveryScanStatus status) {
+        switch (status) {
+            case CARGADA -> batch.setLoaded(batch.getLoaded() + 1);
+            case YA_CARGADA -> batch.setAlreadyLoaded(batch.getAlreadyLoaded() + 1);
+            case DESCONOCIDA -> batch.setUnknown(batch.getUnknown() + 1);
+            case QR_INVALIDO -> batch.setInvalid(batch.getInvalid() + 1);
+        }
+        batch.getResults().add(new DeliveryScanResultDTO(payload, partId, status));
+    }
+
+    // Manifiesto de un proyecto. No es thread-safe: el servicio sincroniza sobre la instancia
+    private static final class DeliveryManifest {
+
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final Map<UUID, Integer> positionById;
+        private final UUID[] partsByPosition;
+        private final Map<UUID, int[]> membersByPackage = new HashMap<>();
+        private final BitSet loaded;
+        private final BitSet scanned; // Cargadas en esta carga (las que hay que marcar al terminar)
+        private int loadedCount;
+        private volatile long lastActivityNanos = System.nanoTime();
+
+        private DeliveryManifest(List<Object[]> partRows, List<Object[]> packageItems) {
+            partsByPosition = new UUID[partRows.size()];
+            positionById = new HashMap<>(partRows.size() * 4 / 3 + 1);
+            loaded = new BitSet(partRows.size());
+            scanned = new BitSet(partRows.size());
+            for (int position = 0; position < partRows.size(); position++) {
+                Object[] row = partRows.get(position);
+                partsByPosition[position] = (UUID) row[0];
+                positionById.put((UUID) row[0], position);
+                if (Boolean.TRUE.equals(row[1])) {
+                    loaded.set(position);
+                    loadedCount++;
+                }
+            }
+
+            Map<UUID, List<Integer>> members = new HashMap<>();
+            for (Object[] item : packageItems) {
+                Integer position = positionById.get((UUID) item[1]);
+                if (position != null) { // Pieza borrada después de embalar
+                    members.computeIfAbsent((UUID) item[0], id -> new ArrayList<>()).add(position);
+                }
+            }
+            members.forEach((packageId, positions) ->
+                    membersByPackage.put(packageId, positions.stream().mapToInt(Integer::intValue).toArray()));
+        }
+
+        DeliveryScanStatus markPart(UUID partId) {
+            Integer position = positionById.get(partId);
+            return position == null ? DeliveryScanStatus.DESCONOCIDA : markPosition(position);
+        }
+
+        DeliveryScanStatus markPosition(int position) {
+            if (loaded.get(position)) {
+                return DeliveryScanStatus.YA_CARGADA;
+            }
+            loaded.set(position);
+            scanned.set(position);
+            loadedCount++;
+            return DeliveryScanStatus.CARGADA;
+        }
+
+        int[] packageMembers(UUID packageId) {
+            return membersByPackage.get(packageId);
+        }
+
+        UUID partAt(int position) {
+            return partsByPosition[position];
+        }
+
+        int size() {
+            return partsByPosition.length;
+        }
+
+        int loadedCount() {
+            return loadedCount;
+        }
+
+        List<UUID> scannedParts() {
+            List<UUID> parts = new ArrayList<>(scanned.cardinality());
+            for (int i = scanned.nextSetBit(0); i >= 0; i = scanned.nextSetBit(i + 1)) {
+                parts.add(partsByPosition[i]);
+            }
+            return parts;
+        }
+
+        void touch() {
+            lastActivityNanos = System.nanoTime();
+        }
+
+        boolean isIdle(long timeoutMinutes) {
+            return System.nanoTime() - lastActivityNanos > Duration.ofMinutes(timeoutMinutes).toNanos();
+        }
+
+        DeliveryManifestDTO summary(Long projectId, boolean withMissing) {
+            List<UUID> missing = null;
+            if (withMissing) {
+                missing = new ArrayList<>(size() - loadedCount);
+                for (int i = loaded.nextClearBit(0); i < partsByPosition.length; i = loaded.nextClearBit(i + 1)) {
+                    missing.add(partsByPosition[i]);
+                }
+            }
+            return new DeliveryManifestDTO(projectId, startedAt, size(), loadedCount, size() - loadedCount, missing, null);
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package com.QS.AppQuickSolutions.services;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.QS.AppQuickSolutions.dto.CursorPageDTO;
 import com.QS.AppQuickSolutions.entity.Event;
 import com.QS.AppQuickSolutions.repository.EventRepository;
 
@@ -19,8 +24,27 @@ public class EventService {
     @Autowired
     private EventRepository eventRepository;
 
-    public List<Event> getAllEvents() {
-        return eventRepository.findAll();
+    // Eventos ordenados por fecha; cursor es "<fecha>|<id>" del último evento de la página anterior.
+    // from y to (inclusivas) permiten pedir solo el rango visible del calendario
+    @Transactional(readOnly = true)
+    public CursorPageDTO<Event> getEventsPage(String cursor, int limit, LocalDate from, LocalDate to) {
+        int pageSize = CursorPageDTO.clampLimit(limit);
+        LocalDate afterDate = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            int separator = cursor.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+            try {
+                afterDate = LocalDate.parse(cursor.substring(0, separator));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+            }
+            afterId = Long.valueOf(cursor.substring(separator + 1));
+        }
+        List<Event> rows = eventRepository.findPage(afterDate, afterId, from, to, Limit.of(pageSize + 1));
+        return CursorPageDTO.of(rows, pageSize, event -> event.getDate() + "|" + event.getId());
     }
 
     public Event createEvent(Event event) {
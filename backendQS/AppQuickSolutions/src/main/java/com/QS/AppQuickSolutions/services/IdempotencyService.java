@@ -0,0 +1,91 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Respuestas de los POST de escaneo guardadas por Idempotency-Key. Si el celular pierde el Wi-Fi y
+ * reintenta con la misma clave, recibe la respuesta original (con el header Idempotent-Replayed) en
+ * lugar de procesar el escaneo otra vez. Las claves son por usuario y por endpoint y vencen a los
+ * app.idempotency.ttl-minutes. Las respuestas 5xx no se guardan, así el reintento vuelve a probar.
+ * Se guardan como mucho app.idempotency.max-entries respuestas; pasado ese tope Caffeine descarta las
+ * menos usadas.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 200;
+
+    private final Cache<String, CompletableFuture<ResponseEntity<?>>> responses;
+
+    public IdempotencyService(@Value("${app.idempotency.ttl-minutes:60}") long ttlMinutes,
+            @Value("${app.idempotency.max-entries:10000}") long maxEntries) {
+        this.responses = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    /**
+     * Ejecuta la acción una sola vez por clave. Sin clave, la ejecuta siempre.
+     */
+    public ResponseEntity<?> execute(String idempotencyKey, String scope, Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(HEADER + " demasiado largo (máximo " + MAX_KEY_LENGTH + " caracteres).");
+        }
+
+        String key = currentUser() + "|" + scope + "|" + idempotencyKey;
+        CompletableFuture<ResponseEntity<?>> mine = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> current = responses.asMap().putIfAbsent(key, mine);
+
+        if (current != null) {
+            // Reintento: se espera la respuesta original si todavía se está procesando
+            ResponseEntity<?> original;
+            try {
+                original = current.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(original.getHeaders());
+            headers.set(REPLAYED_HEADER, "true");
+            return new ResponseEntity<>(original.getBody(), headers, original.getStatusCode());
+        }
+
+        try {
+            ResponseEntity<?> response = action.get();
+            mine.complete(response);
+            if (response.getStatusCode().is5xxServerError()) {
+                responses.asMap().remove(key, mine);
+            }
+            return response;
+        } catch (RuntimeException e) {
+            responses.asMap().remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "";
+    }
+}
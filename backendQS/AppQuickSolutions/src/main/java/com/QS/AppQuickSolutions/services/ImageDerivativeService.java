@@ -0,0 +1,369 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.w3c.dom.Node;
+
+import com.QS.AppQuickSolutions.enums.ImageSize;
+import com.QS.AppQuickSolutions.services.storage.BlobStore;
+import com.QS.AppQuickSolutions.services.storage.BlobStore.StoredBlob;
+
+/**
+ * Versiones reducidas (miniatura y mediana) de las fotos de CustomPart, en JPEG y sin metadatos
+ * (EXIF, GPS, miniaturas embebidas). Como sin EXIF se pierde la orientación, antes de reducir se gira la
+ * imagen según el tag Orientation (las fotos de celular en vertical vienen acostadas con ese tag). Se
+ * guardan en el mismo BlobStore que el original con la clave {@code <clave original>.<tamaño>.jpg}, así
+ * que heredan su nombre inmutable.
+ *
+ * Se generan en segundo plano al subir la imagen y, si faltan (cola llena, imágenes anteriores), la
+ * primera vez que se piden. El original se decodifica una sola vez, submuestreado al leerlo, para
+ * producir todas las versiones.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private static final String DERIVATIVE_EXTENSION = ".jpg";
+    private static final ImageSize[] DERIVATIVE_SIZES = {ImageSize.MEDIUM, ImageSize.THUMB}; // De mayor a menor
+
+    private static final String JPEG_METADATA_FORMAT = "javax_imageio_jpeg_image_1.0";
+    private static final String APP1_MARKER = "225"; // 0xFFE1, donde va el EXIF
+    private static final byte[] EXIF_HEADER = "Exif\0\0".getBytes(StandardCharsets.US_ASCII);
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    @Value("${image.derivatives.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    // Imágenes más grandes que esto no se procesan y se sirve el original
+    @Value("${image.derivatives.max-pixels:40000000}")
+    private long maxPixels;
+
+    private final BlobStore imageBlobStore;
+    private final ThreadPoolTaskExecutor imageDerivativeExecutor;
+
+    // Una sola generación por original aunque lleguen varios pedidos a la vez
+    private final Map<String, CompletableFuture<Boolean>> inProgress = new ConcurrentHashMap<>();
+
+    public ImageDerivativeService(@Qualifier("imageBlobStore") BlobStore imageBlobStore,
+            @Qualifier("imageDerivativeExecutor") ThreadPoolTaskExecutor imageDerivativeExecutor) {
+        this.imageBlobStore = imageBlobStore;
+        this.imageDerivativeExecutor = imageDerivativeExecutor;
+    }
+
+    public static String derivativeKey(String originalKey, ImageSize size) {
+        return originalKey + "." + size.name().toLowerCase(Locale.ROOT) + DERIVATIVE_EXTENSION;
+    }
+
+    /**
+     * Clave del original si la clave es de una versión reducida.
+     */
+    public static Optional<String> originalKeyOf(String key) {
+        for (ImageSize size : DERIVATIVE_SIZES) {
+            String suffix = "." + size.name().toLowerCase(Locale.ROOT) + DERIVATIVE_EXTENSION;
+            if (key.endsWith(suffix) && key.length() > suffix.length()) {
+                return Optional.of(key.substring(0, key.length() - suffix.length()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Encola la generación de las versiones de una imagen recién subida. Dentro de una transacción
+     * se encola recién al confirmar.
+     */
+    public void scheduleAfterCommit(String originalKey) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            imageDerivativeExecutor.execute(() -> ensureDerivatives(originalKey));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                imageDerivativeExecutor.execute(() -> ensureDerivatives(originalKey));
+            }
+        });
+    }
+
+    /**
+     * Clave a servir para el tamaño pedido. Si la versión no existe se genera ahora; si no se puede
+     * generar (formato no soportado, original inexistente) se devuelve la clave del original.
+     */
+    public String resolve(String originalKey, ImageSize size) {
+        if (size == ImageSize.ORIGINAL || originalKeyOf(originalKey).isPresent()) {
+            return originalKey;
+        }
+        String key = derivativeKey(originalKey, size);
+        try {
+            if (imageBlobStore.exists(key) || ensureDerivatives(originalKey)) {
+                return key;
+            }
+        } catch (IllegalArgumentException e) {
+            // Clave inválida: el original tampoco existe y se responde 404
+        }
+        return originalKey;
+    }
+
+    private boolean ensureDerivatives(String originalKey) {
+        if (allDerivativesExist(originalKey)) {
+            return true;
+        }
+        CompletableFuture<Boolean> mine = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = inProgress.putIfAbsent(originalKey, mine);
+        if (running != null) {
+            return running.join();
+        }
+        boolean generated = false;
+        try {
+            generated = generate(originalKey);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("No se pudieron generar las versiones reducidas de {}", originalKey, e);
+        } finally {
+            mine.complete(generated);
+            inProgress.remove(originalKey, mine);
+        }
+        return generated;
+    }
+
+    private boolean allDerivativesExist(String originalKey) {
+        for (ImageSize size : DERIVATIVE_SIZES) {
+            if (!imageBlobStore.exists(derivativeKey(originalKey, size))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean generate(String originalKey) throws IOException {
+        Optional<StoredBlob> original = imageBlobStore.find(originalKey);
+        if (original.isEmpty()) {
+            return false;
+        }
+        BufferedImage image;
+        try (InputStream in = original.get().resource().getInputStream()) {
+            image = readSubsampled(in, DERIVATIVE_SIZES[0].getMaxSide());
+        }
+        if (image == null) {
+            return false;
+        }
+
+        // Cada versión sale de la anterior (la mediana de la original, la miniatura de la mediana)
+        for (ImageSize size : DERIVATIVE_SIZES) {
+            image = scaleToFit(image, size.getMaxSide());
+            imageBlobStore.put(derivativeKey(originalKey, size), new ByteArrayInputStream(encodeJpeg(image)));
+        }
+        return true;
+    }
+
+    // Decodifica salteando filas y columnas cuando la imagen es mucho más grande que lo necesario:
+    // una foto de 12 MP para una versión de 800 px se lee a un cuarto de resolución o menos. La imagen
+    // sale ya girada según la orientación EXIF
+    private BufferedImage readSubsampled(InputStream in, int targetSide) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, false);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / (targetSide * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage image = reader.read(0, param);
+                return applyOrientation(image, exifOrientation(reader));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Metadatos mal armados no impiden generar la versión reducida: se deja sin girar
+    private static int exifOrientation(ImageReader reader) {
+        try {
+            return exifOrientation(reader.getImageMetadata(0));
+        } catch (IOException | RuntimeException e) {
+            logger.debug("No se pudo leer la orientación EXIF: {}", e.getMessage());
+            return 1;
+        }
+    }
+
+    // Valor del tag Orientation (1 a 8) del EXIF de un JPEG; 1 (sin girar) si no hay EXIF o no se puede leer
+    static int exifOrientation(IIOMetadata metadata) {
+        if (metadata == null || !JPEG_METADATA_FORMAT.equals(metadata.getNativeMetadataFormatName())) {
+            return 1;
+        }
+        Node markers = firstChild(metadata.getAsTree(JPEG_METADATA_FORMAT), "markerSequence");
+        for (Node node = markers == null ? null : markers.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof IIOMetadataNode marker && "unknown".equals(marker.getNodeName())
+                    && APP1_MARKER.equals(marker.getAttribute("MarkerTag"))
+                    && marker.getUserObject() instanceof byte[] data) {
+                int orientation = orientationFromExif(data);
+                if (orientation != 0) {
+                    return orientation;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // Busca el tag Orientation en el primer IFD del bloque TIFF que sigue a "Exif\0\0"; 0 si no está
+    private static int orientationFromExif(byte[] data) {
+        if (data.length < EXIF_HEADER.length + 8) {
+            return 0;
+        }
+        for (int i = 0; i < EXIF_HEADER.length; i++) {
+            if (data[i] != EXIF_HEADER[i]) {
+                return 0;
+            }
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(data, EXIF_HEADER.length, data.length - EXIF_HEADER.length).slice();
+        if (tiff.get(0) == 'I' && tiff.get(1) == 'I') {
+            tiff.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (tiff.get(0) != 'M' || tiff.get(1) != 'M') {
+            return 0;
+        }
+        int ifd = tiff.getInt(4);
+        if (ifd < 8 || ifd + 2 > tiff.limit()) {
+            return 0;
+        }
+        int entries = tiff.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > tiff.limit()) {
+                return 0;
+            }
+            if ((tiff.getShort(entry) & 0xFFFF) == ORIENTATION_TAG) {
+                int orientation = tiff.getShort(entry + 8) & 0xFFFF;
+                return orientation >= 1 && orientation <= 8 ? orientation : 0;
+            }
+        }
+        return 0;
+    }
+
+    private static Node firstChild(Node parent, String name) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (name.equals(node.getNodeName())) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    // Gira o espeja la imagen para que quede como se ve con su orientación EXIF: 2 espejo horizontal,
+    // 3 180°, 4 espejo vertical, 5 transpuesta, 6 90° horario, 7 transversa, 8 90° antihorario
+    static BufferedImage applyOrientation(BufferedImage image, int orientation) {
+        if (image == null || orientation <= 1 || orientation > 8) {
+            return image;
+        }
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            default -> new AffineTransform(0, -1, 1, 0, 0, w);
+        };
+        boolean swapsSides = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(swapsSides ? h : w, swapsSides ? w : h,
+                image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = oriented.createGraphics();
+        try {
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return oriented;
+    }
+
+    // Reduce a la mitad mientras sobre más del doble y termina con una interpolación bilineal; sin
+    // ampliar. El resultado es RGB con fondo blanco (JPEG no tiene transparencia)
+    private static BufferedImage scaleToFit(BufferedImage source, int maxSide) {
+        int longest = Math.max(source.getWidth(), source.getHeight());
+        double scale = Math.min(1.0, (double) maxSide / longest);
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // Se escribe solo el raster: el JPEG sale sin EXIF ni ningún otro metadato del original
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream(32 * 1024);
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(jpeg)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DISABLED);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return jpeg.toByteArray();
+    }
+}
@@ -0,0 +1,117 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.QS.AppQuickSolutions.services.storage.BlobStore;
+
+/**
+ * Único camino de subida de imágenes. El contenido se copia en streaming al BlobStore (hash SHA-256
+ * calculado en la misma copia, ver {@link BlobStore#putDeduplicated}) y el límite de tamaño se
+ * controla mientras se lee: una subida que lo supera se corta ahí, sin terminar de leerla ni
+ * guardarla. La memoria por subida es un buffer fijo, no el tamaño del archivo.
+ */
+@Service
+public class ImageUploadService {
+
+    private static final Map<String, String> EXTENSION_BY_CONTENT_TYPE = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif",
+            "image/webp", "webp",
+            "image/bmp", "bmp");
+
+    @Value("${upload.image.max-bytes:10485760}")
+    private long maxBytes;
+
+    private final BlobStore imageBlobStore;
+
+    public ImageUploadService(@Qualifier("imageBlobStore") BlobStore imageBlobStore) {
+        this.imageBlobStore = imageBlobStore;
+    }
+
+    /**
+     * Guarda la imagen y devuelve su clave. declaredSize es el tamaño informado por el cliente
+     * (-1 si no se conoce): si ya supera el límite se rechaza sin leer nada.
+     */
+    public String store(InputStream content, long declaredSize, String extension) throws IOException {
+        if (declaredSize > maxBytes) {
+            throw tooLarge();
+        }
+        try (InputStream limited = new SizeLimitedInputStream(content, maxBytes)) {
+            return imageBlobStore.putDeduplicated(limited, extension);
+        }
+    }
+
+    /**
+     * Extensión a partir del nombre original del archivo; vacía si no es una extensión simple.
+     */
+    public static String extensionOf(String originalFilename) {
+        if (originalFilename == null) {
+            return "";
+        }
+        int dot = originalFilename.lastIndexOf('.');
+        String extension = dot < 0 ? "" : originalFilename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return extension.matches("[a-z0-9]{1,8}") ? extension : "";
+    }
+
+    /**
+     * Extensión para una subida sin nombre de archivo (cuerpo crudo), según el Content-Type.
+     */
+    public static String extensionForContentType(String contentType) {
+        if (contentType == null) {
+            return "";
+        }
+        int parameters = contentType.indexOf(';');
+        String mediaType = (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+        return EXTENSION_BY_CONTENT_TYPE.getOrDefault(mediaType, "");
+    }
+
+    private UploadTooLargeException tooLarge() {
+        return new UploadTooLargeException("La imagen supera el máximo de " + maxBytes + " bytes.");
+    }
+
+    // Corta la lectura apenas se pasa del límite
+    private final class SizeLimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+
+        private SizeLimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, (int) Math.min(length, limit - count + 1));
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int read) {
+            count += read;
+            if (count > limit) {
+                throw tooLarge();
+            }
+        }
+    }
+}
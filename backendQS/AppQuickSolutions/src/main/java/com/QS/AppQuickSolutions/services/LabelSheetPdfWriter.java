@@ -0,0 +1,207 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+import com.google.zxing.common.BitMatrix;
+
+/**
+ * Escritor mínimo de PDF que emite cada objeto apenas se arma. Del documento solo se guardan los
+ * offsets de los objetos y los números de las páginas (necesarios para la tabla xref y el nodo
+ * /Pages del final), así que la memoria no crece con el contenido de las hojas.
+ *
+ * Los QR se embeben como imágenes de 1 bit con un pixel por módulo y se escalan en la página,
+ * y los textos usan las fuentes estándar Helvetica (no se embeben fuentes).
+ */
+final class LabelSheetPdfWriter implements AutoCloseable {
+
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+    private static final int FONT_REGULAR = 3;
+    private static final int FONT_BOLD = 4;
+
+    private final CountingOutputStream out;
+    private final float pageWidth;
+    private final float pageHeight;
+
+    private long[] offsets = new long[64];
+    private int nextObject = FONT_BOLD + 1;
+    private int[] pageObjects = new int[16];
+    private int pageCount;
+
+    // Página en armado
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream(4096);
+    private final StringBuilder imageResources = new StringBuilder();
+    private int imagesInPage;
+
+    LabelSheetPdfWriter(OutputStream target, float pageWidth, float pageHeight) throws IOException {
+        this.out = new CountingOutputStream(target);
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+
+        write("%PDF-1.4\n%âãÏÓ\n");
+        writeObject(FONT_REGULAR, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>");
+        writeObject(FONT_BOLD, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>");
+    }
+
+    /**
+     * Dibuja un QR en la página actual. x/y es la esquina inferior izquierda, en puntos.
+     */
+    void drawQRCode(BitMatrix matrix, float x, float y, float side) throws IOException {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        int rowBytes = (width + 7) / 8;
+        byte[] row = new byte[rowBytes];
+
+        // La imagen se escribe ya, solo queda pendiente la referencia en los recursos de la página
+        int imageObject = beginObject();
+        write("<< /Type /XObject /Subtype /Image /Width " + width + " /Height " + height
+                + " /ColorSpace /DeviceGray /BitsPerComponent 1 /Length " + (rowBytes * height) + " >>\nstream\n");
+        for (int py = 0; py < height; py++) {
+            Arrays.fill(row, (byte) 0);
+            for (int px = 0; px < width; px++) {
+                if (!matrix.get(px, py)) {
+                    row[px >> 3] |= (byte) (0x80 >>> (px & 7)); // En DeviceGray el 1 es blanco
+                }
+            }
+            out.write(row);
+        }
+        write("\nendstream\nendobj\n");
+
+        String name = "/Im" + imagesInPage++;
+        imageResources.append(name).append(' ').append(imageObject).append(" 0 R ");
+        appendContent("q " + number(side) + " 0 0 " + number(side) + " " + number(x) + " " + number(y)
+                + " cm " + name + " Do Q\n");
+    }
+
+    /**
+     * Escribe una línea de texto en la página actual con la línea base en x/y.
+     */
+    void drawText(String text, float x, float y, float fontSize, boolean bold) throws IOException {
+        appendContent("BT " + (bold ? "/F2 " : "/F1 ") + number(fontSize) + " Tf " + number(x) + " " + number(y) + " Td (");
+        content.write(escapeText(text));
+        appendContent(") Tj ET\n");
+    }
+
+    /**
+     * Cierra la página actual: escribe su contenido y el objeto /Page.
+     */
+    void endPage() throws IOException {
+        int contentObject = beginObject();
+        write("<< /Length " + content.size() + " >>\nstream\n");
+        content.writeTo(out);
+        write("\nendstream\nendobj\n");
+
+        int pageObject = beginObject();
+        write("<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox [0 0 " + number(pageWidth) + " " + number(pageHeight)
+                + "] /Resources << /Font << /F1 " + FONT_REGULAR + " 0 R /F2 " + FONT_BOLD + " 0 R >> /XObject << "
+                + imageResources + ">> >> /Contents " + contentObject + " 0 R >>\nendobj\n");
+
+        if (pageCount == pageObjects.length) {
+            pageObjects = Arrays.copyOf(pageObjects, pageCount * 2);
+        }
+        pageObjects[pageCount++] = pageObject;
+
+        content.reset();
+        imageResources.setLength(0);
+        imagesInPage = 0;
+        out.flush(); // La página ya puede viajar al cliente
+    }
+
+    /**
+     * Escribe el árbol de páginas, el catálogo y la tabla xref.
+     */
+    @Override
+    public void close() throws IOException {
+        if (content.size() > 0 || pageCount == 0) {
+            endPage(); // Un PDF sin páginas no es válido, se deja al menos una en blanco
+        }
+
+        StringBuilder kids = new StringBuilder();
+        for (int i = 0; i < pageCount; i++) {
+            kids.append(pageObjects[i]).append(" 0 R ");
+        }
+        writeObject(PAGES, "<< /Type /Pages /Kids [" + kids + "] /Count " + pageCount + " >>");
+        writeObject(CATALOG, "<< /Type /Catalog /Pages " + PAGES + " 0 R >>");
+
+        long xref = out.count;
+        StringBuilder table = new StringBuilder("xref\n0 ").append(nextObject).append("\n0000000000 65535 f \n");
+        for (int i = 1; i < nextObject; i++) {
+            table.append(String.format(Locale.ROOT, "%010d 00000 n \n", offsets[i]));
+        }
+        table.append("trailer\n<< /Size ").append(nextObject).append(" /Root ").append(CATALOG)
+                .append(" 0 R >>\nstartxref\n").append(xref).append("\n%%EOF\n");
+        write(table.toString());
+        out.flush();
+    }
+
+    private int beginObject() throws IOException {
+        int number = nextObject++;
+        markOffset(number);
+        write(number + " 0 obj\n");
+        return number;
+    }
+
+    private void writeObject(int number, String body) throws IOException {
+        markOffset(number);
+        write(number + " 0 obj\n" + body + "\nendobj\n");
+    }
+
+    private void markOffset(int number) {
+        if (number >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(number + 1, offsets.length * 2));
+        }
+        offsets[number] = out.count;
+    }
+
+    private void write(String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private void appendContent(String text) {
+        content.writeBytes(text.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    // Texto en WinAnsi (coincide con Latin-1 para acentos y eñes); lo que no entra se reemplaza por '?'
+    private static byte[] escapeText(String text) {
+        ByteArrayOutputStream escaped = new ByteArrayOutputStream(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') {
+                escaped.write('\\');
+            }
+            escaped.write(c < 256 && c >= 32 ? c : '?');
+        }
+        return escaped.toByteArray();
+    }
+
+    private static String number(float value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream target) {
+            super(target);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
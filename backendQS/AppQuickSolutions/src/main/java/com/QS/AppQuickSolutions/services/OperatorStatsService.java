@@ -0,0 +1,179 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.QS.AppQuickSolutions.dto.StationStatsDTO;
+import com.QS.AppQuickSolutions.entity.MaintenanceLock;
+import com.QS.AppQuickSolutions.entity.PartStatusTracking;
+import com.QS.AppQuickSolutions.enums.PartState;
+import com.QS.AppQuickSolutions.repository.MaintenanceLockRepository;
+import com.QS.AppQuickSolutions.repository.OperatorDailyStatsRepository;
+
+/**
+ * Resúmenes de tareas completadas por operario, estado y día (tabla operator_daily_stats). Cada tarea
+ * completada se suma a su resumen en la misma transacción, así las métricas se leen de unas pocas filas
+ * por operario en lugar de recorrer todo su historial. Si los resúmenes se desfasan (cambios hechos a
+ * mano en la base, versiones anteriores) rebuild los recalcula desde PartStatusTracking.
+ *
+ * Al arrancar con la tabla vacía (primer deploy) se recalcula; hasta que termine, isReady() es false y las
+ * métricas se calculan desde PartStatusTracking. El recálculo toma un lock exclusivo sobre la fila
+ * "operator_daily_stats" de maintenance_lock y cada tarea que se completa uno compartido, así ninguna tarea
+ * se pierde ni se cuenta dos veces mientras se borra y se vuelve a llenar la tabla.
+ */
+@Service
+public class OperatorStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OperatorStatsService.class);
+
+    @Value("${stats.rebuild.enabled:true}")
+    private boolean rebuildEnabled;
+
+    private static final String STATS_LOCK = "operator_daily_stats";
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    // false hasta confirmar que la tabla tiene datos o terminar el primer recálculo
+    private volatile boolean ready;
+
+    private final OperatorDailyStatsRepository operatorDailyStatsRepository;
+    private final MaintenanceLockRepository maintenanceLockRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public OperatorStatsService(OperatorDailyStatsRepository operatorDailyStatsRepository,
+            MaintenanceLockRepository maintenanceLockRepository, PlatformTransactionManager transactionManager) {
+        this.operatorDailyStatsRepository = operatorDailyStatsRepository;
+        this.maintenanceLockRepository = maintenanceLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Si la tabla de resúmenes está vacía (recién creada) la llena desde el historial de tareas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        ensureLockRow();
+        if (operatorDailyStatsRepository.count() > 0) {
+            ready = true;
+            return;
+        }
+        logger.info("operator_daily_stats está vacía: se recalcula desde el historial de tareas");
+        rebuild();
+    }
+
+    /**
+     * Indica si los resúmenes están completos; si no, las métricas se calculan desde PartStatusTracking.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Lock compartido sobre los resúmenes hasta el fin de la transacción. Se toma antes de completar la tarea
+     * (antes de tocar part_status_tracking), así un recálculo nunca queda esperando una fila que tiene bloqueada
+     * una tarea que a su vez lo espera a él.
+     */
+    @Transactional
+    public void lockForTaskCompletion() {
+        maintenanceLockRepository.lockShared(STATS_LOCK);
+    }
+
+    /**
+     * Suma una tarea recién completada a su resumen. Se llama dentro de la transacción que la completa.
+     */
+    @Transactional
+    public void recordCompletedTask(PartStatusTracking tracking) {
+        // Una tarea sin duración cuenta como completada pero no entra en los promedios
+        Long duration = tracking.getTaskDuration();
+        operatorDailyStatsRepository.upsertCompletedTask(tracking.getUserOperator().getUserID(),
+                tracking.getPartState().name(), tracking.getEndTime().toLocalDate(), duration == null ? 0 : 1,
+                duration == null ? 0L : duration);
+    }
+
+    /**
+     * Totales por estado (estación) entre dos días inclusive; operatorId null suma a todos los operarios.
+     */
+    @Transactional(readOnly = true)
+    public List<StationStatsDTO> getStationStats(Long operatorId, LocalDate from, LocalDate to) {
+        List<StationStatsDTO> stats = new ArrayList<>();
+        for (Object[] row : operatorDailyStatsRepository.sumByState(operatorId, from, to)) {
+            long timedCount = ((Number) row[2]).longValue();
+            long totalDuration = ((Number) row[3]).longValue();
+            stats.add(new StationStatsDTO((PartState) row[0], ((Number) row[1]).longValue(), timedCount, totalDuration,
+                    timedCount == 0 ? 0.0 : (double) totalDuration / timedCount, (Long) row[4], (Long) row[5]));
+        }
+        return stats;
+    }
+
+    /**
+     * Tareas completadas por un operario en los días posteriores a cada fecha: [día, mes, año].
+     */
+    @Transactional(readOnly = true)
+    public long[] countCompletedSince(Long operatorId, LocalDate dayStart, LocalDate monthStart, LocalDate yearStart) {
+        Object[] row = operatorDailyStatsRepository.countCompletedSince(operatorId, dayStart, monthStart, yearStart).get(0);
+        long[] counts = new long[3];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = row[i] == null ? 0L : ((Number) row[i]).longValue();
+        }
+        return counts;
+    }
+
+    @Scheduled(cron = "${stats.rebuild.cron:0 0 4 * * SUN}")
+    public void scheduledRebuild() {
+        if (rebuildEnabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Borra y recalcula todos los resúmenes en una sola transacción. Devuelve cuántos resúmenes quedaron,
+     * o -1 si ya había un recálculo en curso.
+     */
+    public int rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            logger.info("Ya hay un recálculo de estadísticas en curso");
+            return -1;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            ensureLockRow();
+            Integer rows = transactionTemplate.execute(status -> {
+                maintenanceLockRepository.lockExclusive(STATS_LOCK);
+                operatorDailyStatsRepository.deleteAllStats();
+                return operatorDailyStatsRepository.rebuildFromTrackings();
+            });
+            logger.info("Estadísticas por operario recalculadas: {} resúmenes en {} ms", rows,
+                    System.currentTimeMillis() - start);
+            ready = true;
+            return rows == null ? 0 : rows;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void ensureLockRow() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!maintenanceLockRepository.existsById(STATS_LOCK)) {
+                    maintenanceLockRepository.saveAndFlush(new MaintenanceLock(STATS_LOCK));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia la creó al mismo tiempo
+        }
+    }
+}
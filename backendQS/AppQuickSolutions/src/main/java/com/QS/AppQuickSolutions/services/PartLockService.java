@@ -0,0 +1,149 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.QS.AppQuickSolutions.dto.LockStatsDTO;
+
+/**
+ * Locks en memoria por pieza y por operario, repartidos en app.locks.stripes franjas (cada clave cae
+ * siempre en la misma franja). Dos pedidos sobre la misma pieza, o del mismo operario, se ponen en
+ * fila acá en lugar de chocar en la base; pedidos sobre piezas distintas casi nunca comparten franja.
+ *
+ * Los locks se toman dentro de la transacción y se sueltan cuando termina (commit o rollback), así el
+ * siguiente pedido ya ve los cambios. Si no se consigue el lock en app.locks.timeout-ms se responde
+ * conflicto. Solo coordina pedidos dentro de esta instancia: con varias instancias, la base (índices
+ * únicos y UPDATE condicionales) sigue siendo la que garantiza la consistencia.
+ */
+@Service
+public class PartLockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartLockService.class);
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMs;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public PartLockService(@Value("${app.locks.stripes:1024}") int stripeCount,
+            @Value("${app.locks.timeout-ms:2000}") long timeoutMs) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("app.locks.stripes tiene que ser mayor que cero");
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Toma el lock de la pieza y, si se indica, el del operario, hasta que termine la transacción actual.
+     */
+    public void lockUntilTransactionEnds(UUID partId, Long operatorId) {
+        int[] indexes = operatorId == null
+                ? new int[] {stripeFor(partId, 0)}
+                : new int[] {stripeFor(partId, 0), stripeFor(operatorId, 1)};
+        lockStripesUntilTransactionEnds(indexes, "Pieza " + partId);
+    }
+
+    /**
+     * Toma los locks de varias piezas a la vez (movimientos masivos), hasta que termine la transacción actual.
+     */
+    public void lockPartsUntilTransactionEnds(Collection<UUID> partIds) {
+        if (partIds.isEmpty()) {
+            return;
+        }
+        int[] indexes = partIds.stream().mapToInt(partId -> stripeFor(partId, 0)).toArray();
+        lockStripesUntilTransactionEnds(indexes, "Lote de " + partIds.size() + " piezas");
+    }
+
+    public LockStatsDTO getStats() {
+        long count = acquisitions.sum();
+        double averageWaitMs = count == 0 ? 0 : totalWaitNanos.sum() / 1e6 / count;
+        long held = Arrays.stream(stripes).filter(ReentrantLock::isLocked).count();
+        return new LockStatsDTO(stripes.length, held, count, contended.sum(), timeouts.sum(),
+                averageWaitMs, maxWaitNanos.get() / 1e6);
+    }
+
+    private void lockStripesUntilTransactionEnds(int[] indexes, String label) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Los locks de pieza se toman dentro de una transacción");
+        }
+        // Siempre en el mismo orden, para que dos pedidos no se esperen mutuamente
+        int[] ordered = Arrays.stream(indexes).sorted().distinct().toArray();
+
+        int locked = 0;
+        try {
+            for (int index : ordered) {
+                acquire(stripes[index], label);
+                locked++;
+            }
+        } finally {
+            if (locked < ordered.length) {
+                for (int i = locked - 1; i >= 0; i--) {
+                    stripes[ordered[i]].unlock();
+                }
+            }
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (int i = ordered.length - 1; i >= 0; i--) {
+                    stripes[ordered[i]].unlock();
+                }
+            }
+        });
+    }
+
+    private void acquire(ReentrantLock lock, String label) {
+        if (lock.tryLock()) {
+            acquisitions.increment();
+            return;
+        }
+
+        // Ocupado: se espera en fila hasta el timeout
+        contended.increment();
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TaskConflictException("Se canceló la espera para modificar la pieza.");
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (!acquired) {
+            timeouts.increment();
+            logger.warn("{}: no se consiguió el lock en {} ms", label, timeoutMs);
+            throw new TaskConflictException("La pieza está siendo modificada por otro pedido, intentá de nuevo.");
+        }
+        acquisitions.increment();
+    }
+
+    // El segundo valor separa las claves de piezas de las de operarios
+    private int stripeFor(Object key, int namespace) {
+        int hash = key.hashCode() * 31 + namespace;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash * 0x9E3779B9, stripes.length);
+    }
+}
@@ -3,8 +3,11 @@ package com.QS.AppQuickSolutions.services;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import com.QS.AppQuickSolutions.config.CacheConfig;
 import com.QS.AppQuickSolutions.entity.PartMaterial;
 import com.QS.AppQuickSolutions.repository.PartMaterialRepository;
 
@@ -14,12 +17,14 @@ public class PartMaterialService {
     @Autowired
     private PartMaterialRepository partMaterialRepository;
 
-    // Obtener todos los materiales
+    // Obtener todos los materiales (cacheado hasta que se crea, modifica o borra alguno)
+    @Cacheable(CacheConfig.PART_MATERIALS)
     public List<PartMaterial> getAllMaterials() {
-        return partMaterialRepository.findAll();
+        return List.copyOf(partMaterialRepository.findAll());
     }
 
     // Crear un nuevo material
+    @CacheEvict(cacheNames = CacheConfig.PART_MATERIALS, allEntries = true)
     public PartMaterial createMaterial(PartMaterial partMaterial) {
         if (partMaterial.getMaterialName() == null || partMaterial.getMaterialName().isEmpty()) {
             throw new IllegalArgumentException("El nombre del material no puede estar vacío.");
@@ -28,6 +33,7 @@ public class PartMaterialService {
     }
 
     // Actualizar un material existente
+    @CacheEvict(cacheNames = CacheConfig.PART_MATERIALS, allEntries = true)
     public PartMaterial updateMaterial(Long id, PartMaterial updatedMaterial) {
         PartMaterial existingMaterial = partMaterialRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Material no encontrado con el ID: " + id));
@@ -41,6 +47,7 @@ public class PartMaterialService {
     }
 
     // Eliminar un material
+    @CacheEvict(cacheNames = CacheConfig.PART_MATERIALS, allEntries = true)
     public void deleteMaterial(Long id) {
         if (!partMaterialRepository.existsById(id)) {
             throw new RuntimeException("Material no encontrado con el ID: " + id);
@@ -0,0 +1,124 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.QS.AppQuickSolutions.dto.PartPackageDTO;
+import com.QS.AppQuickSolutions.entity.PartPackage;
+import com.QS.AppQuickSolutions.entity.Project;
+import com.QS.AppQuickSolutions.repository.PartPackageRepository;
+import com.QS.AppQuickSolutions.repository.PartRepository;
+import com.QS.AppQuickSolutions.repository.ProjectRepository;
+import com.QS.AppQuickSolutions.services.QRGenerationService.QRRenderJob;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Bultos EMBALADO: agrupa piezas de un proyecto y les genera un QR propio.
+ */
+@Service
+public class PartPackageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartPackageService.class);
+
+    @Autowired
+    private PartPackageRepository partPackageRepository;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private QRCodeService qrCodeService;
+
+    @Autowired
+    private QRGenerationService qrGenerationService;
+
+    /**
+     * Crea un bulto con las piezas indicadas. Todas deben ser del proyecto y no estar en otro bulto.
+     */
+    @Transactional
+    public PartPackageDTO createPackage(Long projectId, Collection<UUID> partIds) {
+        if (partIds == null || partIds.isEmpty()) {
+            throw new IllegalArgumentException("El bulto tiene que tener al menos una pieza.");
+        }
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new EntityNotFoundException("Proyecto no encontrado con ID: " + projectId));
+
+        Set<UUID> requested = new LinkedHashSet<>(partIds);
+        Set<UUID> foreign = new LinkedHashSet<>(requested);
+        foreign.removeAll(partRepository.findIdsByProjectIdAndIdIn(projectId, requested));
+        if (!foreign.isEmpty()) {
+            throw new IllegalArgumentException("Piezas que no pertenecen al proyecto " + projectId + ": " + foreign);
+        }
+        List<UUID> alreadyPackaged = partPackageRepository.findPackagedPartIdsIn(requested);
+        if (!alreadyPackaged.isEmpty()) {
+            throw new IllegalArgumentException("Piezas que ya están en otro bulto: " + alreadyPackaged);
+        }
+
+        PartPackage partPackage = new PartPackage();
+        partPackage.setProject(project);
+        partPackage.setPartIds(new HashSet<>(requested));
+        partPackage = partPackageRepository.save(partPackage);
+
+        // El ID ya está asignado y el INSERT todavía no salió: los datos del QR van en el mismo INSERT y la
+        // imagen se genera después del commit, como la de las piezas
+        String qrFileName = qrCodeService.packageQrFileNameFor(partPackage.getId());
+        partPackage.setQrCodeData(qrCodeService.generateQrDataForPackage(partPackage.getId()));
+        partPackage.setQrCodeFilePath(qrFileName);
+        qrGenerationService.scheduleAfterCommit(new QRRenderJob(partPackage.getQrCodeData(), qrFileName));
+        logger.info("Bulto {} creado en el proyecto {} con {} piezas", partPackage.getId(), projectId, requested.size());
+        return toDto(partPackage);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PartPackageDTO> getPackagesByProject(Long projectId) {
+        List<PartPackage> packages = partPackageRepository.findByProjectId(projectId);
+        List<PartPackageDTO> result = new ArrayList<>(packages.size());
+        for (PartPackage partPackage : packages) {
+            result.add(toDto(partPackage));
+        }
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    public PartPackageDTO getPackage(UUID packageId) {
+        return partPackageRepository.findById(packageId)
+                .map(this::toDto)
+                .orElseThrow(() -> new EntityNotFoundException("Bulto no encontrado con ID: " + packageId));
+    }
+
+    /**
+     * Desarma un bulto: las piezas quedan sueltas y se borra la imagen del QR.
+     */
+    @Transactional
+    public void deletePackage(UUID packageId) {
+        PartPackage partPackage = partPackageRepository.findById(packageId)
+                .orElseThrow(() -> new EntityNotFoundException("Bulto no encontrado con ID: " + packageId));
+        partPackageRepository.delete(partPackage);
+        try {
+            qrCodeService.deletePackageQRCode(packageId);
+        } catch (IOException e) {
+            logger.warn("No se pudo borrar la imagen QR del bulto {}", packageId, e);
+        }
+    }
+
+    private PartPackageDTO toDto(PartPackage partPackage) {
+        return new PartPackageDTO(partPackage.getId(), partPackage.getProject().getId(), new HashSet<>(partPackage.getPartIds()),
+                partPackage.getQrCodeData(), partPackage.getQrCodeFilePath(), partPackage.getCreatedDate());
+    }
+}
@@ -1,18 +1,22 @@
 package com.QS.AppQuickSolutions.services;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.QS.AppQuickSolutions.dto.CursorPageDTO;
 import com.QS.AppQuickSolutions.dto.PartDto;
 import com.QS.AppQuickSolutions.entity.Part;
 import com.QS.AppQuickSolutions.entity.Project;
 import com.QS.AppQuickSolutions.enums.PartState;
+import com.QS.AppQuickSolutions.enums.PartStateEventSource;
 import com.QS.AppQuickSolutions.repository.PartRepository;
 import com.google.zxing.WriterException;
 
@@ -23,11 +27,23 @@ public class PartService {
     @Autowired
     private PartRepository partRepository;
 
+    @Autowired
+    private PartLockService partLockService;
+
+    @Autowired
+    private PartStateHistoryService partStateHistoryService;
+
     @Transactional
     public Part createPart(Project project, PartDto partDto) throws IOException {
+        return partRepository.save(newPart(project, partDto));
+    }
+
+    // Arma una pieza nueva con su ID ya asignado, sin guardarla (para guardar muchas juntas)
+    public Part newPart(Project project, PartDto partDto) {
         validatePartDto(partDto);
 
         Part part = new Part();
+        part.setId(Part.newId());
         part.setProject(project);
 
         // Asignar CustomPart y PartMaterial
@@ -45,25 +61,36 @@ public class PartService {
         part.setScanDateTime(null); // Dejar como null
         part.setPartState(PartState.EN_PRODUCCION);
         part.setReadyForDelivery(false);
-
-        // Guardar la pieza primero para obtener el ID, pero sin generar QR
-        return partRepository.save(part);
+        return part;
     }
 
+    @Transactional
     public Part updatePart(UUID id, PartDto partDto) throws IOException, WriterException {
         validatePartDto(partDto);
+        partLockService.lockUntilTransactionEnds(id, null);
 
         Part existingPart = partRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Pieza no encontrada con ID: " + id));
 
+        PartState previousState = existingPart.getPartState();
         populatePartData(existingPart, partDto);
+        partStateHistoryService.record(id, previousState, existingPart.getPartState(), PartStateEventSource.EDICION, null);
 
         // No generamos QR aquí, delegamos a ProjectService si es necesario
         return partRepository.save(existingPart);
     }
 
-    public List<Part> getAllParts() {
-        return partRepository.findAll();
+    // Listado paginado por ID; cursor es el ID de la última pieza de la página anterior.
+    // Las fechas filtran por fecha de escaneo y ambas son inclusivas
+    @Transactional(readOnly = true)
+    public CursorPageDTO<Part> getPartsPage(String cursor, int limit, PartState state, Long projectId,
+            LocalDate from, LocalDate to) {
+        int pageSize = CursorPageDTO.clampLimit(limit);
+        UUID after = cursor == null || cursor.isBlank() ? null : UUID.fromString(cursor);
+        List<Part> rows = partRepository.findPage(after, state, projectId,
+                from == null ? null : from.atStartOfDay(), to == null ? null : to.plusDays(1).atStartOfDay(),
+                Limit.of(pageSize + 1));
+        return CursorPageDTO.of(rows, pageSize, part -> part.getId().toString());
     }
 
     public Part getPartById(UUID id) {
@@ -104,7 +131,9 @@ public class PartService {
         
     }
 
+    @Transactional
     public Part scanPart(UUID id) {
+        partLockService.lockUntilTransactionEnds(id, null);
         Part part = getPartById(id);
         part.setReceptionState(true);
         part.setScanDateTime(LocalDateTime.now());
@@ -0,0 +1,199 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.QS.AppQuickSolutions.dto.PartStateAtDTO;
+import com.QS.AppQuickSolutions.dto.ReworkStatsDTO;
+import com.QS.AppQuickSolutions.entity.PartStateEvent;
+import com.QS.AppQuickSolutions.entity.PartStateSnapshot;
+import com.QS.AppQuickSolutions.enums.PartState;
+import com.QS.AppQuickSolutions.enums.PartStateEventSource;
+import com.QS.AppQuickSolutions.repository.PartStateEventRepository;
+import com.QS.AppQuickSolutions.repository.PartStateSnapshotRepository;
+import com.QS.AppQuickSolutions.security.SecurityUtils;
+
+/**
+ * Historial de cambios de estado de las piezas (tabla part_state_event, solo se agregan filas). Cada servicio
+ * que cambia Part.partState registra el cambio acá, en la misma transacción; los eventos se guardan al hacer
+ * flush, en lotes JDBC. Cada tanto se saca una foto del estado de las piezas que cambiaron (part_state_snapshot):
+ * el estado en cualquier fecha es la foto o el evento más reciente hasta esa fecha, sin recorrer PartStatusTracking.
+ *
+ * occurred_at se fija antes del commit, así que un cambio puede confirmarse después de una foto aunque su fecha
+ * sea anterior: la foto lo pierde. Por eso cada foto vuelve a revisar los cambios de los últimos
+ * snapshotOverlapMinutes antes de la foto anterior (más que la transacción más larga), y al reconstruir un estado
+ * un evento de esa ventana le gana a la foto: el evento se escribe en la misma transacción que el cambio.
+ */
+@Service
+public class PartStateHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartStateHistoryService.class);
+
+    // Estados que significan volver a trabajar una pieza
+    public static final Set<PartState> REWORK_STATES = EnumSet.of(PartState.DEVOLUCION_FUERA_DE_MEDIDA,
+            PartState.REPINTANDO_POR_GOLPE_O_RAYON, PartState.REPARACION);
+
+    @Value("${part-history.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+
+    // Margen para cambios confirmados después de su occurred_at; mayor que la transacción más larga
+    @Value("${part-history.snapshot.overlap-minutes:10}")
+    private long snapshotOverlapMinutes;
+
+    private final AtomicBoolean snapshotting = new AtomicBoolean();
+
+    private final PartStateEventRepository partStateEventRepository;
+    private final PartStateSnapshotRepository partStateSnapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public PartStateHistoryService(PartStateEventRepository partStateEventRepository,
+            PartStateSnapshotRepository partStateSnapshotRepository, PlatformTransactionManager transactionManager) {
+        this.partStateEventRepository = partStateEventRepository;
+        this.partStateSnapshotRepository = partStateSnapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Registra el cambio de estado de una pieza. No hace nada si el estado no cambia.
+     */
+    @Transactional
+    public void record(UUID partId, PartState fromState, PartState toState, PartStateEventSource source, Long actorId) {
+        record(List.of(partId), fromState, toState, source, actorId);
+    }
+
+    /**
+     * Registra el mismo cambio para varias piezas (recepción o movimiento masivo); los INSERT van en lotes.
+     */
+    @Transactional
+    public void record(Collection<UUID> partIds, PartState fromState, PartState toState, PartStateEventSource source,
+            Long actorId) {
+        if (toState == null || toState == fromState || partIds.isEmpty()) {
+            return;
+        }
+        String actorEmail = SecurityUtils.getCurrentAuthenticatedEmail();
+        LocalDateTime now = LocalDateTime.now();
+        List<PartStateEvent> events = new ArrayList<>(partIds.size());
+        for (UUID partId : partIds) {
+            events.add(new PartStateEvent(partId, fromState, toState, source, actorId, actorEmail, now));
+        }
+        partStateEventRepository.saveAll(events);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PartStateEvent> getTimeline(UUID partId) {
+        return partStateEventRepository.findByPartIdOrderByOccurredAtAscIdAsc(partId);
+    }
+
+    /**
+     * Estado de una pieza en una fecha: lo más reciente entre la última foto y el último cambio hasta esa fecha.
+     * Si no hay ninguno de los dos, el estado de origen del primer cambio posterior.
+     */
+    @Transactional(readOnly = true)
+    public PartStateAtDTO getStateAt(UUID partId, LocalDateTime at) {
+        Optional<PartStateSnapshot> snapshot = partStateSnapshotRepository
+                .findFirstByPartIdAndTakenAtLessThanEqualOrderByTakenAtDesc(partId, at);
+        Optional<PartStateEvent> event = partStateEventRepository
+                .findFirstByPartIdAndOccurredAtLessThanEqualOrderByOccurredAtDescIdDesc(partId, at);
+
+        if (event.isPresent() && (snapshot.isEmpty() || eventWins(event.get(), snapshot.get().getTakenAt()))) {
+            return new PartStateAtDTO(partId, event.get().getToState(), event.get().getOccurredAt());
+        }
+        if (snapshot.isPresent()) {
+            return new PartStateAtDTO(partId, snapshot.get().getPartState(), snapshot.get().getTakenAt());
+        }
+        return partStateEventRepository.findFirstByPartIdAndOccurredAtAfterOrderByOccurredAtAscIdAsc(partId, at)
+                .map(next -> new PartStateAtDTO(partId, next.getFromState(), null))
+                .orElse(new PartStateAtDTO(partId, null, null));
+    }
+
+    /**
+     * Estado de todas las piezas de un proyecto en una fecha, con dos consultas (fotos y eventos). Las piezas
+     * sin foto ni cambios hasta esa fecha no aparecen.
+     */
+    @Transactional(readOnly = true)
+    public List<PartStateAtDTO> getProjectStateAt(Long projectId, LocalDateTime at) {
+        Map<UUID, PartStateAtDTO> byPart = new HashMap<>();
+        for (PartStateSnapshot snapshot : partStateSnapshotRepository.findLatestByProjectIdAt(projectId, at)) {
+            byPart.put(snapshot.getPartId(), new PartStateAtDTO(snapshot.getPartId(), snapshot.getPartState(),
+                    snapshot.getTakenAt()));
+        }
+        Map<UUID, PartStateEvent> latestEvents = new HashMap<>();
+        for (PartStateEvent event : partStateEventRepository.findLatestByProjectIdAt(projectId, at)) {
+            latestEvents.merge(event.getPartId(), event, (a, b) -> a.getId().compareTo(b.getId()) >= 0 ? a : b);
+        }
+        latestEvents.forEach((partId, event) -> {
+            PartStateAtDTO fromSnapshot = byPart.get(partId);
+            if (fromSnapshot == null || eventWins(event, fromSnapshot.getSince())) {
+                byPart.put(partId, new PartStateAtDTO(partId, event.getToState(), event.getOccurredAt()));
+            }
+        });
+        return new ArrayList<>(byPart.values());
+    }
+
+    /**
+     * Piezas que entraron a un estado de retrabajo, agrupadas por estado de origen y de destino. Las fechas
+     * son inclusivas; en null no se aplican.
+     */
+    @Transactional(readOnly = true)
+    public List<ReworkStatsDTO> getReworkStats(LocalDate from, LocalDate to) {
+        List<ReworkStatsDTO> stats = new ArrayList<>();
+        for (Object[] row : partStateEventRepository.countReworkTransitions(REWORK_STATES,
+                from == null ? null : from.atStartOfDay(), to == null ? null : to.plusDays(1).atStartOfDay())) {
+            stats.add(new ReworkStatsDTO((PartState) row[0], (PartState) row[1], ((Number) row[2]).longValue()));
+        }
+        return stats;
+    }
+
+    @Scheduled(cron = "${part-history.snapshot.cron:0 30 3 * * *}")
+    public void scheduledSnapshot() {
+        if (snapshotEnabled) {
+            takeSnapshots();
+        }
+    }
+
+    /**
+     * Saca una foto de las piezas sin foto o con cambios desde la foto anterior (menos el margen, ver arriba). Devuelve cuántas piezas se
+     * fotografiaron, o -1 si ya había una foto en curso.
+     */
+    public int takeSnapshots() {
+        if (!snapshotting.compareAndSet(false, true)) {
+            logger.info("Ya hay una foto del estado de las piezas en curso");
+            return -1;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Integer rows = transactionTemplate.execute(status -> partStateSnapshotRepository.insertSnapshots(
+                    LocalDateTime.now(), partStateSnapshotRepository.findLastTakenAt()
+                            .map(lastTakenAt -> lastTakenAt.minusMinutes(snapshotOverlapMinutes)).orElse(null)));
+            logger.info("Foto del estado de las piezas: {} piezas en {} ms", rows, System.currentTimeMillis() - start);
+            return rows == null ? 0 : rows;
+        } finally {
+            snapshotting.set(false);
+        }
+    }
+
+    // El evento más reciente le gana a la foto si es posterior, o si cae en el margen antes de la foto: pudo
+    // confirmarse después de que la foto leyera el estado de la pieza
+    private boolean eventWins(PartStateEvent event, LocalDateTime snapshotTakenAt) {
+        return event.getOccurredAt().isAfter(snapshotTakenAt.minusMinutes(snapshotOverlapMinutes));
+    }
+}
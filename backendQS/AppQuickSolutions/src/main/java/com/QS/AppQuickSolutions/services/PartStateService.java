@@ -1,64 +1,53 @@
 package com.QS.AppQuickSolutions.services;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.QS.AppQuickSolutions.dto.PartTrackingSummaryDTO;
 import com.QS.AppQuickSolutions.dto.PartsByStateDTO;
-import com.QS.AppQuickSolutions.entity.Part;
-import com.QS.AppQuickSolutions.entity.PartStatusTracking;
 import com.QS.AppQuickSolutions.enums.PartState;
 import com.QS.AppQuickSolutions.repository.PartRepository;
-import com.QS.AppQuickSolutions.repository.PartStatusTrackingRepository;
 
 @Service
 public class PartStateService {
-    @Autowired
-    private PartRepository partRepository;
+
+    // Estados que no se muestran en el tablero
+    private static final Set<PartState> EXCLUDED_STATES = EnumSet.of(PartState.DESARROLLO, PartState.EN_PRODUCCION);
 
     @Autowired
-    private PartStatusTrackingRepository partStatusTrackingRepository;
+    private PartRepository partRepository;
 
+    // Una sola consulta (piezas + seguimiento activo); el agrupado por estado se hace en memoria
+    @Transactional(readOnly = true)
     public List<PartsByStateDTO> getPartsByState() {
-        return Arrays.stream(PartState.values())
-                .filter(state -> state != PartState.DESARROLLO && state != PartState.EN_PRODUCCION)
-                .map(state -> {
-                    List<Part> partsInState = partRepository.findByPartState(state);
-                    List<PartTrackingSummaryDTO> partsWithStatus = partsInState.stream().map(part -> {
-                        PartTrackingSummaryDTO dto = new PartTrackingSummaryDTO();
-                        dto.setPartId(part.getId());
-                        dto.setProjectId(part.getProject().getId());
-                        dto.setPartName(part.getCustomPart().getCustomPartName());
-                        dto.setPartState(part.getPartState());
-                        dto.setScanDateTime(part.getScanDateTime());
-
-                        // Verificar si la pieza tiene un seguimiento activo
-                        Optional<PartStatusTracking> tracking = partStatusTrackingRepository
-                                .findByPartAndIsCompletedFalse(part);
-                        if (tracking.isPresent()) {
-                            PartStatusTracking activeTracking = tracking.get();
-                            dto.setTrackingId(activeTracking.getId());
-                            dto.setStartTime(activeTracking.getStartTime());
-                            dto.setEndTime(activeTracking.getEndTime());
-                            dto.setCompleted(activeTracking.isCompleted());
-                            dto.setTaken(false);
-                            dto.setTaken(activeTracking.isTaken()); // Corregido: Usar setIsTaken
-                        } else {
-                            dto.setTaken(false); // Corregido: Usar setIsTaken
-                        }
-                        return dto;
-                    }).collect(Collectors.toList());
-
-                    PartsByStateDTO dto = new PartsByStateDTO();
-                    dto.setState(state);
-                    dto.setParts(partsWithStatus);
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        Map<PartState, List<PartTrackingSummaryDTO>> partsByState = new EnumMap<>(PartState.class);
+        for (PartState state : PartState.values()) {
+            if (!EXCLUDED_STATES.contains(state)) {
+                partsByState.put(state, new ArrayList<>());
+            }
+        }
+
+        // Si una pieza quedara con más de un seguimiento activo, se muestra una sola vez
+        Set<UUID> seen = new HashSet<>();
+        for (PartTrackingSummaryDTO summary : partRepository.findTrackingSummariesExcludingStates(EXCLUDED_STATES)) {
+            List<PartTrackingSummaryDTO> parts = partsByState.get(summary.getPartState());
+            if (parts != null && seen.add(summary.getPartId())) {
+                parts.add(summary);
+            }
+        }
+
+        List<PartsByStateDTO> result = new ArrayList<>(partsByState.size());
+        partsByState.forEach((state, parts) -> result.add(new PartsByStateDTO(state, parts)));
+        return result;
     }
-}
\ No newline at end of file
+}
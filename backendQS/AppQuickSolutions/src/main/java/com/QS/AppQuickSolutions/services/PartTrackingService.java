@@ -1,26 +1,42 @@
 package com.QS.AppQuickSolutions.services;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.QS.AppQuickSolutions.dto.BulkTransitionRequestDTO;
+import com.QS.AppQuickSolutions.dto.BulkTransitionResultDTO;
+import com.QS.AppQuickSolutions.dto.CursorPageDTO;
 import com.QS.AppQuickSolutions.dto.OperatorMetricsDTO;
 import com.QS.AppQuickSolutions.dto.PartTrackingSummaryDTO;
+import com.QS.AppQuickSolutions.dto.PartTransitionResultDTO;
+import com.QS.AppQuickSolutions.dto.StationStatsDTO;
 import com.QS.AppQuickSolutions.entity.Part;
 import com.QS.AppQuickSolutions.entity.PartStatusTracking;
 import com.QS.AppQuickSolutions.entity.User;
 import com.QS.AppQuickSolutions.enums.PartState;
+import com.QS.AppQuickSolutions.enums.PartStateEventSource;
+import com.QS.AppQuickSolutions.enums.PartTransitionStatus;
 import com.QS.AppQuickSolutions.repository.PartRepository;
 import com.QS.AppQuickSolutions.repository.PartStatusTrackingRepository;
 import com.QS.AppQuickSolutions.repository.UserRepository;
@@ -39,6 +55,26 @@ public class PartTrackingService {
     @Autowired
     private PartStatusTrackingRepository partStatusTrackingRepository;
 
+    @Autowired
+    private OperatorStatsService operatorStatsService;
+
+    @Autowired
+    private PartLockService partLockService;
+
+    @Autowired
+    private PartStateHistoryService partStateHistoryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Máximo de piezas por pedido en POST /api/part-tracking/bulk-transition
+    @Value("${tracking.bulk-transition.max-parts:1000}")
+    private int bulkTransitionMaxParts;
+
+    // Piezas por transacción (y por toma de locks) en un movimiento masivo
+    @Value("${tracking.bulk-transition.chunk-size:100}")
+    private int bulkTransitionChunkSize;
+
     // Método para obtener el siguiente estado de una pieza
     public PartState getNextState(PartState currentState) {
         return switch (currentState) {
@@ -56,9 +92,11 @@ public class PartTrackingService {
         };
     }
 
-    // Método para tomar una pieza
+    // Método para tomar una pieza. No se consulta antes si la pieza o el usuario ya tienen una tarea activa:
+    // lo rechazan los índices únicos de PartStatusTracking, también cuando llegan dos pedidos a la vez
     @Transactional
     public PartStatusTracking takePart(UUID partId, Long userId) {
+        partLockService.lockUntilTransactionEnds(partId, userId);
         logger.info("Usuario {} intenta tomar la pieza {}", userId, partId);
 
         User user = userRepository.findById(userId)
@@ -67,18 +105,6 @@ public class PartTrackingService {
         Part part = partRepository.findById(partId)
                 .orElseThrow(() -> new RuntimeException("Pieza no encontrada: " + partId));
 
-        // Verificar si la pieza ya está tomada
-        Optional<PartStatusTracking> existingTracking = partStatusTrackingRepository.findByPartAndIsCompletedFalse(part);
-        if (existingTracking.isPresent()) {
-            throw new RuntimeException("La pieza ya está tomada por otro usuario.");
-        }
-
-        // Verificar si el usuario ya tiene una pieza activa
-        List<PartStatusTracking> activeTasks = partStatusTrackingRepository.findByUserOperatorUserIDAndIsCompletedFalse(userId);
-        if (!activeTasks.isEmpty()) {
-            throw new RuntimeException("El usuario ya tiene una pieza activa: " + activeTasks.get(0).getPart().getId());
-        }
-
         // Crear un nuevo registro de seguimiento
         PartStatusTracking tracking = new PartStatusTracking();
         tracking.setPart(part);
@@ -89,41 +115,183 @@ public class PartTrackingService {
         tracking.setCompleted(false);
         tracking.setTaken(true); // Marcar la pieza como tomada
 
-        return partStatusTrackingRepository.save(tracking);
+        try {
+            return partStatusTrackingRepository.saveAndFlush(tracking);
+        } catch (DataIntegrityViolationException e) {
+            TaskConflictException conflict = TaskConflictException.fromActiveTrackingViolation(e);
+            if (conflict == null) {
+                throw e;
+            }
+            logger.info("Usuario {} no pudo tomar la pieza {}: {}", userId, partId, conflict.getMessage());
+            throw conflict;
+        }
     }
 
-    // Método para completar una pieza
+    // Método para completar una pieza. Los dos UPDATE son condicionales: si otro pedido completó la tarea
+    // o movió la pieza primero, este no cambia nada y responde conflicto
     @Transactional
     public PartStatusTracking completePart(UUID partId, Long userId) {
-        Part part = partRepository.findById(partId)
-                .orElseThrow(() -> new RuntimeException("Pieza no encontrada: " + partId));
-
+        partLockService.lockUntilTransactionEnds(partId, userId);
         PartStatusTracking tracking = partStatusTrackingRepository
                 .findByPartIdAndUserOperatorUserIDAndIsCompletedFalse(partId, userId)
                 .orElseThrow(() -> new RuntimeException("No se encontró una tarea activa para esta pieza y usuario"));
-
-        tracking.setEndTime(LocalDateTime.now());
-        tracking.setCompleted(true);
-        tracking.setTaken(false); // Marcar la pieza como no tomada al completar
+        Part part = tracking.getPart();
 
         // Calcular la duración de la tarea
-        long taskDuration = java.time.Duration.between(tracking.getStartTime(), tracking.getEndTime()).toMinutes();
-        tracking.setTaskDuration(taskDuration);
+        LocalDateTime endTime = LocalDateTime.now();
+        long taskDuration = java.time.Duration.between(tracking.getStartTime(), endTime).toMinutes();
+
+        PartState currentState = part.getPartState();
+        PartState nextState = getNextState(currentState);
+        PartState completedState = nextState != null ? nextState : tracking.getPartState();
+
+        operatorStatsService.lockForTaskCompletion();
+        if (partStatusTrackingRepository.completeIfActive(tracking.getId(), endTime, taskDuration, completedState) == 0) {
+            throw new TaskConflictException("La tarea ya fue completada.");
+        }
 
         // Actualizar el estado de la pieza
-        PartState nextState = getNextState(part.getPartState());
+        if (nextState != null && partRepository.advanceState(partId, currentState, nextState) == 0) {
+            throw new TaskConflictException("El estado de la pieza cambió mientras se completaba la tarea.");
+        }
+        partStateHistoryService.record(partId, currentState, nextState, PartStateEventSource.TAREA_COMPLETADA, userId);
+
+        // Los UPDATE ya se hicieron en la base; las entidades (desasociadas) se completan para la respuesta
+        tracking.setEndTime(endTime);
+        tracking.setCompleted(true);
+        tracking.setTaken(false); // Marcar la pieza como no tomada al completar
+        tracking.setTaskDuration(taskDuration);
+        tracking.setPartState(completedState);
         if (nextState != null) {
             part.setPartState(nextState);
-            tracking.setPartState(nextState);
-            partRepository.save(part);
         }
 
-        return partStatusTrackingRepository.save(tracking);
+        operatorStatsService.recordCompletedTask(tracking);
+        return tracking;
+    }
+
+    /**
+     * Pasa muchas piezas al siguiente estado (getNextState): las de la lista de IDs, o todas las del proyecto que
+     * estén en fromState. Se procesan en tandas de bulkTransitionChunkSize piezas, cada una en su propia
+     * transacción: se toman los locks de esas piezas, se bloquean las filas, se hace un UPDATE por estado de origen
+     * y se hace commit, así un lote grande no deja esperando (y rechazando con 409) a las tomas de otras piezas.
+     * Si falla una tanda, las anteriores ya quedaron aplicadas: el movimiento se corta ahí y se devuelve el resultado
+     * parcial, con las piezas de esa tanda como FALLIDA y las siguientes como NO_PROCESADA. Se devuelve qué pasó con
+     * cada pieza. No se mueven piezas con una tarea activa, en otro estado que fromState (si se indica) o sin
+     * siguiente estado. El cambio
+     * queda en el historial de estados (part_state_event) y no como tareas del operario: no es trabajo hecho, así
+     * que no cuenta en sus métricas ni en operator_daily_stats.
+     */
+    public BulkTransitionResultDTO bulkTransition(BulkTransitionRequestDTO request) {
+        if (request.getUserId() == null) {
+            throw new IllegalArgumentException("Falta el operario (userId).");
+        }
+        List<UUID> requestedIds;
+        if (request.getPartIds() != null && !request.getPartIds().isEmpty()) {
+            requestedIds = List.copyOf(new LinkedHashSet<>(request.getPartIds()));
+        } else if (request.getProjectId() != null && request.getFromState() != null) {
+            requestedIds = partRepository.findIdsByProjectIdAndPartState(request.getProjectId(), request.getFromState());
+        } else {
+            throw new IllegalArgumentException("Se necesitan partIds, o projectId y fromState.");
+        }
+        if (requestedIds.size() > bulkTransitionMaxParts) {
+            throw new IllegalArgumentException("Demasiadas piezas en un solo pedido (máximo " + bulkTransitionMaxParts + ").");
+        }
+        if (!userRepository.existsById(request.getUserId())) {
+            throw new IllegalArgumentException("Usuario no encontrado: " + request.getUserId());
+        }
+
+        List<PartTransitionResultDTO> results = new ArrayList<>(requestedIds.size());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int chunkSize = Math.max(1, bulkTransitionChunkSize);
+        int transitioned = 0;
+        String error = null;
+        for (int from = 0; from < requestedIds.size(); from += chunkSize) {
+            List<UUID> chunk = requestedIds.subList(from, Math.min(from + chunkSize, requestedIds.size()));
+            if (error != null) {
+                addUnchanged(results, chunk, PartTransitionStatus.NO_PROCESADA);
+                continue;
+            }
+            try {
+                // Los resultados de la tanda se agregan recién después del commit
+                List<PartTransitionResultDTO> chunkResults = transactionTemplate.execute(status -> transitionChunk(chunk, request));
+                for (PartTransitionResultDTO result : chunkResults) {
+                    if (result.getStatus() == PartTransitionStatus.AVANZADA) {
+                        transitioned++;
+                    }
+                }
+                results.addAll(chunkResults);
+            } catch (RuntimeException e) {
+                logger.error("Falló la tanda {} del movimiento masivo del usuario {}; se aplicaron {} piezas",
+                        from / chunkSize + 1, request.getUserId(), transitioned, e);
+                error = "Falló la tanda de piezas " + (from + 1) + " a " + (from + chunk.size()) + ": " + e.getMessage();
+                addUnchanged(results, chunk, PartTransitionStatus.FALLIDA);
+            }
+        }
+        logger.info("Usuario {} movió {} de {} piezas en un movimiento masivo", request.getUserId(), transitioned,
+                requestedIds.size());
+        return new BulkTransitionResultDTO(transitioned, requestedIds.size() - transitioned, results, error);
     }
 
-    // Método para obtener el historial completo del usuario (tareas completadas y no completadas)
-    public List<PartStatusTracking> getTrackingHistory(Long userId) {
-        return partStatusTrackingRepository.findByUserOperatorUserID(userId);
+    // Una tanda del movimiento masivo, dentro de su transacción; devuelve el resultado de cada pieza
+    private List<PartTransitionResultDTO> transitionChunk(List<UUID> partIds, BulkTransitionRequestDTO request) {
+        partLockService.lockPartsUntilTransactionEnds(partIds);
+        Map<UUID, PartState> stateById = new HashMap<>();
+        for (Object[] row : partRepository.findStateByIdIn(partIds)) {
+            stateById.put((UUID) row[0], (PartState) row[1]);
+        }
+        Set<UUID> withActiveTracking = stateById.isEmpty() ? Set.of()
+                : new HashSet<>(partStatusTrackingRepository.findActivePartIdsIn(stateById.keySet()));
+
+        List<PartTransitionResultDTO> results = new ArrayList<>(partIds.size());
+        Map<PartState, List<UUID>> toAdvance = new EnumMap<>(PartState.class);
+        for (UUID partId : partIds) {
+            PartState state = stateById.get(partId);
+            PartState nextState = state == null ? null : getNextState(state);
+            PartTransitionStatus status;
+            if (state == null) {
+                status = PartTransitionStatus.DESCONOCIDA;
+            } else if (withActiveTracking.contains(partId)) {
+                status = PartTransitionStatus.SEGUIMIENTO_ACTIVO;
+            } else if (request.getFromState() != null && state != request.getFromState()) {
+                status = PartTransitionStatus.ESTADO_DISTINTO;
+            } else if (nextState == null) {
+                status = PartTransitionStatus.SIN_SIGUIENTE_ESTADO;
+            } else {
+                status = PartTransitionStatus.AVANZADA;
+                toAdvance.computeIfAbsent(state, k -> new ArrayList<>()).add(partId);
+            }
+            results.add(new PartTransitionResultDTO(partId, state,
+                    status == PartTransitionStatus.AVANZADA ? nextState : null, status));
+        }
+
+        for (Map.Entry<PartState, List<UUID>> group : toAdvance.entrySet()) {
+            PartState nextState = getNextState(group.getKey());
+            // Las filas están bloqueadas desde la lectura, así que el UPDATE alcanza a todas las del grupo
+            partRepository.advanceStates(group.getValue(), group.getKey(), nextState);
+            partStateHistoryService.record(group.getValue(), group.getKey(), nextState,
+                    PartStateEventSource.MOVIMIENTO_MASIVO, request.getUserId());
+        }
+        return results;
+    }
+
+    private static void addUnchanged(List<PartTransitionResultDTO> results, List<UUID> partIds, PartTransitionStatus status) {
+        for (UUID partId : partIds) {
+            results.add(new PartTransitionResultDTO(partId, null, null, status));
+        }
+    }
+
+    // Historial del usuario (tareas completadas y no completadas) paginado del más nuevo al más viejo;
+    // cursor es el ID del último seguimiento de la página anterior. Las fechas filtran por inicio de tarea
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PartTrackingSummaryDTO> getTrackingHistoryPage(Long userId, String cursor, int limit,
+            Boolean completed, PartState state, PartState initialState, Long projectId, LocalDate from, LocalDate to) {
+        int pageSize = CursorPageDTO.clampLimit(limit);
+        Long before = cursor == null || cursor.isBlank() ? null : Long.valueOf(cursor);
+        List<PartTrackingSummaryDTO> rows = partStatusTrackingRepository.findHistoryPage(userId, before, completed,
+                state, initialState, projectId, from == null ? null : from.atStartOfDay(),
+                to == null ? null : to.plusDays(1).atStartOfDay(), Limit.of(pageSize + 1));
+        return CursorPageDTO.of(rows, pageSize, tracking -> tracking.getTrackingId().toString());
     }
 
     // Método para obtener las tareas activas del usuario (no completadas)
@@ -131,62 +299,75 @@ public class PartTrackingService {
         return partStatusTrackingRepository.findByUserOperatorUserIDAndIsCompletedFalse(userId);
     }
 
-    // Método para obtener las métricas del usuario
+    // Métricas del usuario a partir de los resúmenes diarios (operator_daily_stats): el costo depende de
+    // la cantidad de resúmenes, no del largo del historial
+    @Transactional(readOnly = true)
     public OperatorMetricsDTO getUserMetrics(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + userId));
 
-        List<PartStatusTracking> completedTasks = partStatusTrackingRepository
-                .findByUserOperatorUserIDAndIsCompletedTrue(userId);
-
-        // Calcular métricas generales
-        long totalTasks = completedTasks.size();
-        double averageTaskDuration = completedTasks.stream()
-                .mapToLong(PartStatusTracking::getTaskDuration)
-                .average()
-                .orElse(0.0);
-
-        // Lista de piezas completadas
-        List<PartStatusTracking> completedParts = completedTasks;
-
-        // Duración promedio por categoría (partState)
-        Map<PartState, Double> avgDurationByCategory = completedTasks.stream()
-                .collect(Collectors.groupingBy(
-                        PartStatusTracking::getPartState,
-                        Collectors.averagingLong(PartStatusTracking::getTaskDuration)
-                ));
+        // Duración promedio por categoría (partState) y totales generales. Mientras operator_daily_stats no
+        // esté lista (primer recálculo en curso) se calculan con consultas agregadas sobre el historial
+        Map<PartState, Double> avgDurationByCategory = new EnumMap<>(PartState.class);
+        // En los dos casos los promedios son suma de duraciones / tareas con duración: las tareas sin duración
+        // cuentan en totalTasks pero no en los promedios
+        long totalTasks = 0;
+        long timedTasks = 0;
+        long totalDuration = 0;
+        long[] periods;
+        LocalDate today = LocalDate.now();
+        if (operatorStatsService.isReady()) {
+            for (StationStatsDTO stats : operatorStatsService.getStationStats(userId, null, null)) {
+                avgDurationByCategory.put(stats.getPartState(), stats.getAverageDuration());
+                totalTasks += stats.getCompletedCount();
+                timedTasks += stats.getTimedCount();
+                totalDuration += stats.getTotalDuration();
+            }
+            // Conteo de piezas por período (día, mes, año): terminadas hace menos de 2 días, 2 meses y 2 años,
+            // contadas por día completo
+            periods = operatorStatsService.countCompletedSince(userId, today.minusDays(2), today.minusMonths(2),
+                    today.minusYears(2));
+        } else {
+            for (Object[] row : partStatusTrackingRepository.aggregateCompletedByState(userId)) {
+                long withDuration = ((Number) row[2]).longValue();
+                long durationSum = row[3] == null ? 0L : ((Number) row[3]).longValue();
+                if (row[0] != null) {
+                    avgDurationByCategory.put((PartState) row[0],
+                            withDuration == 0 ? 0.0 : (double) durationSum / withDuration);
+                }
+                totalTasks += ((Number) row[1]).longValue();
+                timedTasks += withDuration;
+                totalDuration += durationSum;
+            }
+            Object[] row = partStatusTrackingRepository.countCompletedSince(userId, today.minusDays(1).atStartOfDay(),
+                    today.minusMonths(2).plusDays(1).atStartOfDay(), today.minusYears(2).plusDays(1).atStartOfDay()).get(0);
+            periods = new long[3];
+            for (int i = 0; i < periods.length; i++) {
+                periods[i] = row[i] == null ? 0L : ((Number) row[i]).longValue();
+            }
+        }
 
-        // Seguimientos agrupados por estado inicial
-        Map<PartState, List<PartStatusTracking>> trackingsByInitialState = completedTasks.stream()
-                .collect(Collectors.groupingBy(PartStatusTracking::getInitialPartState));
+        // Tareas completadas según el estado inicial de la pieza
+        Map<PartState, Long> countByInitialState = new EnumMap<>(PartState.class);
+        for (Object[] row : partStatusTrackingRepository.countCompletedByInitialState(userId)) {
+            if (row[0] != null) {
+                countByInitialState.put((PartState) row[0], ((Number) row[1]).longValue());
+            }
+        }
 
-        // Conteo de piezas por período (día, mes, año)
         Map<String, Long> partCountByPeriod = new HashMap<>();
-        LocalDateTime now = LocalDateTime.now();
-
-        long countDay = completedTasks.stream()
-                .filter(task -> task.getEndTime() != null && ChronoUnit.DAYS.between(task.getEndTime(), now) <= 1)
-                .count();
-        long countMonth = completedTasks.stream()
-                .filter(task -> task.getEndTime() != null && ChronoUnit.MONTHS.between(task.getEndTime(), now) <= 1)
-                .count();
-        long countYear = completedTasks.stream()
-                .filter(task -> task.getEndTime() != null && ChronoUnit.YEARS.between(task.getEndTime(), now) <= 1)
-                .count();
-
-        partCountByPeriod.put("DAY", countDay);
-        partCountByPeriod.put("MONTH", countMonth);
-        partCountByPeriod.put("YEAR", countYear);
-
-        // Crear el DTO con todas las métricas
+        partCountByPeriod.put("DAY", periods[0]);
+        partCountByPeriod.put("MONTH", periods[1]);
+        partCountByPeriod.put("YEAR", periods[2]);
+
         OperatorMetricsDTO metrics = new OperatorMetricsDTO();
-        metrics.setUser(user);
-        metrics.setCompletedParts(completedParts);
+        metrics.setUserId(user.getUserID());
+        metrics.setUserName(user.getUserName());
         metrics.setAvgDurationByCategory(avgDurationByCategory);
-        metrics.setTrackingsByInitialState(trackingsByInitialState);
+        metrics.setCountByInitialState(countByInitialState);
         metrics.setPartCountByPeriod(partCountByPeriod);
         metrics.setTotalTasks(totalTasks);
-        metrics.setAverageTaskDuration(averageTaskDuration);
+        metrics.setAverageTaskDuration(timedTasks == 0 ? 0.0 : (double) totalDuration / timedTasks);
 
         return metrics;
     }
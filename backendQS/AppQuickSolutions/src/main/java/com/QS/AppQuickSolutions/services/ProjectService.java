@@ -1,22 +1,30 @@
 package com.QS.AppQuickSolutions.services;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.QS.AppQuickSolutions.dto.CursorPageDTO;
 import com.QS.AppQuickSolutions.dto.PartDto;
 import com.QS.AppQuickSolutions.dto.ProjectDto;
+import com.QS.AppQuickSolutions.dto.ProjectSummaryDTO;
 import com.QS.AppQuickSolutions.entity.Part;
 import com.QS.AppQuickSolutions.entity.Project;
 import com.QS.AppQuickSolutions.repository.PartRepository;
 import com.QS.AppQuickSolutions.repository.ProjectRepository;
+import com.QS.AppQuickSolutions.services.QRGenerationService.QRRenderJob;
 import com.google.zxing.WriterException;
 
 import io.jsonwebtoken.io.IOException;
-import jakarta.transaction.Transactional;
 
 @Service
 public class ProjectService {
@@ -33,6 +41,9 @@ public class ProjectService {
     @Autowired
     private QRCodeService qrCodeService;
 
+    @Autowired
+    private QRGenerationService qrGenerationService;
+
     @Transactional
     public Project createProjectWithParts(ProjectDto projectDto, List<PartDto> partDtos) throws IOException, WriterException, java.io.IOException {
         Project project = new Project();
@@ -49,25 +60,55 @@ public class ProjectService {
         // Guardar el proyecto primero para obtener su ID
         Project savedProject = projectRepository.save(project);
     
-        // Crear y guardar cada pieza con el proyecto persistido, generando QR completo
+        // Las piezas ya tienen ID antes de guardarse, así que los datos del QR se completan antes del
+        // INSERT: un solo INSERT por pieza, agrupados en lotes JDBC (hibernate.jdbc.batch_size).
+        // Las imágenes se renderizan en paralelo después del commit.
+        List<Part> parts = new ArrayList<>(partDtos.size());
+        List<QRRenderJob> renderJobs = new ArrayList<>(partDtos.size());
         for (PartDto partDto : partDtos) {
-            Part part = partService.createPart(savedProject, partDto); // Usar createPart sin QR
+            Part part = partService.newPart(savedProject, partDto);
 
-            // Generar el QR usando la pieza persistida con Project ID
             String qrData = qrCodeService.generateQrDataFromPart(part);
-            String qrFilePath = qrCodeService.generateQRCodeImage(qrData, 300, 300, part.getId() + "_part_qr.png");
+            String qrFileName = qrCodeService.qrFileNameFor(part.getId());
             part.setQrCodeData(qrData);
-            part.setQrCodeFilePath(qrFilePath);
-    
-            partRepository.save(part); // Guardar la pieza con el QR completo
+            part.setQrCodeFilePath(qrFileName);
+
+            parts.add(part);
+            renderJobs.add(new QRRenderJob(qrData, qrFileName));
         }
+        partRepository.saveAll(parts);
+
+        qrGenerationService.scheduleAfterCommit(savedProject.getId(), renderJobs);
     
         // Retornar la respuesta directa sin ApiResponse
         return savedProject;
     }
 
-    public List<Project> getAllProjects() {
-        return projectRepository.findAll();
+    // Listado paginado del más nuevo al más viejo; cursor es el ID del último proyecto de la página
+    // anterior. Las fechas filtran por fecha de creación y ambas son inclusivas; search busca el texto dentro
+    // del alias del cliente, el contacto o el ID, sin distinguir mayúsculas
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProjectSummaryDTO> getProjectsPage(String cursor, int limit, LocalDate from, LocalDate to,
+            String search) {
+        int pageSize = CursorPageDTO.clampLimit(limit);
+        Long before = cursor == null || cursor.isBlank() ? null : Long.valueOf(cursor);
+        List<ProjectSummaryDTO> rows = projectRepository.findSummaryPage(before, startOfDay(from),
+                to == null ? null : startOfDay(to.plusDays(1)), containsPattern(search), Limit.of(pageSize + 1));
+        return CursorPageDTO.of(rows, pageSize, project -> project.getId().toString());
+    }
+
+    // Patrón LIKE "contiene" para findSummaryPage; los comodines que escribió el usuario se buscan como texto
+    private static String containsPattern(String search) {
+        if (search == null || search.isBlank()) {
+            return null;
+        }
+        String escaped = search.trim().toLowerCase(Locale.ROOT)
+                .replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return "%" + escaped + "%";
+    }
+
+    private static Date startOfDay(LocalDate date) {
+        return date == null ? null : Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
     }
 
     public Project getProjectById(Long id) {
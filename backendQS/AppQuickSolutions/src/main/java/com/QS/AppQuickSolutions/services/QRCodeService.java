@@ -1,25 +1,41 @@
 package com.QS.AppQuickSolutions.services;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.QS.AppQuickSolutions.dto.DeliveryScanBatchDTO;
+import com.QS.AppQuickSolutions.dto.DeliveryScanResultDTO;
 import com.QS.AppQuickSolutions.dto.PartDto;
+import com.QS.AppQuickSolutions.dto.ReceptionScanResultDTO;
 import com.QS.AppQuickSolutions.entity.Part;
+import com.QS.AppQuickSolutions.entity.PartPackage;
 import com.QS.AppQuickSolutions.entity.PartStatusTracking;
+import com.QS.AppQuickSolutions.enums.DeliveryScanStatus;
 import com.QS.AppQuickSolutions.enums.PartState;
+import com.QS.AppQuickSolutions.enums.PartStateEventSource;
+import com.QS.AppQuickSolutions.enums.ReceptionScanStatus;
+import com.QS.AppQuickSolutions.repository.PartPackageRepository;
 import com.QS.AppQuickSolutions.repository.PartRepository;
 import com.QS.AppQuickSolutions.repository.PartStatusTrackingRepository;
+import com.QS.AppQuickSolutions.services.storage.BlobStore;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
 import com.google.zxing.WriterException;
@@ -30,8 +46,36 @@ import com.google.zxing.qrcode.QRCodeWriter;
 @Service
 public class QRCodeService {
 
-    @Value("${qrcode.upload-dir}")
-    private String qrDirectory;
+    private static final String PART_QR_SUFFIX = "_part_qr.png";
+    private static final String PACKAGE_QR_SUFFIX = "_package_qr.png";
+
+    @Autowired
+    @Qualifier("qrBlobStore")
+    private BlobStore qrBlobStore;
+
+    // file: los PNG se escriben en qrcode.upload-dir / on-demand: se renderizan al pedirlos y se guardan en memoria
+    @Value("${qrcode.render-mode:file}")
+    private String renderMode;
+
+    @Autowired
+    private QRImageCache qrImageCache;
+
+    @Autowired
+    private PartLockService partLockService;
+
+    @Autowired
+    private PartStateHistoryService partStateHistoryService;
+
+    // compact: prefijo versionado + UUID en base32 (ver QRPayloadCodec) / legacy: texto de diez líneas
+    @Value("${qrcode.payload-format:compact}")
+    private String payloadFormat;
+
+    @Value("${qrcode.payload-checksum:true}")
+    private boolean payloadChecksum;
+
+    // Máximo de QR por pedido en el escaneo de carga por lotes
+    @Value("${qrcode.delivery-scan.max-batch:500}")
+    private int deliveryScanMaxBatch;
 
     @Autowired
     private PartRepository partRepository;
@@ -39,6 +83,9 @@ public class QRCodeService {
     @Autowired
     private PartStatusTrackingRepository partStatusTrackingRepository;
 
+    @Autowired
+    private PartPackageRepository partPackageRepository;
+
     /**
      * Genera los datos del QR a partir de un Part entity.
      */
@@ -47,6 +94,10 @@ public class QRCodeService {
             throw new IllegalArgumentException("La pieza no puede ser nula.");
         }
 
+        if (usesCompactPayload() && part.getId() != null) {
+            return QRPayloadCodec.encodePart(part.getId(), payloadChecksum);
+        }
+
         return "Part ID: " + (part.getId() != null ? part.getId().toString() : "N/A") +
                "\nProject ID: " + (part.getProject() != null ? part.getProject().getId().toString() : "N/A") +
                "\nCustomPart: " + (part.getCustomPart() != null ? part.getCustomPart().getCustomPartName() : "N/A") +
@@ -59,24 +110,93 @@ public class QRCodeService {
                "\nReception State: " + (part.getReceptionState() != null ? part.getReceptionState().toString() : "false");
     }
 
+    /**
+     * Nombre del archivo de imagen QR asociado a una pieza.
+     */
+    public String qrFileNameFor(UUID partId) {
+        return partId + PART_QR_SUFFIX;
+    }
+
+    /**
+     * Nombre del archivo de imagen QR asociado a un bulto.
+     */
+    public String packageQrFileNameFor(UUID packageId) {
+        return packageId + PACKAGE_QR_SUFFIX;
+    }
+
     /**
      * Genera la imagen del QR y devuelve la ruta del archivo.
      */
     public String generateQRCodeImage(String qrData, int width, int height, String fileName) throws WriterException, IOException {
+        if (isOnDemandRendering()) {
+            // Sin archivo en disco: la imagen queda en la cache y se vuelve a renderizar si se desaloja
+            qrImageCache.put(fileName, renderQRCodePng(qrData, width, height));
+            return fileName;
+        }
+
+        qrBlobStore.put(fileName, new ByteArrayInputStream(renderQRCodePng(qrData, width, height)));
+        return fileName;
+    }
+
+    /**
+     * Renderiza el QR en memoria y devuelve los bytes del PNG.
+     */
+    public byte[] renderQRCodePng(String qrData, int width, int height) throws WriterException, IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream(2048);
+        MatrixToImageWriter.writeToStream(encodeQRCode(qrData, width, height), "PNG", png);
+        return png.toByteArray();
+    }
+
+    BitMatrix encodeQRCode(String qrData, int width, int height) throws WriterException {
         Map<EncodeHintType, Object> hints = new HashMap<>();
         hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
 
-        Path qrPathDirectory = Paths.get(qrDirectory).toAbsolutePath(); // Usar path absoluto
-        if (!Files.exists(qrPathDirectory)) {
-            Files.createDirectories(qrPathDirectory);
+        QRCodeWriter qrCodeWriter = new QRCodeWriter();
+        return qrCodeWriter.encode(qrData, BarcodeFormat.QR_CODE, width, height, hints);
+    }
+
+    public boolean isOnDemandRendering() {
+        return "on-demand".equalsIgnoreCase(renderMode);
+    }
+
+    /**
+     * Devuelve el PNG de un QR en modo on-demand. Si no está en cache y el archivo corresponde a una
+     * pieza ({@code <uuid>_part_qr.png}) o a un bulto ({@code <uuid>_package_qr.png}), se renderiza
+     * con los datos QR guardados.
+     */
+    public Optional<byte[]> getQRCodePng(String fileName) throws WriterException, IOException {
+        byte[] cached = qrImageCache.get(fileName);
+        if (cached != null) {
+            return Optional.of(cached);
         }
 
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(qrData, BarcodeFormat.QR_CODE, width, height, hints);
-        Path qrPath = qrPathDirectory.resolve(fileName);
-        MatrixToImageWriter.writeToPath(bitMatrix, "PNG", qrPath);
+        Optional<String> qrData = storedQrDataFor(fileName);
+        if (qrData.isEmpty()) {
+            return Optional.empty();
+        }
 
-        return fileName;
+        byte[] png = renderQRCodePng(qrData.get(), 300, 300);
+        qrImageCache.put(fileName, png);
+        return Optional.of(png);
+    }
+
+    private Optional<String> storedQrDataFor(String fileName) {
+        Optional<UUID> partId = idFromFileName(fileName, PART_QR_SUFFIX);
+        if (partId.isPresent()) {
+            return partRepository.findQrCodeDataById(partId.get());
+        }
+        return idFromFileName(fileName, PACKAGE_QR_SUFFIX).flatMap(partPackageRepository::findQrCodeDataById);
+    }
+
+    private static Optional<UUID> idFromFileName(String fileName, String suffix) {
+        if (!fileName.endsWith(suffix)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(UUID.fromString(fileName.substring(0, fileName.length() - suffix.length())));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 
     /**
@@ -87,7 +207,38 @@ public class QRCodeService {
             throw new IllegalArgumentException("La pieza no puede ser nula.");
         }
         String qrData = generateQrDataFromPart(part);
-        return generateQRCodeImage(qrData, 300, 300, part.getId() + "_part_qr.png");
+        return generateQRCodeImage(qrData, 300, 300, qrFileNameFor(part.getId()));
+    }
+
+    /**
+     * Genera el QR de un bulto ya persistido. El contenido siempre usa el formato compacto (QS1K...),
+     * los bultos no tienen formato legado.
+     */
+    public String generateQRCodeForPackage(PartPackage partPackage) throws WriterException, IOException {
+        if (partPackage == null || partPackage.getId() == null) {
+            throw new IllegalArgumentException("El bulto debe estar guardado antes de generar su QR.");
+        }
+        partPackage.setQrCodeData(generateQrDataForPackage(partPackage.getId()));
+        return generateQRCodeImage(partPackage.getQrCodeData(), 300, 300, packageQrFileNameFor(partPackage.getId()));
+    }
+
+    /**
+     * Contenido del QR de un bulto (siempre compacto, QS1K...).
+     */
+    public String generateQrDataForPackage(UUID packageId) {
+        return QRPayloadCodec.encodePackage(packageId, payloadChecksum);
+    }
+
+    /**
+     * Elimina la imagen del QR de un bulto; no falla si la imagen no existe.
+     */
+    public void deletePackageQRCode(UUID packageId) throws IOException {
+        String fileName = packageQrFileNameFor(packageId);
+        if (isOnDemandRendering()) {
+            qrImageCache.invalidate(fileName);
+        } else {
+            qrBlobStore.delete(fileName);
+        }
     }
 
     /**
@@ -107,6 +258,10 @@ public class QRCodeService {
             throw new IllegalArgumentException("CustomPart y PartMaterial no pueden ser nulos.");
         }
 
+        if (usesCompactPayload() && partDto.getId() != null) {
+            return QRPayloadCodec.encodePart(partDto.getId(), payloadChecksum);
+        }
+
         return "Part ID: " + (partDto.getId() != null ? partDto.getId().toString() : "N/A") +
                "\nProject ID: " + (partDto.getProject() != null ? partDto.getProject().getId().toString() : "N/A") +
                "\nCustomPart: " + (partDto.getCustomPart() != null ? partDto.getCustomPart().getCustomPartName() : "N/A") +
@@ -119,20 +274,40 @@ public class QRCodeService {
                "\nReception State: " + (partDto.getReceptionState() != null ? partDto.getReceptionState().toString() : "false");
     }
 
+    private boolean usesCompactPayload() {
+        return "compact".equalsIgnoreCase(payloadFormat);
+    }
+
+    /**
+     * Obtiene el ID de pieza de un QR, tanto en formato compacto como en el texto legado.
+     */
+    public UUID parsePartId(String qrData) {
+        return QRPayloadCodec.decodePartId(qrData)
+                .orElseThrow(() -> new IllegalArgumentException("Código QR inválido: no contiene un ID de pieza."));
+    }
+
     /**
     * Actualiza el estado de una pieza después de escanear su QR.
     */
     @Transactional
     public Part scanQRCode(String qrData) {
-        String[] qrParts = qrData.split("\n");
-        String partIdString = qrParts[0].split(":")[1].trim();
-        UUID partId = UUID.fromString(partIdString);
+        UUID partId = parsePartId(qrData);
+        partLockService.lockUntilTransactionEnds(partId, null);
 
         Part part = partRepository.findById(partId)
             .orElseThrow(() -> new RuntimeException("Pieza no encontrada"));
 
+        // Verificar si ya hay un seguimiento activo antes de tocar la pieza: así el rechazo no
+        // escribe nada ni deja un UPDATE para deshacer
+        partStatusTrackingRepository.findByPartAndIsCompletedFalse(part)
+            .ifPresent(tracking -> {
+                throw new RuntimeException("La pieza ya tiene un seguimiento activo");
+            });
+
         System.out.println("Antes de actualizar - partState: " + part.getPartState());
 
+        PartState previousState = part.getPartState();
+
         // Cambiar el estado de la pieza a "recibida" y actualizar el scanDateTime
         part.setReceptionState(true);
         part.setScanDateTime(LocalDateTime.now());
@@ -143,15 +318,10 @@ public class QRCodeService {
         System.out.println("Después de setear - partState: " + part.getPartState());
 
         // Guardar los cambios en la pieza
-        part = partRepository.saveAndFlush(part);
+        part = partRepository.save(part);
 
         System.out.println("Después de guardar - partState: " + part.getPartState());
-
-        // Verificar si ya hay un seguimiento activo para esta pieza
-        partStatusTrackingRepository.findByPartAndIsCompletedFalse(part)
-            .ifPresent(tracking -> {
-                throw new RuntimeException("La pieza ya tiene un seguimiento activo");
-            });
+        partStateHistoryService.record(partId, previousState, part.getPartState(), PartStateEventSource.RECEPCION, null);
 
         // Crear un nuevo registro de seguimiento
         PartStatusTracking tracking = new PartStatusTracking();
@@ -159,18 +329,94 @@ public class QRCodeService {
         tracking.setPartState(PartState.CONTROL_CALIDAD_EN_FABRICA);
         tracking.setStartTime(LocalDateTime.now());
         tracking.setCompleted(false);
-        // No asignamos un operador, ya que el escaneo es un proceso automático
-        partStatusTrackingRepository.save(tracking);
+        // No asignamos un operador, ya que el escaneo es un proceso automático. Si otro pedido creó un
+        // seguimiento activo después de la verificación, el índice único lo rechaza y se deshace todo
+        try {
+            partStatusTrackingRepository.saveAndFlush(tracking);
+        } catch (DataIntegrityViolationException e) {
+            if (TaskConflictException.fromActiveTrackingViolation(e) == null) {
+                throw e;
+            }
+            throw new TaskConflictException("La pieza ya tiene un seguimiento activo");
+        }
 
              return part;
     }
 
+    /**
+     * Recepción por lotes con la misma semántica que scanQRCode (pieza recibida, fecha de escaneo y
+     * estado CONTROL_CALIDAD_EN_FABRICA), en una sola transacción y un solo UPDATE. A diferencia del
+     * escaneo individual no se pisa el estado de piezas ya recibidas ni de piezas con un seguimiento
+     * activo: se informan y quedan como estaban. El seguimiento lo crea el operario al tomar la pieza.
+     */
+    @Transactional
+    public List<ReceptionScanResultDTO> scanQRCodes(List<String> payloads) {
+        List<UUID> decodedIds = new ArrayList<>(payloads.size());
+        Set<UUID> distinctIds = new LinkedHashSet<>();
+        for (String payload : payloads) {
+            UUID partId = QRPayloadCodec.decodePartId(payload).orElse(null);
+            decodedIds.add(partId);
+            if (partId != null) {
+                distinctIds.add(partId);
+            }
+        }
+
+        Map<UUID, Boolean> receivedById = new HashMap<>();
+        Map<UUID, PartState> stateById = new HashMap<>();
+        Set<UUID> withActiveTracking = new HashSet<>();
+        if (!distinctIds.isEmpty()) {
+            for (Object[] row : partRepository.findReceptionStateByIdIn(distinctIds)) {
+                receivedById.put((UUID) row[0], Boolean.TRUE.equals(row[1]));
+                stateById.put((UUID) row[0], (PartState) row[2]);
+            }
+            withActiveTracking.addAll(partStatusTrackingRepository.findActivePartIdsIn(receivedById.keySet()));
+        }
+
+        List<UUID> toReceive = new ArrayList<>();
+        receivedById.forEach((partId, received) -> {
+            if (!received && !withActiveTracking.contains(partId)) {
+                toReceive.add(partId);
+            }
+        });
+        if (!toReceive.isEmpty()) {
+            partRepository.markReceived(toReceive, LocalDateTime.now(), PartState.CONTROL_CALIDAD_EN_FABRICA);
+            Map<PartState, List<UUID>> receivedByPreviousState = new HashMap<>();
+            for (UUID partId : toReceive) {
+                receivedByPreviousState.computeIfAbsent(stateById.get(partId), k -> new ArrayList<>()).add(partId);
+            }
+            receivedByPreviousState.forEach((previousState, partIds) -> partStateHistoryService.record(partIds,
+                    previousState, PartState.CONTROL_CALIDAD_EN_FABRICA, PartStateEventSource.RECEPCION, null));
+        }
+
+        List<ReceptionScanResultDTO> results = new ArrayList<>(payloads.size());
+        Set<UUID> reported = new HashSet<>();
+        for (int i = 0; i < payloads.size(); i++) {
+            UUID partId = decodedIds.get(i);
+            ReceptionScanStatus status;
+            if (partId == null) {
+                status = ReceptionScanStatus.QR_INVALIDO;
+            } else if (!receivedById.containsKey(partId)) {
+                status = ReceptionScanStatus.DESCONOCIDA;
+            } else if (withActiveTracking.contains(partId)) {
+                status = ReceptionScanStatus.SEGUIMIENTO_ACTIVO;
+            } else if (!receivedById.get(partId) && reported.add(partId)) {
+                status = ReceptionScanStatus.RECIBIDA;
+            } else {
+                status = ReceptionScanStatus.YA_RECIBIDA;
+            }
+            results.add(new ReceptionScanResultDTO(payloads.get(i), partId, status));
+        }
+        return results;
+    }
+
     /**
      * Método utilitario para verificar si un archivo QR existe.
      */
     public boolean qrFileExists(String fileName) {
-        Path qrPath = Paths.get(qrDirectory, fileName);
-        return Files.exists(qrPath) && Files.isReadable(qrPath);
+        if (isOnDemandRendering()) {
+            return qrImageCache.get(fileName) != null || storedQrDataFor(fileName).isPresent();
+        }
+        return qrBlobStore.exists(fileName);
     }
 
     /**
@@ -178,10 +424,11 @@ public class QRCodeService {
      */
     public void deleteQRCode(String qrCodeId) throws IOException {
         String fileName = qrCodeId + "_part_qr.png";
-        Path qrPath = Paths.get(qrDirectory, fileName);
-        if (Files.exists(qrPath)) {
-            Files.delete(qrPath);
-        } else {
+        if (isOnDemandRendering()) {
+            qrImageCache.invalidate(fileName);
+            return;
+        }
+        if (!qrBlobStore.delete(fileName)) {
             throw new IOException("El archivo QR no existe: " + fileName);
         }
     }
@@ -191,8 +438,7 @@ public class QRCodeService {
      */
     public String getQRCode(String qrCodeId) throws IOException {
         String fileName = qrCodeId + "_part_qr.png";
-        Path qrPath = Paths.get(qrDirectory, fileName);
-        if (Files.exists(qrPath)) {
+        if (qrFileExists(fileName)) {
             return fileName;
         } else {
             throw new IOException("El archivo QR no existe: " + fileName);
@@ -216,9 +462,7 @@ public class QRCodeService {
     }
     
     public Part scanDeliveryQRCode(String qrData) {
-        String[] qrParts = qrData.split(",");
-        String partIdString = qrParts[1].split(":")[1].trim();
-        UUID partId = UUID.fromString(partIdString);
+        UUID partId = parsePartId(qrData);
     
         Part part = partRepository.findById(partId)
                 .orElseThrow(() -> new RuntimeException("Pieza no encontrada"));
@@ -230,4 +474,66 @@ public class QRCodeService {
             throw new RuntimeException("Pieza ya marcada como lista para entrega");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Escaneo de carga al camión por lotes: resuelve todas las piezas en una consulta, marca las
+     * pendientes con un solo UPDATE y devuelve un resultado por QR, en el orden recibido.
+     */
+    @Transactional
+    public DeliveryScanBatchDTO scanDeliveryQRCodes(List<String> payloads) {
+        if (payloads.size() > deliveryScanMaxBatch) {
+            throw new IllegalArgumentException("El lote supera el máximo de " + deliveryScanMaxBatch + " códigos.");
+        }
+
+        List<UUID> decodedIds = new ArrayList<>(payloads.size());
+        Set<UUID> distinctIds = new LinkedHashSet<>();
+        for (String payload : payloads) {
+            UUID partId = QRPayloadCodec.decodePartId(payload).orElse(null);
+            decodedIds.add(partId);
+            if (partId != null) {
+                distinctIds.add(partId);
+            }
+        }
+
+        // true = ya estaba lista para entrega; las que no aparecen no existen
+        Map<UUID, Boolean> readyById = new HashMap<>();
+        if (!distinctIds.isEmpty()) {
+            for (Object[] row : partRepository.findDeliveryStateByIdIn(distinctIds)) {
+                readyById.put((UUID) row[0], (Boolean) row[1]);
+            }
+        }
+
+        List<UUID> toLoad = new ArrayList<>();
+        readyById.forEach((partId, ready) -> {
+            if (!ready) {
+                toLoad.add(partId);
+            }
+        });
+        if (!toLoad.isEmpty()) {
+            partRepository.markReadyForDelivery(toLoad);
+        }
+
+        DeliveryScanBatchDTO batch = new DeliveryScanBatchDTO(0, 0, 0, 0, new ArrayList<>(payloads.size()));
+        Set<UUID> reported = new HashSet<>();
+        for (int i = 0; i < payloads.size(); i++) {
+            UUID partId = decodedIds.get(i);
+            DeliveryScanStatus status;
+            if (partId == null) {
+                status = DeliveryScanStatus.QR_INVALIDO;
+                batch.setInvalid(batch.getInvalid() + 1);
+            } else if (!readyById.containsKey(partId)) {
+                status = DeliveryScanStatus.DESCONOCIDA;
+                batch.setUnknown(batch.getUnknown() + 1);
+            } else if (!readyById.get(partId) && reported.add(partId)) {
+                status = DeliveryScanStatus.CARGADA;
+                batch.setLoaded(batch.getLoaded() + 1);
+            } else {
+                // Ya estaba cargada, o es el mismo QR repetido dentro del lote
+                status = DeliveryScanStatus.YA_CARGADA;
+                batch.setAlreadyLoaded(batch.getAlreadyLoaded() + 1);
+            }
+            batch.getResults().add(new DeliveryScanResultDTO(payloads.get(i), partId, status));
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,166 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.QS.AppQuickSolutions.dto.QRGenerationStatusDTO;
+import com.QS.AppQuickSolutions.enums.QRGenerationState;
+
+@Service
+public class QRGenerationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QRGenerationService.class);
+
+    // Los estados terminados se conservan este tiempo para que el frontend pueda consultarlos
+    private static final long FINISHED_STATUS_RETENTION_MINUTES = 60;
+
+    private final QRCodeService qrCodeService;
+    private final ThreadPoolTaskExecutor qrRenderExecutor;
+
+    private final Map<Long, ProjectQRProgress> progressByProject = new ConcurrentHashMap<>();
+
+    public QRGenerationService(QRCodeService qrCodeService,
+            @Qualifier("qrRenderExecutor") ThreadPoolTaskExecutor qrRenderExecutor) {
+        this.qrCodeService = qrCodeService;
+        this.qrRenderExecutor = qrRenderExecutor;
+    }
+
+    /**
+     * Datos necesarios para renderizar un QR sin volver a tocar la base de datos.
+     */
+    public record QRRenderJob(String qrData, String fileName) {
+    }
+
+    /**
+     * Programa la generación de las imágenes QR de un proyecto. Si hay una transacción activa,
+     * los trabajos se encolan recién cuando confirma, así la conexión no queda tomada mientras
+     * se renderiza y no se escriben archivos de piezas que terminaron en rollback.
+     */
+    public void scheduleAfterCommit(Long projectId, List<QRRenderJob> jobs) {
+        pruneFinished();
+        ProjectQRProgress progress = new ProjectQRProgress(projectId, jobs.size());
+        progressByProject.put(projectId, progress);
+
+        runAfterCommit(() -> submit(progress, jobs), () -> progressByProject.remove(projectId, progress));
+    }
+
+    /**
+     * Programa la imagen de un solo QR (por ejemplo, el de un bulto) para después del commit, sin registrar
+     * progreso: si falla queda en el log y la imagen se vuelve a generar al pedirla.
+     */
+    public void scheduleAfterCommit(QRRenderJob job) {
+        runAfterCommit(() -> qrRenderExecutor.execute(() -> {
+            try {
+                qrCodeService.generateQRCodeImage(job.qrData(), 300, 300, job.fileName());
+            } catch (Exception e) {
+                logger.error("No se pudo generar el QR {}", job.fileName(), e);
+            }
+        }), () -> { });
+    }
+
+    private void runAfterCommit(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Estado de la generación de QR de un proyecto, si hay una registrada.
+     */
+    public Optional<QRGenerationStatusDTO> getStatus(Long projectId) {
+        ProjectQRProgress progress = progressByProject.get(projectId);
+        return progress == null ? Optional.empty() : Optional.of(progress.toDto());
+    }
+
+    private void submit(ProjectQRProgress progress, List<QRRenderJob> jobs) {
+        progress.start();
+        if (jobs.isEmpty()) {
+            progress.finish();
+            return;
+        }
+        for (QRRenderJob job : jobs) {
+            qrRenderExecutor.execute(() -> render(progress, job));
+        }
+    }
+
+    private void render(ProjectQRProgress progress, QRRenderJob job) {
+        try {
+            qrCodeService.generateQRCodeImage(job.qrData(), 300, 300, job.fileName());
+            progress.rendered.incrementAndGet();
+        } catch (Exception e) {
+            progress.failed.incrementAndGet();
+            logger.error("No se pudo generar el QR {} del proyecto {}", job.fileName(), progress.projectId, e);
+        } finally {
+            if (progress.pending.decrementAndGet() == 0) {
+                progress.finish();
+                logger.info("QR del proyecto {} generados: {} ok, {} con error",
+                        progress.projectId, progress.rendered.get(), progress.failed.get());
+            }
+        }
+    }
+
+    private void pruneFinished() {
+        LocalDateTime limit = LocalDateTime.now().minusMinutes(FINISHED_STATUS_RETENTION_MINUTES);
+        progressByProject.values().removeIf(progress -> progress.finishedAt != null && progress.finishedAt.isBefore(limit));
+    }
+
+    private static class ProjectQRProgress {
+        private final Long projectId;
+        private final int total;
+        private final AtomicInteger pending;
+        private final AtomicInteger rendered = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        private ProjectQRProgress(Long projectId, int total) {
+            this.projectId = projectId;
+            this.total = total;
+            this.pending = new AtomicInteger(total);
+        }
+
+        private void start() {
+            startedAt = LocalDateTime.now();
+        }
+
+        private void finish() {
+            finishedAt = LocalDateTime.now();
+        }
+
+        private QRGenerationStatusDTO toDto() {
+            QRGenerationState state;
+            if (startedAt == null) {
+                state = QRGenerationState.PENDIENTE;
+            } else if (finishedAt == null) {
+                state = QRGenerationState.EN_PROCESO;
+            } else {
+                state = failed.get() > 0 ? QRGenerationState.COMPLETADO_CON_ERRORES : QRGenerationState.COMPLETADO;
+            }
+            return new QRGenerationStatusDTO(projectId, state, total, rendered.get(), failed.get(), startedAt, finishedAt);
+        }
+    }
+}
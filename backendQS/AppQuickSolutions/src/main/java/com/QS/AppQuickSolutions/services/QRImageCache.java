@@ -0,0 +1,58 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache LRU en memoria de las imágenes QR ya codificadas (PNG), acotada por la suma de bytes
+ * guardados y no por la cantidad de entradas.
+ */
+@Component
+public class QRImageCache {
+
+    private final long maxBytes;
+    private long currentBytes;
+
+    // accessOrder = true: cada get mueve la entrada al final, la primera es la menos usada
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    public QRImageCache(@Value("${qrcode.cache.max-bytes:33554432}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized byte[] get(String fileName) {
+        return entries.get(fileName);
+    }
+
+    public synchronized void put(String fileName, byte[] png) {
+        if (png.length > maxBytes) {
+            return; // No entra nunca, no tiene sentido vaciar la cache por esta imagen
+        }
+        byte[] previous = entries.put(fileName, png);
+        if (previous != null) {
+            currentBytes -= previous.length;
+        }
+        currentBytes += png.length;
+
+        Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    public synchronized void invalidate(String fileName) {
+        byte[] removed = entries.remove(fileName);
+        if (removed != null) {
+            currentBytes -= removed.length;
+        }
+    }
+
+    public synchronized long sizeInBytes() {
+        return currentBytes;
+    }
+}
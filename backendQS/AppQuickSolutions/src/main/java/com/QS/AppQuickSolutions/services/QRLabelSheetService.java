@@ -0,0 +1,257 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.QS.AppQuickSolutions.entity.Part;
+import com.QS.AppQuickSolutions.enums.LabelSheetFormat;
+import com.QS.AppQuickSolutions.repository.PartRepository;
+import com.QS.AppQuickSolutions.repository.ProjectRepository;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Arma las hojas de etiquetas QR de un proyecto (grilla de QR con nombre e ID de cada pieza)
+ * y las escribe hoja por hoja en el stream de salida, en PDF o en un zip de PNG.
+ */
+@Service
+public class QRLabelSheetService {
+
+    // Hoja A4 en puntos (1/72 de pulgada)
+    private static final float PAGE_WIDTH = 595.28f;
+    private static final float PAGE_HEIGHT = 841.89f;
+    private static final float PAGE_MARGIN = 28f;
+    private static final float CELL_PADDING = 6f;
+    private static final float NAME_FONT_SIZE = 8f;
+    private static final float ID_FONT_SIZE = 6.5f;
+    private static final float CAPTION_HEIGHT = NAME_FONT_SIZE + ID_FONT_SIZE + 8f;
+
+    // Ancho promedio de un carácter de Helvetica, en fracción del tamaño de fuente
+    private static final float AVERAGE_CHAR_WIDTH = 0.55f;
+
+    @Value("${qrcode.labels.columns:3}")
+    private int columns;
+
+    @Value("${qrcode.labels.rows:5}")
+    private int rows;
+
+    // Resolución de las hojas PNG
+    @Value("${qrcode.labels.png-dpi:150}")
+    private int pngDpi;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private QRCodeService qrCodeService;
+
+    /**
+     * Datos de una etiqueta; no guarda imágenes, así la lista de un proyecto grande sigue siendo liviana.
+     */
+    public record LabelRow(UUID partId, String partName, String qrData) {
+    }
+
+    /**
+     * Carga las etiquetas de un proyecto en una sola consulta. Se llama antes de empezar a escribir
+     * la respuesta, así un proyecto inexistente todavía puede devolver 404.
+     */
+    public List<LabelRow> loadLabels(Long projectId) {
+        if (!projectRepository.existsById(projectId)) {
+            throw new EntityNotFoundException("Proyecto no encontrado con ID: " + projectId);
+        }
+
+        List<Part> parts = partRepository.findByProjectId(projectId);
+        List<LabelRow> labels = new ArrayList<>(parts.size());
+        for (Part part : parts) {
+            String name = part.getCustomPart() != null ? part.getCustomPart().getCustomPartName() : "Sin nombre";
+            String qrData = part.getQrCodeData() != null ? part.getQrCodeData() : qrCodeService.generateQrDataFromPart(part);
+            labels.add(new LabelRow(part.getId(), name, qrData));
+        }
+        // Las piezas iguales quedan juntas en la hoja
+        labels.sort(Comparator.comparing(LabelRow::partName, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(LabelRow::partId));
+        return labels;
+    }
+
+    /**
+     * Escribe las hojas de etiquetas. Cada hoja se manda al stream apenas se completa.
+     */
+    public void writeSheets(List<LabelRow> labels, LabelSheetFormat format, String baseName, OutputStream out) throws IOException {
+        try (SheetWriter sheet = format == LabelSheetFormat.PDF ? new PdfSheetWriter(out) : new PngSheetWriter(out, baseName)) {
+            int labelsPerPage = columns * rows;
+            float cellWidth = (PAGE_WIDTH - 2 * PAGE_MARGIN) / columns;
+            float cellHeight = (PAGE_HEIGHT - 2 * PAGE_MARGIN) / rows;
+            float qrSide = Math.min(cellWidth, cellHeight - CAPTION_HEIGHT) - 2 * CELL_PADDING;
+
+            for (int i = 0; i < labels.size(); i++) {
+                int slot = i % labelsPerPage;
+                if (slot == 0 && i > 0) {
+                    sheet.endPage();
+                }
+                LabelRow label = labels.get(i);
+
+                // Coordenadas desde la esquina superior izquierda de la hoja
+                float cellLeft = PAGE_MARGIN + (slot % columns) * cellWidth;
+                float cellTop = PAGE_MARGIN + (slot / columns) * cellHeight;
+                float qrLeft = cellLeft + (cellWidth - qrSide) / 2;
+                float qrTop = cellTop + CELL_PADDING;
+                float textWidth = cellWidth - 2 * CELL_PADDING;
+
+                sheet.drawQRCode(encode(label.qrData()), qrLeft, qrTop, qrSide);
+                float nameBaseline = qrTop + qrSide + NAME_FONT_SIZE + 2;
+                sheet.drawText(fit(label.partName(), textWidth, NAME_FONT_SIZE), cellLeft + CELL_PADDING, nameBaseline, NAME_FONT_SIZE, true);
+                sheet.drawText(fit("ID: " + label.partId(), textWidth, ID_FONT_SIZE), cellLeft + CELL_PADDING,
+                        nameBaseline + ID_FONT_SIZE + 3, ID_FONT_SIZE, false);
+            }
+        }
+    }
+
+    // Matriz mínima (un pixel por módulo, con zona de silencio); cada formato la escala al tamaño de la etiqueta
+    private BitMatrix encode(String qrData) throws IOException {
+        try {
+            return qrCodeService.encodeQRCode(qrData, 0, 0);
+        } catch (WriterException e) {
+            throw new IOException("No se pudo codificar el QR: " + qrData, e);
+        }
+    }
+
+    private static String fit(String text, float width, float fontSize) {
+        int maxChars = (int) (width / (fontSize * AVERAGE_CHAR_WIDTH));
+        return text.length() <= maxChars ? text : text.substring(0, Math.max(0, maxChars - 3)) + "...";
+    }
+
+    // Destino de las hojas; las coordenadas son en puntos desde la esquina superior izquierda
+    private interface SheetWriter extends AutoCloseable {
+
+        void drawQRCode(BitMatrix matrix, float left, float top, float side) throws IOException;
+
+        void drawText(String text, float left, float baseline, float fontSize, boolean bold) throws IOException;
+
+        void endPage() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static final class PdfSheetWriter implements SheetWriter {
+
+        private final LabelSheetPdfWriter pdf;
+
+        private PdfSheetWriter(OutputStream out) throws IOException {
+            this.pdf = new LabelSheetPdfWriter(out, PAGE_WIDTH, PAGE_HEIGHT);
+        }
+
+        @Override
+        public void drawQRCode(BitMatrix matrix, float left, float top, float side) throws IOException {
+            pdf.drawQRCode(matrix, left, PAGE_HEIGHT - top - side, side); // En PDF el origen está abajo
+        }
+
+        @Override
+        public void drawText(String text, float left, float baseline, float fontSize, boolean bold) throws IOException {
+            pdf.drawText(text, left, PAGE_HEIGHT - baseline, fontSize, bold);
+        }
+
+        @Override
+        public void endPage() throws IOException {
+            pdf.endPage();
+        }
+
+        @Override
+        public void close() throws IOException {
+            pdf.close();
+        }
+    }
+
+    // Una entrada PNG por hoja dentro de un zip; solo la hoja actual está en memoria
+    private final class PngSheetWriter implements SheetWriter {
+
+        private final ZipOutputStream zip;
+        private final String baseName;
+        private final BufferedImage page;
+        private final Graphics2D graphics;
+        private int pageNumber;
+        private boolean pageHasContent;
+
+        private PngSheetWriter(OutputStream out, String baseName) {
+            this.zip = new ZipOutputStream(out);
+            this.baseName = baseName;
+            float scale = pngDpi / 72f;
+            this.page = new BufferedImage(Math.round(PAGE_WIDTH * scale), Math.round(PAGE_HEIGHT * scale), BufferedImage.TYPE_BYTE_GRAY);
+            this.graphics = page.createGraphics();
+            graphics.scale(scale, scale);
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            clearPage();
+        }
+
+        @Override
+        public void drawQRCode(BitMatrix matrix, float left, float top, float side) {
+            AffineTransform transform = AffineTransform.getTranslateInstance(left, top);
+            transform.scale(side / matrix.getWidth(), side / matrix.getHeight());
+            graphics.drawImage(MatrixToImageWriter.toBufferedImage(matrix), transform, null);
+            pageHasContent = true;
+        }
+
+        @Override
+        public void drawText(String text, float left, float baseline, float fontSize, boolean bold) {
+            graphics.setFont(new Font(Font.SANS_SERIF, bold ? Font.BOLD : Font.PLAIN, 1).deriveFont(fontSize));
+            graphics.setColor(Color.BLACK);
+            graphics.drawString(text, left, baseline);
+            pageHasContent = true;
+        }
+
+        @Override
+        public void endPage() throws IOException {
+            pageNumber++;
+            zip.putNextEntry(new ZipEntry(String.format(Locale.ROOT, "%s_hoja_%03d.png", baseName, pageNumber)));
+            ImageOutputStream image = new MemoryCacheImageOutputStream(zip); // Cerrarlo no cierra el zip
+            ImageIO.write(page, "png", image);
+            image.close();
+            zip.closeEntry();
+            zip.flush();
+            clearPage();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (pageHasContent || pageNumber == 0) {
+                endPage();
+            }
+            graphics.dispose();
+            zip.finish();
+        }
+
+        private void clearPage() {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, Math.round(PAGE_WIDTH) + 1, Math.round(PAGE_HEIGHT) + 1);
+            pageHasContent = false;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Formato compacto y versionado del contenido de los QR de piezas.
+ *
+ * <pre>
+ *   QS 1 P XXXXXXXXXXXXXXXXXXXXXXXXXX [C]
+ *   |  | |  UUID en base32 Crockford   dígito verificador opcional (mod 37)
+ *   |  | tipo de código (P = pieza, K = bulto embalado)
+ *   |  versión del formato
+ *   prefijo
+ * </pre>
+ *
+ * Todos los caracteres pertenecen al modo alfanumérico del QR, por lo que el código queda en una
+ * versión 2 (25x25 módulos) en lugar de la versión 9 (53x53) que genera el texto
+ * legado de diez líneas. El decodificador también acepta ese texto legado ("Part ID: uuid...")
+ * y ninguno de los dos caminos arma arrays intermedios.
+ */
+public final class QRPayloadCodec {
+
+    public static final String PREFIX = "QS";
+    public static final char VERSION = '1';
+    public static final char TYPE_PART = 'P';
+    public static final char TYPE_PACKAGE = 'K';
+
+    static final String LEGACY_PART_ID_LABEL = "Part ID:";
+
+    private static final int HEADER_LENGTH = 4; // "QS1" + tipo
+    private static final int UUID_DIGITS = 26; // 128 bits en grupos de 5
+    private static final int UUID_TEXT_LENGTH = 36;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final char[] CHECK_ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ*".toCharArray();
+    private static final int[] DIGIT_VALUES = new int[128];
+
+    static {
+        Arrays.fill(DIGIT_VALUES, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DIGIT_VALUES[ALPHABET[i]] = i;
+            DIGIT_VALUES[Character.toLowerCase(ALPHABET[i])] = i;
+        }
+        // Alias de Crockford para errores de lectura o tipeo
+        DIGIT_VALUES['O'] = DIGIT_VALUES['o'] = 0;
+        DIGIT_VALUES['I'] = DIGIT_VALUES['i'] = 1;
+        DIGIT_VALUES['L'] = DIGIT_VALUES['l'] = 1;
+    }
+
+    private QRPayloadCodec() {
+    }
+
+    /**
+     * Codifica el ID de una pieza en el formato compacto.
+     */
+    public static String encodePart(UUID partId, boolean withChecksum) {
+        return encode(TYPE_PART, partId, withChecksum);
+    }
+
+    /**
+     * Codifica el ID de un bulto (PartPackage) en el formato compacto.
+     */
+    public static String encodePackage(UUID packageId, boolean withChecksum) {
+        return encode(TYPE_PACKAGE, packageId, withChecksum);
+    }
+
+    /**
+     * Extrae el ID de un QR de bulto. Los bultos no tienen formato legado.
+     */
+    public static Optional<UUID> decodePackageId(String payload) {
+        if (payload == null) {
+            return Optional.empty();
+        }
+        int start = skipWhitespace(payload, 0);
+        return isCompact(payload, start, TYPE_PACKAGE) ? decodeCompactUuid(payload, start + HEADER_LENGTH) : Optional.empty();
+    }
+
+    private static String encode(char type, UUID id, boolean withChecksum) {
+        StringBuilder payload = new StringBuilder(HEADER_LENGTH + UUID_DIGITS + 1)
+                .append(PREFIX).append(VERSION).append(type);
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int check = 0;
+        for (int shift = 5 * (UUID_DIGITS - 1); shift >= 0; shift -= 5) {
+            int digit = fiveBits(msb, lsb, shift);
+            payload.append(ALPHABET[digit]);
+            check = (check * 32 + digit) % 37;
+        }
+        if (withChecksum) {
+            payload.append(CHECK_ALPHABET[check]);
+        }
+        return payload.toString();
+    }
+
+    /**
+     * Extrae el ID de pieza de un QR compacto o del texto legado. Devuelve vacío si el contenido
+     * no es un código de pieza válido o si el dígito verificador no coincide.
+     */
+    public static Optional<UUID> decodePartId(String payload) {
+        if (payload == null) {
+            return Optional.empty();
+        }
+        int start = skipWhitespace(payload, 0);
+        if (isCompact(payload, start, TYPE_PART)) {
+            return decodeCompactUuid(payload, start + HEADER_LENGTH);
+        }
+        int label = payload.indexOf(LEGACY_PART_ID_LABEL, start);
+        if (label < 0) {
+            return Optional.empty();
+        }
+        return parseUuid(payload, skipWhitespace(payload, label + LEGACY_PART_ID_LABEL.length()));
+    }
+
+    /**
+     * Indica si el contenido usa el formato compacto (de cualquier tipo).
+     */
+    public static boolean isCompact(String payload) {
+        int start = skipWhitespace(payload, 0);
+        return payload.length() > start + HEADER_LENGTH - 1 && payload.startsWith(PREFIX, start)
+                && payload.charAt(start + 2) == VERSION;
+    }
+
+    private static boolean isCompact(String payload, int start, char type) {
+        return isCompact(payload) && payload.charAt(start + 3) == type;
+    }
+
+    private static Optional<UUID> decodeCompactUuid(String payload, int from) {
+        int end = trimmedEnd(payload);
+        int length = end - from;
+        if (length != UUID_DIGITS && length != UUID_DIGITS + 1) {
+            return Optional.empty();
+        }
+        long msb = 0;
+        long lsb = 0;
+        int check = 0;
+        for (int i = 0; i < UUID_DIGITS; i++) {
+            int digit = digitValue(payload.charAt(from + i));
+            if (digit < 0 || (i == 0 && digit > 7)) {
+                return Optional.empty(); // El primer dígito solo lleva 3 bits
+            }
+            msb = (msb << 5) | (lsb >>> 59);
+            lsb = (lsb << 5) | digit;
+            check = (check * 32 + digit) % 37;
+        }
+        if (length == UUID_DIGITS + 1 && Character.toUpperCase(payload.charAt(end - 1)) != CHECK_ALPHABET[check]) {
+            return Optional.empty();
+        }
+        return Optional.of(new UUID(msb, lsb));
+    }
+
+    // Parsea un UUID canónico (8-4-4-4-12) directamente desde el texto, sin substring
+    private static Optional<UUID> parseUuid(String text, int from) {
+        if (text.length() - from < UUID_TEXT_LENGTH) {
+            return Optional.empty();
+        }
+        long msb = 0;
+        long lsb = 0;
+        int nibbles = 0;
+        for (int i = from; i < from + UUID_TEXT_LENGTH; i++) {
+            char c = text.charAt(i);
+            int offset = i - from;
+            if (offset == 8 || offset == 13 || offset == 18 || offset == 23) {
+                if (c != '-') {
+                    return Optional.empty();
+                }
+                continue;
+            }
+            int value = Character.digit(c, 16);
+            if (value < 0) {
+                return Optional.empty();
+            }
+            if (nibbles < 16) {
+                msb = (msb << 4) | value;
+            } else {
+                lsb = (lsb << 4) | value;
+            }
+            nibbles++;
+        }
+        return Optional.of(new UUID(msb, lsb));
+    }
+
+    // Grupo de 5 bits del número de 128 bits (msb:lsb) que empieza en el bit "shift"
+    private static int fiveBits(long msb, long lsb, int shift) {
+        long bits;
+        if (shift >= 64) {
+            bits = msb >>> (shift - 64);
+        } else if (shift == 0) {
+            bits = lsb;
+        } else {
+            bits = (lsb >>> shift) | (msb << (64 - shift));
+        }
+        return (int) (bits & 31);
+    }
+
+    private static int digitValue(char c) {
+        return c < DIGIT_VALUES.length ? DIGIT_VALUES[c] : -1;
+    }
+
+    private static int skipWhitespace(String text, int from) {
+        int i = from;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int trimmedEnd(String text) {
+        int end = text.length();
+        while (end > 0 && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,228 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.multi.qrcode.QRCodeMultiReader;
+
+/**
+ * Lee todos los QR de una foto (un pallet, un estante). Cada combinación de escala y rotación es un
+ * intento independiente que corre en el pool qrDecodeExecutor; los contenidos encontrados se unen
+ * sin repetidos.
+ *
+ * La foto se lee ya reducida a workingPixels como máximo (submuestreo del lector, sin cargarla entera) y
+ * solo maxConcurrent fotos se decodifican a la vez: la memoria de la decodificación queda acotada.
+ */
+@Service
+public class QRPhotoDecoderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QRPhotoDecoderService.class);
+
+    // Por debajo de este lado (en pixeles) una reducción ya no deja módulos legibles
+    private static final int MIN_SCALED_SIDE = 400;
+
+    private static final Map<DecodeHintType, Object> HINTS = new EnumMap<>(DecodeHintType.class);
+
+    static {
+        HINTS.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+        HINTS.put(DecodeHintType.POSSIBLE_FORMATS, List.of(BarcodeFormat.QR_CODE));
+    }
+
+    private final ThreadPoolTaskExecutor qrDecodeExecutor;
+
+    // Las fotos de celular vienen grandes: reducirlas ayuda al detector con QR grandes y la escala 1
+    // conserva los QR chicos. La rotación de 45° recupera códigos que en la foto quedaron muy inclinados.
+    @Value("${qrcode.photo-decode.scales:1.0,0.5,0.25}")
+    private double[] scales;
+
+    @Value("${qrcode.photo-decode.rotations:0,45}")
+    private int[] rotations;
+
+    @Value("${qrcode.photo-decode.timeout-ms:10000}")
+    private long timeoutMs;
+
+    // Límite de tamaño de la foto, se controla antes de decodificarla para no llenar la memoria
+    @Value("${qrcode.photo-decode.max-pixels:40000000}")
+    private long maxPixels;
+
+    // Tamaño con el que se trabaja: una foto más grande se lee submuestreada hasta quedar por debajo
+    @Value("${qrcode.photo-decode.working-pixels:12000000}")
+    private long workingPixels;
+
+    private final Semaphore permits;
+
+    public QRPhotoDecoderService(@Qualifier("qrDecodeExecutor") ThreadPoolTaskExecutor qrDecodeExecutor,
+            @Value("${qrcode.photo-decode.max-concurrent:2}") int maxConcurrent) {
+        this.qrDecodeExecutor = qrDecodeExecutor;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Contenidos de los QR encontrados en la foto, en el orden en que se detectaron. Si ya hay maxConcurrent
+     * fotos en proceso espera hasta timeoutMs y después lanza RejectedExecutionException.
+     */
+    public List<String> decodeAll(InputStream photo) throws IOException {
+        try {
+            if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Hay demasiadas fotos en proceso, reintentar en unos segundos.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Decodificación interrumpida", e);
+        }
+        try {
+            return decode(readImage(photo));
+        } finally {
+            permits.release();
+        }
+    }
+
+    private List<String> decode(BufferedImage image) throws IOException {
+        int shortestSide = Math.min(image.getWidth(), image.getHeight());
+
+        List<Callable<List<String>>> attempts = new ArrayList<>();
+        for (double scale : scales) {
+            if (scale != 1.0 && shortestSide * scale < MIN_SCALED_SIDE) {
+                continue;
+            }
+            for (int rotation : rotations) {
+                attempts.add(() -> decodeAttempt(image, scale, rotation));
+            }
+        }
+
+        List<Future<List<String>>> results;
+        try {
+            results = qrDecodeExecutor.getThreadPoolExecutor().invokeAll(attempts, timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Decodificación interrumpida", e);
+        }
+
+        Set<String> payloads = new LinkedHashSet<>();
+        for (Future<List<String>> result : results) {
+            try {
+                payloads.addAll(result.get());
+            } catch (CancellationException e) {
+                // Se agotó el tiempo para este intento; se usa lo que encontraron los demás
+            } catch (ExecutionException e) {
+                logger.warn("Falló un intento de decodificación de QR", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return new ArrayList<>(payloads);
+    }
+
+    private BufferedImage readImage(InputStream photo) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(photo)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("El archivo no es una imagen soportada.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IllegalArgumentException("La imagen es demasiado grande (" + pixels + " pixeles).");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = subsamplingStep(pixels, workingPixels);
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Se toma un pixel cada step en cada eje: el resultado queda en pixels / step² <= workingPixels
+    static int subsamplingStep(long pixels, long workingPixels) {
+        if (pixels <= workingPixels) {
+            return 1;
+        }
+        return (int) Math.ceil(Math.sqrt((double) pixels / workingPixels));
+    }
+
+    private List<String> decodeAttempt(BufferedImage source, double scale, int rotation) {
+        BufferedImage image = transform(source, scale, rotation);
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+        try {
+            Result[] found = new QRCodeMultiReader().decodeMultiple(bitmap, HINTS);
+            List<String> payloads = new ArrayList<>(found.length);
+            for (Result result : found) {
+                payloads.add(result.getText());
+            }
+            return payloads;
+        } catch (NotFoundException e) {
+            return List.of();
+        }
+    }
+
+    // Escala y rota en una imagen en escala de grises (lo único que usa el lector)
+    private static BufferedImage transform(BufferedImage source, double scale, int rotation) {
+        double radians = Math.toRadians(rotation);
+        double sin = Math.abs(Math.sin(radians));
+        double cos = Math.abs(Math.cos(radians));
+        int width = (int) Math.ceil((source.getWidth() * cos + source.getHeight() * sin) * scale);
+        int height = (int) Math.ceil((source.getWidth() * sin + source.getHeight() * cos) * scale);
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            AffineTransform transform = new AffineTransform();
+            transform.translate(width / 2.0, height / 2.0);
+            transform.rotate(radians);
+            transform.scale(scale, scale);
+            transform.translate(-source.getWidth() / 2.0, -source.getHeight() / 2.0);
+            graphics.drawImage(source, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,96 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.QS.AppQuickSolutions.dto.DeliveryScanResultDTO;
+import com.QS.AppQuickSolutions.dto.ReceptionScanResultDTO;
+import com.QS.AppQuickSolutions.enums.DeliveryScanStatus;
+import com.QS.AppQuickSolutions.enums.ReceptionScanStatus;
+import com.QS.AppQuickSolutions.enums.ScanType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Escaneo de un QR a la vez (lector de mano). El lector suele disparar la misma lectura tres o cuatro
+ * veces en un segundo: dentro de la ventana qrcode.scan.dedupe-window-ms las lecturas repetidas de la
+ * misma pieza y el mismo tipo de escaneo devuelven el resultado de la primera sin llegar a la base.
+ * Si la primera todavía se está procesando, las repetidas esperan ese mismo resultado.
+ */
+@Service
+public class QRScanService {
+
+    // Lecturas recordadas como máximo; con una ventana de segundos alcanza de sobra para los lectores en uso
+    private static final int MAX_RECENT_SCANS = 1000;
+
+    @Autowired
+    private QRCodeService qrCodeService;
+
+    private final Cache<ScanKey, CompletableFuture<Object>> recentScans;
+
+    public QRScanService(@Value("${qrcode.scan.dedupe-window-ms:2000}") long dedupeWindowMs) {
+        this.recentScans = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(dedupeWindowMs))
+                .maximumSize(MAX_RECENT_SCANS)
+                .build();
+    }
+
+    /**
+     * Recepción en fábrica de una pieza, con la semántica de la recepción por lotes.
+     */
+    public ReceptionScanResultDTO scanReception(String qrData) {
+        UUID partId = QRPayloadCodec.decodePartId(qrData).orElse(null);
+        if (partId == null) {
+            return new ReceptionScanResultDTO(qrData, null, ReceptionScanStatus.QR_INVALIDO);
+        }
+        return debounce(partId, ScanType.RECEPCION, () -> qrCodeService.scanQRCodes(List.of(qrData)).get(0));
+    }
+
+    /**
+     * Carga al camión de una pieza, con la semántica del escaneo de carga por lotes.
+     */
+    public DeliveryScanResultDTO scanDelivery(String qrData) {
+        UUID partId = QRPayloadCodec.decodePartId(qrData).orElse(null);
+        if (partId == null) {
+            return new DeliveryScanResultDTO(qrData, null, DeliveryScanStatus.QR_INVALIDO);
+        }
+        return debounce(partId, ScanType.CARGA, () -> qrCodeService.scanDeliveryQRCodes(List.of(qrData)).getResults().get(0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T debounce(UUID partId, ScanType type, Supplier<T> scan) {
+        ScanKey key = new ScanKey(partId, type);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> current = recentScans.asMap().putIfAbsent(key, mine);
+
+        if (current != null) {
+            try {
+                return (T) current.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            T result = scan.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            // Un error no se recuerda: la próxima lectura vuelve a intentar
+            recentScans.asMap().remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private record ScanKey(UUID partId, ScanType type) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import com.QS.AppQuickSolutions.services.storage.BlobStore;
+import com.QS.AppQuickSolutions.services.storage.BlobStore.StoredBlob;
+
+/**
+ * Capa común para servir imágenes (QR y fotos de CustomPart).
+ *
+ * Las respuestas llevan ETag fuerte, Last-Modified y Cache-Control. Spring MVC compara esos headers
+ * con If-None-Match / If-Modified-Since y contesta 304 sin leer el archivo. Como el cuerpo es un
+ * Resource, también atiende pedidos con Range (Accept-Ranges: bytes).
+ */
+@Service
+public class StaticAssetService {
+
+    // Nombres que cambian si cambia el contenido: "<uuid>_<nombre>" (subidas anteriores) o el hash
+    // SHA-256 del contenido (BlobStore.putDeduplicated), con o sin sufijo de versión reducida
+    private static final Pattern IMMUTABLE_NAME = Pattern.compile(
+            "^([0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}_.+|[0-9a-f]{64}(\\.\\w+)*)$");
+
+    // Extensiones que se sirven siempre, resueltas al cargar la clase. La extensión viene del nombre que pide
+    // el cliente, así que las demás se resuelven en cada pedido y no se guardan
+    private static final Map<String, MediaType> KNOWN_MEDIA_TYPES = Stream.of("png", "jpg", "jpeg", "gif", "webp", "svg")
+            .collect(Collectors.toUnmodifiableMap(ext -> ext, StaticAssetService::lookupMediaType));
+
+    /**
+     * Cache de un año sin revalidar, para archivos cuyo nombre cambia si cambia el contenido.
+     */
+    public CacheControl immutable() {
+        return CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+    }
+
+    /**
+     * Cache corta; pasado ese tiempo el cliente revalida con el ETag y recibe 304 si no cambió.
+     */
+    public CacheControl revalidateAfter(long maxAgeSeconds) {
+        return maxAgeSeconds > 0
+                ? CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePrivate()
+                : CacheControl.noCache().cachePrivate();
+    }
+
+    public boolean hasImmutableName(String fileName) {
+        return IMMUTABLE_NAME.matcher(fileName).matches();
+    }
+
+    /**
+     * Sirve un archivo de un BlobStore. El ETag sale del tamaño y la fecha de modificación, así que
+     * un 304 cuesta un solo stat y no se abre el archivo. Claves inválidas o inexistentes dan 404.
+     */
+    public ResponseEntity<Resource> serveBlob(BlobStore store, String key, CacheControl cacheControl) throws IOException {
+        Optional<StoredBlob> blob;
+        try {
+            blob = store.find(key);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+        if (blob.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+
+        StoredBlob stored = blob.get();
+        String etag = "\"" + Long.toHexString(stored.size()) + "-" + Long.toHexString(stored.lastModifiedMillis()) + "\"";
+        return ResponseEntity.ok()
+                .contentType(mediaTypeFor(key))
+                .eTag(etag)
+                .lastModified(stored.lastModifiedMillis())
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.CONTENT_DISPOSITION, inline(key))
+                .body(stored.resource());
+    }
+
+    /**
+     * Sirve contenido que está en memoria; el ETag es el hash del contenido.
+     */
+    public ResponseEntity<Resource> serveBytes(byte[] content, String fileName, CacheControl cacheControl) {
+        return ResponseEntity.ok()
+                .contentType(mediaTypeFor(fileName))
+                .eTag("\"" + DigestUtils.md5DigestAsHex(content) + "\"")
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.CONTENT_DISPOSITION, inline(fileName))
+                .body(new ByteArrayResource(content));
+    }
+
+    /**
+     * Tipo de contenido según la extensión.
+     */
+    public MediaType mediaTypeFor(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot < 0 ? "" : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        MediaType known = KNOWN_MEDIA_TYPES.get(extension);
+        return known != null ? known : lookupMediaType(extension);
+    }
+
+    private static MediaType lookupMediaType(String extension) {
+        return MediaTypeFactory.getMediaType("file." + extension).orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    private static String inline(String fileName) {
+        return ContentDisposition.inline().filename(fileName).build().toString();
+    }
+}
@@ -0,0 +1,30 @@
+package com.QS.AppQuickSolutions.services;
+
+import java.util.Locale;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.QS.AppQuickSolutions.entity.PartStatusTracking;
+
+// Otro pedido ganó la pieza o la tarea: ya está tomada, el operario ya tiene una activa o ya se completó
+@ResponseStatus(HttpStatus.CONFLICT)
+public class TaskConflictException extends RuntimeException {
+    public TaskConflictException(String message) {
+        super(message);
+    }
+
+    // Traduce el rechazo de uno de los índices únicos de tareas activas de PartStatusTracking; null si la
+    // violación es de otra restricción
+    public static TaskConflictException fromActiveTrackingViolation(DataIntegrityViolationException e) {
+        String detail = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (detail.contains(PartStatusTracking.ACTIVE_OPERATOR_CONSTRAINT)) {
+            return new TaskConflictException("El usuario ya tiene una pieza activa.");
+        }
+        if (detail.contains(PartStatusTracking.ACTIVE_PART_CONSTRAINT)) {
+            return new TaskConflictException("La pieza ya está tomada por otro usuario.");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.QS.AppQuickSolutions.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// La imagen subida supera upload.image.max-bytes; el controlador no la atrapa y sale como 413
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class UploadTooLargeException extends RuntimeException {
+    public UploadTooLargeException(String message) {
+        super(message);
+    }
+}
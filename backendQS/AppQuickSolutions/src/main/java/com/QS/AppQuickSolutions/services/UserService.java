@@ -4,9 +4,11 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.QS.AppQuickSolutions.config.CacheConfig;
 import com.QS.AppQuickSolutions.dto.UserDto;
 import com.QS.AppQuickSolutions.dto.UserUpdateDto;
 import com.QS.AppQuickSolutions.entity.User;
@@ -24,6 +26,8 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    // Los cambios de usuarios vacían la cache de CustomUserDetailsService (usuarios del token JWT)
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS, allEntries = true)
     public User registerUser(UserDto userDto) {
 
         System.out.println("Datos recibidos en registerUser: " + userDto); // Log de los datos recibidos
@@ -54,6 +58,7 @@ public class UserService {
         return savedUser;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS, allEntries = true)
     public User updateUser(Long id, UserUpdateDto userUpdateDto) {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -68,6 +73,7 @@ public class UserService {
     }
 
     // Cambiar el estado del usuario (alta/baja)
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS, allEntries = true)
     public void changeUserStatus(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -93,6 +99,7 @@ public class UserService {
         return userRepository.findByEmail(email);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS, allEntries = true)
     public void deleteUser(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
@@ -0,0 +1,80 @@
+package com.QS.AppQuickSolutions.services.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * Almacenamiento de archivos binarios (imágenes QR, fotos de CustomPart) identificados por una clave.
+ * Los servicios solo conocen la clave; dónde y cómo se guarda el archivo depende de la implementación.
+ */
+public interface BlobStore {
+
+    /**
+     * Guarda el contenido bajo la clave indicada, reemplazando el anterior. La escritura es atómica:
+     * quien lee ve el archivo viejo o el nuevo completo, nunca uno a medio escribir.
+     */
+    void put(String key, InputStream content) throws IOException;
+
+    /**
+     * Guarda el contenido con una clave derivada de su hash ({@code <sha256>.<extension>}). Si ya existe
+     * un archivo con el mismo contenido no se escribe de nuevo: se devuelve la misma clave y se renueva su
+     * fecha de modificación, así la limpieza de huérfanos no lo toma antes de que se guarde la referencia.
+     */
+    String putDeduplicated(InputStream content, String extension) throws IOException;
+
+    /**
+     * Metadatos y contenido de un archivo, si existe.
+     */
+    Optional<StoredBlob> find(String key) throws IOException;
+
+    boolean exists(String key);
+
+    /**
+     * Elimina el archivo. Devuelve false si no existía.
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Recorre los archivos de a tandas en un orden estable. Se empieza con cursor null y se sigue con
+     * el nextCursor de cada página hasta que sea null. Los archivos en cuarentena no se incluyen.
+     */
+    BlobPage list(String cursor, int limit) throws IOException;
+
+    /**
+     * Saca un archivo de circulación sin borrarlo: find/exists ya no lo ven, pero se puede devolver con
+     * {@link #restore(String)} hasta que se purgue. Devuelve false si no existía.
+     */
+    boolean quarantine(String key) throws IOException;
+
+    /**
+     * Archivos en cuarentena; lastModifiedMillis es el momento en que entraron.
+     */
+    List<BlobInfo> listQuarantined() throws IOException;
+
+    /**
+     * Devuelve a circulación un archivo en cuarentena. Si mientras tanto se volvió a guardar la clave,
+     * se queda la versión nueva y se descarta la de cuarentena.
+     */
+    boolean restore(String key) throws IOException;
+
+    /**
+     * Borra definitivamente un archivo en cuarentena. Devuelve los bytes liberados (0 si no estaba).
+     */
+    long purgeQuarantined(String key) throws IOException;
+
+    /**
+     * Archivo guardado: tamaño y fecha de modificación (para ETag / Last-Modified) y el recurso para leerlo.
+     */
+    record StoredBlob(String key, long size, long lastModifiedMillis, Resource resource) {
+    }
+
+    record BlobInfo(String key, long size, long lastModifiedMillis) {
+    }
+
+    record BlobPage(List<BlobInfo> blobs, String nextCursor) {
+    }
+}
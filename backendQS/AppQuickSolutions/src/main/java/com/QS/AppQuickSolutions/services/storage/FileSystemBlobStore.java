@@ -0,0 +1,345 @@
+package com.QS.AppQuickSolutions.services.storage;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * BlobStore sobre el sistema de archivos, repartido en subdirectorios según el hash de la clave:
+ * {@code root/ab/cd/<clave>} con "abcd" los primeros caracteres del SHA-256 de la clave. Con 65536
+ * directorios posibles ningún directorio llega a tener miles de archivos.
+ *
+ * Las escrituras van primero a {@code root/.tmp} y después se renombran al destino. Los archivos que
+ * quedaron en la estructura plana anterior ({@code root/<clave>}) se siguen leyendo hasta que se migren
+ * con {@link #migrateFlatLayout()}.
+ *
+ * La cuarentena es {@code root/.quarantine/<clave>}: el archivo sale de la estructura pero sigue en
+ * el mismo disco, así que entrar y salir de ella es un rename.
+ */
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final String TEMP_DIRECTORY = ".tmp";
+    private static final String QUARANTINE_DIRECTORY = ".quarantine";
+    private static final Pattern SHARD_NAME = Pattern.compile("[0-9a-f]{2}");
+
+    // Buffer de copia en el heap, uno por escritura: vive lo que dura la copia y no queda memoria retenida
+    // por cada hilo del servidor
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    // En el cursor de list(): "<ab/cd>|<última clave>"; los archivos planos de la raíz van primero con shard ""
+    private static final char CURSOR_SEPARATOR = '|';
+
+    private final Path root;
+    private final Path tempDirectory;
+    private final Path quarantineDirectory;
+
+    public FileSystemBlobStore(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        this.tempDirectory = this.root.resolve(TEMP_DIRECTORY);
+        this.quarantineDirectory = this.root.resolve(QUARANTINE_DIRECTORY);
+    }
+
+    @Override
+    public void put(String key, InputStream content) throws IOException {
+        Path target = shardedPath(key);
+        Path temp = writeTemp(content, null);
+        moveIntoPlace(temp, target);
+        Files.deleteIfExists(root.resolve(key)); // Copia vieja en la estructura plana
+    }
+
+    @Override
+    public String putDeduplicated(InputStream content, String extension) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = writeTemp(content, digest);
+
+        String key = HexFormat.of().formatHex(digest.digest())
+                + (extension == null || extension.isEmpty() ? "" : "." + extension);
+        Path target = shardedPath(key);
+        if (Files.exists(target)) {
+            // Mismo contenido ya guardado. Se renueva la fecha: quien lo vuelve a subir todavía no guardó su
+            // referencia, y la limpieza no toca archivos recientes
+            try {
+                Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+                Files.deleteIfExists(temp);
+                return key;
+            } catch (NoSuchFileException e) {
+                // Pasó a cuarentena recién: se guarda la copia nueva
+            }
+        }
+        moveIntoPlace(temp, target);
+        return key;
+    }
+
+    @Override
+    public Optional<StoredBlob> find(String key) throws IOException {
+        Path file = resolveExisting(key);
+        if (file == null) {
+            return Optional.empty();
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return Optional.of(new StoredBlob(key, attributes.size(), attributes.lastModifiedTime().toMillis(),
+                    new FileSystemResource(file)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty(); // Se borró entre la búsqueda y la lectura
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return resolveExisting(key) != null;
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        boolean sharded = Files.deleteIfExists(shardedPath(key));
+        boolean flat = Files.deleteIfExists(root.resolve(key));
+        return sharded || flat;
+    }
+
+    @Override
+    public BlobPage list(String cursor, int limit) throws IOException {
+        String startShard = "";
+        String afterKey = null;
+        if (cursor != null) {
+            int separator = cursor.indexOf(CURSOR_SEPARATOR);
+            startShard = cursor.substring(0, separator);
+            afterKey = cursor.substring(separator + 1);
+        }
+
+        List<BlobInfo> page = new ArrayList<>(limit);
+        if (startShard.isEmpty() && listShard("", root, afterKey, limit, page)) {
+            return new BlobPage(page, "" + CURSOR_SEPARATOR + page.get(page.size() - 1).key());
+        }
+        // Solo se abren los subdirectorios desde el shard del cursor en adelante
+        String startFirst = startShard.isEmpty() ? "" : startShard.substring(0, 2);
+        for (String first : sortedShardNames(root)) {
+            if (first.compareTo(startFirst) < 0) {
+                continue;
+            }
+            for (String second : sortedShardNames(root.resolve(first))) {
+                String shard = first + "/" + second;
+                if (shard.compareTo(startShard) < 0) {
+                    continue;
+                }
+                String after = shard.equals(startShard) ? afterKey : null;
+                if (listShard(shard, root.resolve(first).resolve(second), after, limit, page)) {
+                    return new BlobPage(page, shard + CURSOR_SEPARATOR + page.get(page.size() - 1).key());
+                }
+            }
+        }
+        return new BlobPage(page, null);
+    }
+
+    @Override
+    public boolean quarantine(String key) throws IOException {
+        Path file = resolveExisting(key);
+        if (file == null) {
+            return false;
+        }
+        Path target = quarantineDirectory.resolve(key);
+        try {
+            moveIntoPlace(file, target);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+        return true;
+    }
+
+    @Override
+    public List<BlobInfo> listQuarantined() throws IOException {
+        List<BlobInfo> quarantined = new ArrayList<>();
+        if (Files.isDirectory(quarantineDirectory)) {
+            listShard("", quarantineDirectory, null, Integer.MAX_VALUE, quarantined);
+        }
+        return quarantined;
+    }
+
+    @Override
+    public boolean restore(String key) throws IOException {
+        Path quarantined = quarantinePath(key);
+        if (!Files.isRegularFile(quarantined)) {
+            return false;
+        }
+        if (exists(key)) {
+            Files.deleteIfExists(quarantined); // Se volvió a guardar mientras estaba en cuarentena
+        } else {
+            moveIntoPlace(quarantined, shardedPath(key));
+        }
+        return true;
+    }
+
+    @Override
+    public long purgeQuarantined(String key) throws IOException {
+        Path quarantined = quarantinePath(key);
+        try {
+            long size = Files.size(quarantined);
+            Files.delete(quarantined);
+            return size;
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Mueve los archivos que están directamente en la raíz (estructura plana anterior) a su
+     * subdirectorio. Las claves no cambian, así que las referencias guardadas en la base siguen valiendo.
+     * Devuelve la cantidad de archivos movidos.
+     */
+    public int migrateFlatLayout() throws IOException {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        int moved = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(root, Files::isRegularFile)) {
+            for (Path flatFile : entries) {
+                String key = flatFile.getFileName().toString();
+                if (!isValidKey(key)) {
+                    continue;
+                }
+                Path target = shardedPath(key);
+                if (Files.exists(target)) {
+                    Files.delete(flatFile); // Ya se reescribió en la estructura nueva
+                } else {
+                    moveIntoPlace(flatFile, target);
+                }
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    Path shardedPath(String key) {
+        if (!isValidKey(key)) {
+            throw new IllegalArgumentException("Clave de archivo inválida: " + key);
+        }
+        String hash = HexFormat.of().formatHex(sha256().digest(key.getBytes(StandardCharsets.UTF_8)));
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(key);
+    }
+
+    private Path quarantinePath(String key) {
+        if (!isValidKey(key)) {
+            throw new IllegalArgumentException("Clave de archivo inválida: " + key);
+        }
+        return quarantineDirectory.resolve(key);
+    }
+
+    // Agrega a la página los archivos del directorio posteriores a afterKey; true si la página se llenó
+    private static boolean listShard(String shard, Path directory, String afterKey, int limit, List<BlobInfo> page) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return false;
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, Files::isRegularFile)) {
+            for (Path file : entries) {
+                String key = file.getFileName().toString();
+                if (isValidKey(key) && (afterKey == null || key.compareTo(afterKey) > 0)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(null);
+        for (Path file : files) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                page.add(new BlobInfo(file.getFileName().toString(), attributes.size(), attributes.lastModifiedTime().toMillis()));
+            } catch (NoSuchFileException e) {
+                continue; // Se borró mientras se recorría
+            }
+            if (page.size() >= limit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> sortedShardNames(Path directory) throws IOException {
+        List<String> names = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return names;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (SHARD_NAME.matcher(name).matches()) {
+                    names.add(name);
+                }
+            }
+        }
+        names.sort(null);
+        return names;
+    }
+
+    private Path resolveExisting(String key) {
+        Path sharded = shardedPath(key);
+        if (Files.isRegularFile(sharded)) {
+            return sharded;
+        }
+        Path flat = root.resolve(key);
+        return Files.isRegularFile(flat) ? flat : null;
+    }
+
+    // Copia el contenido al archivo temporal; el hash (si se pide) se calcula sobre el mismo buffer, sin
+    // una segunda lectura. FileOutputStream escribe directo desde el array, sin buffers nativos intermedios
+    private Path writeTemp(InputStream content, MessageDigest digest) throws IOException {
+        Files.createDirectories(tempDirectory);
+        Path temp = Files.createTempFile(tempDirectory, "blob-", ".tmp");
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        try (OutputStream out = new FileOutputStream(temp.toFile())) {
+            int read;
+            while ((read = content.read(buffer)) >= 0) {
+                if (digest != null) {
+                    digest.update(buffer, 0, read);
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp); // También si se cortó por superar el tamaño máximo
+            throw e;
+        }
+        return temp;
+    }
+
+    private void moveIntoPlace(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Una clave es un nombre de archivo simple: sin separadores, sin ".." y sin punto inicial (reservado para .tmp)
+    private static boolean isValidKey(String key) {
+        return key != null && !key.isEmpty() && key.charAt(0) != '.'
+                && key.indexOf('/') < 0 && key.indexOf('\\') < 0 && key.indexOf('\0') < 0;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.QS.AppQuickSolutions.services.storage;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Al arrancar, mueve los archivos de la estructura plana anterior (qr-codes/, image-custom-part/)
+ * a los subdirectorios de cada BlobStore. Se activa con storage.migrate-flat-layout=true; se puede
+ * volver a correr sin problema porque solo toca los archivos que siguen en la raíz.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.migrate-flat-layout", havingValue = "true")
+public class FlatLayoutMigrationRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlatLayoutMigrationRunner.class);
+
+    private final Map<String, BlobStore> blobStores;
+
+    public FlatLayoutMigrationRunner(Map<String, BlobStore> blobStores) {
+        this.blobStores = blobStores;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        for (Map.Entry<String, BlobStore> entry : blobStores.entrySet()) {
+            if (entry.getValue() instanceof FileSystemBlobStore fileSystemStore) {
+                int moved = fileSystemStore.migrateFlatLayout();
+                logger.info("BlobStore {}: {} archivos migrados a la estructura por hash", entry.getKey(), moved);
+            }
+        }
+    }
+}
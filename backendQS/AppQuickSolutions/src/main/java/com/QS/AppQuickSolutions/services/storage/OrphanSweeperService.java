@@ -0,0 +1,250 @@
+package com.QS.AppQuickSolutions.services.storage;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.QS.AppQuickSolutions.dto.SweepReportDTO;
+import com.QS.AppQuickSolutions.repository.CustomPartRepository;
+import com.QS.AppQuickSolutions.repository.PartPackageRepository;
+import com.QS.AppQuickSolutions.repository.PartRepository;
+import com.QS.AppQuickSolutions.services.ImageDerivativeService;
+
+/**
+ * Limpieza periódica de los archivos que ya no usa nadie: QR de piezas y bultos borrados, fotos de
+ * CustomPart reemplazadas.
+ *
+ * Cada pasada recorre el BlobStore de a tandas (storage.sweeper.batch-size) con una pausa entre tandas
+ * para no competir con el tráfico normal, y por cada tanda resuelve qué claves siguen referenciadas con
+ * una consulta por tabla. Los huérfanos no se borran en el momento: pasan a cuarentena y se borran en
+ * una pasada posterior si siguen sin referencia después del período de gracia.
+ */
+@Service
+public class OrphanSweeperService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrphanSweeperService.class);
+
+    private static final String PART_QR_SUFFIX = "_part_qr.png";
+
+    @Value("${storage.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${storage.sweeper.batch-size:500}")
+    private int batchSize;
+
+    @Value("${storage.sweeper.pause-ms:200}")
+    private long pauseMs;
+
+    // Archivos más nuevos que esto no se tocan: pueden ser de una pieza que todavía no terminó de guardarse
+    @Value("${storage.sweeper.min-age-minutes:60}")
+    private long minAgeMinutes;
+
+    @Value("${storage.sweeper.grace-period-hours:168}")
+    private long gracePeriodHours;
+
+    private final Map<String, SweptStore> stores = new LinkedHashMap<>();
+    private final Map<String, SweepReportDTO> lastReports = new LinkedHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final PartRepository partRepository;
+    private final PartPackageRepository partPackageRepository;
+    private final CustomPartRepository customPartRepository;
+
+    public OrphanSweeperService(@Qualifier("qrBlobStore") BlobStore qrBlobStore,
+            @Qualifier("imageBlobStore") BlobStore imageBlobStore, PartRepository partRepository,
+            PartPackageRepository partPackageRepository, CustomPartRepository customPartRepository) {
+        this.partRepository = partRepository;
+        this.partPackageRepository = partPackageRepository;
+        this.customPartRepository = customPartRepository;
+        stores.put("qrBlobStore", new SweptStore(qrBlobStore, this::referencedQrKeys));
+        stores.put("imageBlobStore", new SweptStore(imageBlobStore, this::referencedImageKeys));
+    }
+
+    @Scheduled(cron = "${storage.sweeper.cron:0 30 3 * * *}")
+    public void scheduledSweep() {
+        if (enabled) {
+            sweepAll();
+        }
+    }
+
+    /**
+     * Corre una pasada sobre todos los BlobStore. Si ya hay una en curso no hace nada y devuelve vacío.
+     */
+    public List<SweepReportDTO> sweepAll() {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Ya hay una limpieza de archivos en curso");
+            return List.of();
+        }
+        try {
+            List<SweepReportDTO> reports = new ArrayList<>(stores.size());
+            for (Map.Entry<String, SweptStore> entry : stores.entrySet()) {
+                SweepReportDTO report = sweep(entry.getKey(), entry.getValue());
+                synchronized (lastReports) {
+                    lastReports.put(entry.getKey(), report);
+                }
+                reports.add(report);
+            }
+            return reports;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Resultado de la última pasada de cada BlobStore.
+     */
+    public List<SweepReportDTO> getLastReports() {
+        synchronized (lastReports) {
+            return new ArrayList<>(lastReports.values());
+        }
+    }
+
+    private SweepReportDTO sweep(String name, SweptStore swept) {
+        SweepReportDTO report = new SweepReportDTO();
+        report.setStore(name);
+        report.setStartedAt(LocalDateTime.now());
+        long start = System.nanoTime();
+        try {
+            purgeQuarantine(swept, report);
+            quarantineOrphans(swept, report);
+        } catch (IOException | RuntimeException e) {
+            report.setError(e.getMessage());
+            logger.error("Error en la limpieza de archivos de {}", name, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.setError("Interrumpida");
+        }
+        report.setDurationMillis((System.nanoTime() - start) / 1_000_000);
+        logger.info("Limpieza de {}: {} revisados, {} a cuarentena, {} restaurados, {} borrados, {} bytes liberados en {} ms",
+                name, report.getScanned(), report.getQuarantined(), report.getRestored(), report.getPurged(),
+                report.getBytesReclaimed(), report.getDurationMillis());
+        return report;
+    }
+
+    // Lo que está en cuarentena se vuelve a comprobar: si se volvió a referenciar se restaura,
+    // y si cumplió el período de gracia se borra
+    private void purgeQuarantine(SweptStore swept, SweepReportDTO report) throws IOException, InterruptedException {
+        long purgeBefore = System.currentTimeMillis() - Duration.ofHours(gracePeriodHours).toMillis();
+        List<BlobStore.BlobInfo> quarantined = swept.store().listQuarantined();
+        for (int from = 0; from < quarantined.size(); from += batchSize) {
+            List<BlobStore.BlobInfo> batch = quarantined.subList(from, Math.min(from + batchSize, quarantined.size()));
+            Set<String> referenced = swept.referencedKeys().apply(keysOf(batch));
+            for (BlobStore.BlobInfo blob : batch) {
+                if (referenced.contains(blob.key())) {
+                    if (swept.store().restore(blob.key())) {
+                        report.setRestored(report.getRestored() + 1);
+                    }
+                } else if (blob.lastModifiedMillis() < purgeBefore) {
+                    long bytes = swept.store().purgeQuarantined(blob.key());
+                    if (bytes > 0) {
+                        report.setPurged(report.getPurged() + 1);
+                        report.setBytesReclaimed(report.getBytesReclaimed() + bytes);
+                    }
+                }
+            }
+            pause();
+        }
+    }
+
+    private void quarantineOrphans(SweptStore swept, SweepReportDTO report) throws IOException, InterruptedException {
+        long newestCandidate = System.currentTimeMillis() - Duration.ofMinutes(minAgeMinutes).toMillis();
+        String cursor = null;
+        do {
+            BlobStore.BlobPage page = swept.store().list(cursor, batchSize);
+            report.setScanned(report.getScanned() + page.blobs().size());
+
+            List<BlobStore.BlobInfo> candidates = new ArrayList<>(page.blobs().size());
+            for (BlobStore.BlobInfo blob : page.blobs()) {
+                if (blob.lastModifiedMillis() < newestCandidate) {
+                    candidates.add(blob);
+                }
+            }
+            if (!candidates.isEmpty()) {
+                Set<String> referenced = swept.referencedKeys().apply(keysOf(candidates));
+                for (BlobStore.BlobInfo blob : candidates) {
+                    if (!referenced.contains(blob.key()) && swept.store().quarantine(blob.key())) {
+                        report.setQuarantined(report.getQuarantined() + 1);
+                    }
+                }
+            }
+            cursor = page.nextCursor();
+            pause();
+        } while (cursor != null);
+    }
+
+    // Un QR está en uso si alguna pieza o bulto lo tiene como archivo, o si es "<uuid>_part_qr.png"
+    // de una pieza que existe (piezas viejas que no guardaron el nombre del archivo)
+    private Set<String> referencedQrKeys(Collection<String> keys) {
+        Set<String> referenced = new HashSet<>(partRepository.findQrCodeFilePathsIn(keys));
+        referenced.addAll(partPackageRepository.findQrCodeFilePathsIn(keys));
+
+        Map<UUID, String> keyByPartId = new HashMap<>();
+        for (String key : keys) {
+            if (!referenced.contains(key) && key.endsWith(PART_QR_SUFFIX)) {
+                try {
+                    keyByPartId.put(UUID.fromString(key.substring(0, key.length() - PART_QR_SUFFIX.length())), key);
+                } catch (IllegalArgumentException e) {
+                    // No es un nombre generado a partir del ID
+                }
+            }
+        }
+        if (!keyByPartId.isEmpty()) {
+            for (UUID partId : partRepository.findExistingIdsIn(keyByPartId.keySet())) {
+                referenced.add(keyByPartId.get(partId));
+            }
+        }
+        return referenced;
+    }
+
+    // Una versión reducida (miniatura, mediana) está en uso si lo está su original
+    private Set<String> referencedImageKeys(Collection<String> keys) {
+        Map<String, String> originalByKey = new HashMap<>();
+        for (String key : keys) {
+            originalByKey.put(key, ImageDerivativeService.originalKeyOf(key).orElse(key));
+        }
+        Set<String> referencedOriginals = new HashSet<>(customPartRepository.findImageFilePathsIn(new HashSet<>(originalByKey.values())));
+        Set<String> referenced = new HashSet<>();
+        originalByKey.forEach((key, original) -> {
+            if (referencedOriginals.contains(original)) {
+                referenced.add(key);
+            }
+        });
+        return referenced;
+    }
+
+    private void pause() throws InterruptedException {
+        if (pauseMs > 0) {
+            Thread.sleep(pauseMs);
+        }
+    }
+
+    private static List<String> keysOf(List<BlobStore.BlobInfo> blobs) {
+        List<String> keys = new ArrayList<>(blobs.size());
+        for (BlobStore.BlobInfo blob : blobs) {
+            keys.add(blob.key());
+        }
+        return keys;
+    }
+
+    // Un BlobStore y cómo saber cuáles de sus claves siguen en uso
+    private record SweptStore(BlobStore store, Function<Collection<String>, Set<String>> referencedKeys) {
+    }
+}
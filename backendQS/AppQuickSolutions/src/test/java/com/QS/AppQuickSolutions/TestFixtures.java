@@ -0,0 +1,50 @@
+package com.QS.AppQuickSolutions;
+
+import com.QS.AppQuickSolutions.entity.CustomPart;
+import com.QS.AppQuickSolutions.entity.Part;
+import com.QS.AppQuickSolutions.entity.Project;
+import com.QS.AppQuickSolutions.entity.User;
+import com.QS.AppQuickSolutions.enums.PartState;
+import com.QS.AppQuickSolutions.enums.Role;
+
+/**
+ * Entidades mínimas válidas para las pruebas, sin guardar: cada prueba las persiste con su repositorio o
+ * con TestEntityManager.
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    public static User operator(String name) {
+        User operator = new User();
+        operator.setUserName(name);
+        operator.setEmail(name + "@qs.com");
+        operator.setPassword("x");
+        operator.setUserStatus(true);
+        operator.setRole(Role.OPERATOR);
+        return operator;
+    }
+
+    // clientAlias tiene que tener entre 3 y 50 caracteres
+    public static Project project(String clientAlias) {
+        Project project = new Project();
+        project.setClientAlias(clientAlias);
+        project.setContact(1L);
+        return project;
+    }
+
+    public static CustomPart customPart(String name) {
+        CustomPart customPart = new CustomPart();
+        customPart.setCustomPartName(name);
+        return customPart;
+    }
+
+    public static Part part(Project project, CustomPart customPart, PartState state) {
+        Part part = new Part();
+        part.setProject(project);
+        part.setCustomPart(customPart);
+        part.setPartState(state);
+        return part;
+    }
+}
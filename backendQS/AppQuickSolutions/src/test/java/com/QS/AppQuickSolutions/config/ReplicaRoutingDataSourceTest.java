@@ -0,0 +1,126 @@
+package com.QS.AppQuickSolutions.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Ruteo entre dos bases locales (dos H2 en memoria, una como primario y otra como réplica), cada una con
+ * una fila que dice cuál es. Se arma con DataSourceConfig igual que en la aplicación.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+            .withUserConfiguration(DataSourceConfig.class)
+            .withPropertyValues(
+                    "spring.datasource.url=" + PRIMARY_URL,
+                    "spring.datasource.driver-class-name=org.h2.Driver",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=",
+                    "datasource.replica.enabled=true",
+                    "datasource.replica.url=" + REPLICA_URL,
+                    "datasource.replica.connection-timeout-ms=250",
+                    "datasource.replica.retry-after-ms=60000");
+
+    @BeforeEach
+    void createDatabases() throws SQLException {
+        createMarker(PRIMARY_URL, "primary");
+        createMarker(REPLICA_URL, "replica");
+    }
+
+    @AfterEach
+    void clearStaleReads() {
+        ReplicaRoutingDataSource.setStaleReadsAllowed(false);
+    }
+
+    @Test
+    void readOnlyTransactionsThatTolerateStaleDataGoToTheReplica() {
+        contextRunner.run(context -> {
+            DataSource dataSource = context.getBean(DataSource.class);
+            assertThat(dataSource).isInstanceOf(LazyConnectionDataSourceProxy.class);
+
+            ReplicaRoutingDataSource.setStaleReadsAllowed(true);
+            assertThat(readMarker(dataSource, true)).isEqualTo("replica");
+        });
+    }
+
+    @Test
+    void readsWithoutTheStaleFlagStayOnThePrimary() {
+        contextRunner.run(context -> {
+            DataSource dataSource = context.getBean(DataSource.class);
+            assertThat(readMarker(dataSource, true)).isEqualTo("primary");
+        });
+    }
+
+    @Test
+    void readWriteTransactionsStayOnThePrimary() {
+        contextRunner.run(context -> {
+            DataSource dataSource = context.getBean(DataSource.class);
+            ReplicaRoutingDataSource.setStaleReadsAllowed(true);
+            assertThat(readMarker(dataSource, false)).isEqualTo("primary");
+        });
+    }
+
+    @Test
+    void fallsBackToThePrimaryWhenTheReplicaIsDown() {
+        contextRunner
+                .withPropertyValues("datasource.replica.url=jdbc:h2:mem:routing-missing;IFEXISTS=TRUE")
+                .run(context -> {
+                    DataSource dataSource = context.getBean(DataSource.class);
+                    ReplicaRoutingDataSource.setStaleReadsAllowed(true);
+
+                    assertThat(readMarker(dataSource, true)).isEqualTo("primary");
+                    ReplicaRoutingDataSource routing = dataSource.unwrap(ReplicaRoutingDataSource.class);
+                    assertThat(routing.isReplicaAvailable()).isFalse();
+
+                    // Durante retry-after-ms no se vuelve a probar la réplica
+                    long start = System.nanoTime();
+                    assertThat(readMarker(dataSource, true)).isEqualTo("primary");
+                    assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(250);
+                });
+    }
+
+    @Test
+    void withoutAReplicaBootBuildsTheUsualPool() {
+        contextRunner.withPropertyValues("datasource.replica.enabled=false").run(context ->
+                assertThat(context.getBean(DataSource.class)).isInstanceOf(HikariDataSource.class));
+    }
+
+    private static String readMarker(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return transaction.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM db_marker", String.class));
+    }
+
+    private static void createMarker(String url, String name) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS db_marker (name VARCHAR(20))");
+            statement.execute("DELETE FROM db_marker");
+            statement.execute("INSERT INTO db_marker VALUES ('" + name + "')");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.QS.AppQuickSolutions.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * IDs de pieza al azar (versión 4) contra ordenados por tiempo (versión 7, TimeOrderedUuid), guardados como
+ * BINARY(16) igual que en MySQL: una tabla de piezas con ese ID como clave y una de seguimientos con índice
+ * por part_id. Imprime inserciones y búsquedas por segundo y el espacio en disco de cada tabla (tabla más
+ * índices). H2 en archivo también guarda árboles B, pero su almacenamiento reescribe las páginas en lugar de
+ * partirlas como InnoDB, así que el tamaño sirve de referencia y no se controla. Es @Tag("benchmark"): corre
+ * con -Pbenchmark. El orden y la unicidad de los IDs se prueban en TimeOrderedUuidTest.
+ */
+class PartIdBenchmarkTest {
+
+    private static final int PARTS = 50_000;
+    private static final int BATCH = 1_000;
+    private static final int LOOKUPS = 20_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @Tag("benchmark")
+    void comparesInsertAndLookupCostOfRandomAndTimeOrderedIds() throws SQLException {
+        // Calentamiento del JIT para que la primera medición no salga perjudicada
+        run("warmup-random", UUID::randomUUID, PARTS / 10);
+        run("warmup-v7", TimeOrderedUuid::next, PARTS / 10);
+
+        Result random = run("random", UUID::randomUUID, PARTS);
+        Result timeOrdered = run("v7", TimeOrderedUuid::next, PARTS);
+
+        for (Result result : List.of(random, timeOrdered)) {
+            System.out.printf("IDs %-6s: %8.0f inserciones/s, %8.0f búsquedas/s, piezas %6d KB, seguimientos %6d KB%n",
+                    result.name, result.insertsPerSecond, result.lookupsPerSecond,
+                    result.partBytes / 1024, result.trackingBytes / 1024);
+        }
+        assertEquals(random.rows, timeOrdered.rows);
+    }
+
+    private Result run(String name, Supplier<UUID> ids, int parts) throws SQLException {
+        String url = "jdbc:h2:file:" + directory.resolve(name).toAbsolutePath();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE part (id BINARY(16) PRIMARY KEY, part_state VARCHAR(40))");
+                statement.execute("CREATE TABLE part_status_tracking (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                        + "part_id BINARY(16) NOT NULL)");
+                statement.execute("CREATE INDEX idx_tracking_part ON part_status_tracking (part_id)");
+            }
+            connection.setAutoCommit(false);
+
+            List<UUID> inserted = new ArrayList<>(parts);
+            long start = System.nanoTime();
+            try (PreparedStatement part = connection.prepareStatement("INSERT INTO part (id, part_state) VALUES (?, ?)");
+                    PreparedStatement tracking = connection.prepareStatement(
+                            "INSERT INTO part_status_tracking (part_id) VALUES (?)")) {
+                for (int i = 0; i < parts; i++) {
+                    UUID id = ids.get();
+                    inserted.add(id);
+                    part.setBytes(1, toBytes(id));
+                    part.setString(2, "EN_PRODUCCION");
+                    part.addBatch();
+                    tracking.setBytes(1, toBytes(id));
+                    tracking.addBatch();
+                    if ((i + 1) % BATCH == 0) {
+                        part.executeBatch();
+                        tracking.executeBatch();
+                        connection.commit();
+                    }
+                }
+            }
+            double insertsPerSecond = parts / ((System.nanoTime() - start) / 1e9);
+
+            Random picker = new Random(42);
+            int found = 0;
+            start = System.nanoTime();
+            try (PreparedStatement lookup = connection.prepareStatement("SELECT part_state FROM part WHERE id = ?")) {
+                for (int i = 0; i < LOOKUPS; i++) {
+                    lookup.setBytes(1, toBytes(inserted.get(picker.nextInt(parts))));
+                    try (ResultSet rows = lookup.executeQuery()) {
+                        found += rows.next() ? 1 : 0;
+                    }
+                }
+            }
+            double lookupsPerSecond = LOOKUPS / ((System.nanoTime() - start) / 1e9);
+            assertEquals(LOOKUPS, found);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CHECKPOINT SYNC");
+            }
+            return new Result(name, parts, insertsPerSecond, lookupsPerSecond,
+                    diskSpace(connection, "PART"), diskSpace(connection, "PART_STATUS_TRACKING"));
+        }
+    }
+
+    private static long diskSpace(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery("SELECT DISK_SPACE_USED('" + table + "')")) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+
+    private record Result(String name, int rows, double insertsPerSecond, double lookupsPerSecond, long partBytes,
+            long trackingBytes) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.QS.AppQuickSolutions.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * IDs de pieza ordenados por tiempo (versión 7): crecientes en el orden de MySQL para BINARY(16) y sin
+ * repetidos, aunque se pidan muchos en el mismo milisegundo o el reloj retroceda.
+ */
+class TimeOrderedUuidTest {
+
+    @Test
+    void timeOrderedIdsAreMonotonicAndUnique() {
+        UUID previous = TimeOrderedUuid.next(1_000L);
+        Set<UUID> seen = new HashSet<>();
+        // Más IDs que lugares de secuencia en un milisegundo: tiene que seguir en el siguiente
+        for (int i = 0; i < 10_000; i++) {
+            UUID id = TimeOrderedUuid.next(1_000L);
+            assertEquals(7, id.version());
+            assertEquals(2, id.variant());
+            assertTrue(compareUnsigned(previous, id) < 0, previous + " >= " + id);
+            assertTrue(seen.add(id));
+            previous = id;
+        }
+        // Reloj que retrocede: no se repite ni se desordena
+        UUID afterClockSkew = TimeOrderedUuid.next(500L);
+        assertTrue(compareUnsigned(previous, afterClockSkew) < 0);
+
+        long now = System.currentTimeMillis();
+        long created = TimeOrderedUuid.timestampMillis(Part.newId());
+        assertTrue(Math.abs(created - now) < 1_000);
+    }
+
+    // Orden de MySQL para BINARY(16): byte a byte, sin signo
+    private static int compareUnsigned(UUID a, UUID b) {
+        int msb = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return msb != 0 ? msb : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
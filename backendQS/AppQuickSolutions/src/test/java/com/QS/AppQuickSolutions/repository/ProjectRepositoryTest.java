@@ -0,0 +1,78 @@
+package com.QS.AppQuickSolutions.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.QS.AppQuickSolutions.TestFixtures;
+import com.QS.AppQuickSolutions.dto.ProjectSummaryDTO;
+import com.QS.AppQuickSolutions.entity.Project;
+
+/**
+ * Búsqueda del listado paginado de proyectos: alias, contacto o ID, con los comodines tomados como texto.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class ProjectRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    private Project cocina;
+    private Project bano;
+    private Project descuento;
+
+    @BeforeEach
+    void setUp() {
+        cocina = project("Cocina Pérez", 1134567890L);
+        bano = project("Baño Gómez", 1198765432L);
+        descuento = project("Oferta 50%_off", 1100000000L);
+        entityManager.flush();
+    }
+
+    @Test
+    void searchMatchesAliasContactOrId() {
+        assertEquals(List.of(cocina.getId()), search("%cocina%"));
+        assertEquals(List.of(bano.getId()), search("%98765%"));
+        assertEquals(List.of(descuento.getId(), bano.getId(), cocina.getId()), search(null));
+        // Los contactos también tienen dígitos: solo se pide que el ID esté entre los resultados
+        assertTrue(search("%" + bano.getId() + "%").contains(bano.getId()));
+    }
+
+    @Test
+    void escapedWildcardsMatchLiterally() {
+        assertEquals(List.of(descuento.getId()), search("%50!%!_%"));
+        assertEquals(List.of(), search("%!_cocina%"));
+    }
+
+    @Test
+    void searchKeepsTheCursor() {
+        List<ProjectSummaryDTO> page = projectRepository.findSummaryPage(descuento.getId(), null, null, "%o%",
+                Limit.of(10));
+
+        assertEquals(List.of(bano.getId(), cocina.getId()), page.stream().map(ProjectSummaryDTO::getId).toList());
+    }
+
+    private List<Long> search(String pattern) {
+        return projectRepository.findSummaryPage(null, null, null, pattern, Limit.of(10)).stream()
+                .map(ProjectSummaryDTO::getId).toList();
+    }
+
+    private Project project(String clientAlias, Long contact) {
+        Project project = TestFixtures.project(clientAlias);
+        project.setContact(contact);
+        return entityManager.persist(project);
+    }
+}
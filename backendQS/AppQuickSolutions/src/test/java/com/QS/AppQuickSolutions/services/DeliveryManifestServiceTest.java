@@ -0,0 +1,173 @@
+package com.QS.AppQuickSolutions.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.QS.AppQuickSolutions.TestFixtures;
+import com.QS.AppQuickSolutions.dto.DeliveryManifestDTO;
+import com.QS.AppQuickSolutions.dto.DeliveryScanResultDTO;
+import com.QS.AppQuickSolutions.dto.PartPackageDTO;
+import com.QS.AppQuickSolutions.entity.CustomPart;
+import com.QS.AppQuickSolutions.entity.Part;
+import com.QS.AppQuickSolutions.entity.Project;
+import com.QS.AppQuickSolutions.enums.DeliveryScanStatus;
+import com.QS.AppQuickSolutions.enums.PartState;
+import com.QS.AppQuickSolutions.repository.PartRepository;
+import com.QS.AppQuickSolutions.services.QRGenerationService.QRRenderJob;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Bultos (validaciones y QR después del commit) y manifiesto de carga: escaneo de piezas y bultos en memoria,
+ * faltantes, y marcado al terminar.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({DeliveryManifestService.class, PartPackageService.class})
+class DeliveryManifestServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DeliveryManifestService deliveryManifestService;
+
+    @Autowired
+    private PartPackageService partPackageService;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @MockitoBean
+    private QRCodeService qrCodeService;
+
+    @MockitoBean
+    private QRGenerationService qrGenerationService;
+
+    private Project project;
+    private Part first;
+    private Part second;
+    private Part loose;
+    private Part alreadyLoaded;
+    private Part foreign;
+
+    @BeforeEach
+    void setUp() {
+        when(qrCodeService.packageQrFileNameFor(any())).thenAnswer(call -> "package_" + call.getArgument(0) + ".png");
+        when(qrCodeService.generateQrDataForPackage(any()))
+                .thenAnswer(call -> QRPayloadCodec.encodePackage(call.getArgument(0), true));
+
+        project = entityManager.persist(TestFixtures.project("cliente-bultos"));
+        Project other = entityManager.persist(TestFixtures.project("otro-cliente"));
+        CustomPart customPart = entityManager.persist(TestFixtures.customPart("lateral"));
+        first = entityManager.persist(TestFixtures.part(project, customPart, PartState.EMBALADO));
+        second = entityManager.persist(TestFixtures.part(project, customPart, PartState.EMBALADO));
+        loose = entityManager.persist(TestFixtures.part(project, customPart, PartState.EMBALADO));
+        alreadyLoaded = TestFixtures.part(project, customPart, PartState.EMBALADO);
+        alreadyLoaded.setReadyForDelivery(true);
+        entityManager.persist(alreadyLoaded);
+        foreign = entityManager.persist(TestFixtures.part(other, customPart, PartState.EMBALADO));
+        entityManager.flush();
+    }
+
+    @Test
+    void createPackageStoresQrDataAndRendersAfterCommit() {
+        PartPackageDTO created = partPackageService.createPackage(project.getId(), List.of(first.getId(), second.getId()));
+
+        assertEquals(Set.of(first.getId(), second.getId()), created.getPartIds());
+        assertEquals(QRPayloadCodec.encodePackage(created.getId(), true), created.getQrCodeData());
+        verify(qrGenerationService).scheduleAfterCommit(
+                new QRRenderJob(created.getQrCodeData(), "package_" + created.getId() + ".png"));
+
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(created.getQrCodeData(), partPackageService.getPackage(created.getId()).getQrCodeData());
+    }
+
+    @Test
+    void createPackageRejectsForeignOrAlreadyPackagedParts() {
+        assertThrows(IllegalArgumentException.class,
+                () -> partPackageService.createPackage(project.getId(), List.of(first.getId(), foreign.getId())));
+        assertThrows(IllegalArgumentException.class, () -> partPackageService.createPackage(project.getId(), List.of()));
+
+        partPackageService.createPackage(project.getId(), List.of(first.getId()));
+        entityManager.flush();
+        assertThrows(IllegalArgumentException.class,
+                () -> partPackageService.createPackage(project.getId(), List.of(first.getId(), second.getId())));
+    }
+
+    @Test
+    void scansPartsAndPackagesAndMarksThemWhenFinished() {
+        PartPackageDTO created = partPackageService.createPackage(project.getId(), List.of(first.getId(), second.getId()));
+        entityManager.flush();
+
+        DeliveryManifestDTO started = deliveryManifestService.start(project.getId());
+        assertEquals(4, started.getTotalParts());
+        assertEquals(1, started.getLoadedParts());
+
+        DeliveryManifestDTO scanned = deliveryManifestService.scan(project.getId(), List.of(created.getQrCodeData(),
+                QRPayloadCodec.encodePart(alreadyLoaded.getId(), true), QRPayloadCodec.encodePart(foreign.getId(), true),
+                "no es un QR"));
+
+        // El bulto da un resultado por cada pieza que contiene
+        Map<UUID, DeliveryScanStatus> byPart = new HashMap<>();
+        for (DeliveryScanResultDTO result : scanned.getScan().getResults().subList(0, 2)) {
+            byPart.put(result.getPartId(), result.getStatus());
+        }
+        assertEquals(Map.of(first.getId(), DeliveryScanStatus.CARGADA, second.getId(), DeliveryScanStatus.CARGADA), byPart);
+        assertEquals(List.of(DeliveryScanStatus.YA_CARGADA, DeliveryScanStatus.DESCONOCIDA, DeliveryScanStatus.QR_INVALIDO),
+                scanned.getScan().getResults().subList(2, 5).stream().map(DeliveryScanResultDTO::getStatus).toList());
+        assertEquals(3, scanned.getLoadedParts());
+        assertEquals(List.of(loose.getId()), deliveryManifestService.missing(project.getId()).getMissingPartIds());
+
+        // Escanear el bulto de nuevo no cuenta dos veces
+        assertEquals(2, deliveryManifestService.scan(project.getId(), List.of(created.getQrCodeData()))
+                .getScan().getAlreadyLoaded());
+
+        DeliveryManifestDTO finished = deliveryManifestService.finish(project.getId());
+        assertEquals(1, finished.getMissingParts());
+        assertEquals(Map.of(first.getId(), true, second.getId(), true, loose.getId(), false, alreadyLoaded.getId(), true),
+                deliveryState());
+        assertThrows(EntityNotFoundException.class,
+                () -> deliveryManifestService.scan(project.getId(), List.of(created.getQrCodeData())));
+    }
+
+    @Test
+    void cancelDiscardsTheManifestWithoutMarking() {
+        deliveryManifestService.start(project.getId());
+        deliveryManifestService.scan(project.getId(), List.of(QRPayloadCodec.encodePart(loose.getId(), true)));
+
+        deliveryManifestService.cancel(project.getId());
+
+        assertThrows(EntityNotFoundException.class, () -> deliveryManifestService.missing(project.getId()));
+        assertThrows(EntityNotFoundException.class, () -> deliveryManifestService.finish(project.getId()));
+        assertEquals(false, deliveryState().get(loose.getId()));
+        assertThrows(EntityNotFoundException.class, () -> deliveryManifestService.start(-1L));
+    }
+
+    private Map<UUID, Boolean> deliveryState() {
+        Map<UUID, Boolean> state = new HashMap<>();
+        for (Object[] row : partRepository.findDeliveryStateByProjectId(project.getId())) {
+            state.put((UUID) row[0], (Boolean) row[1]);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,140 @@
+package com.QS.AppQuickSolutions.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.QS.AppQuickSolutions.enums.ImageSize;
+import com.QS.AppQuickSolutions.services.storage.FileSystemBlobStore;
+
+/**
+ * Las versiones reducidas salen sin EXIF, así que la orientación de las fotos de celular se aplica antes de
+ * reducirlas.
+ */
+class ImageDerivativeServiceTest {
+
+    @TempDir
+    Path root;
+
+    private FileSystemBlobStore store;
+    private ImageDerivativeService service;
+
+    @BeforeEach
+    void setUp() {
+        store = new FileSystemBlobStore(root);
+        service = new ImageDerivativeService(store, new ThreadPoolTaskExecutor());
+        ReflectionTestUtils.setField(service, "jpegQuality", 0.9f);
+        ReflectionTestUtils.setField(service, "maxPixels", 40_000_000L);
+    }
+
+    @Test
+    void portraitPhotoIsRotatedBeforeScaling() throws IOException {
+        // Sensor en horizontal: izquierda roja, derecha azul. Con Orientation 6 se ve girada 90° a la derecha
+        store.put("foto.jpg", new ByteArrayInputStream(withOrientation(halves(1600, 800), 6)));
+
+        BufferedImage medium = derivative("foto.jpg", ImageSize.MEDIUM);
+        assertEquals(400, medium.getWidth());
+        assertEquals(800, medium.getHeight());
+        assertColor(Color.RED, medium.getRGB(200, 100));
+        assertColor(Color.BLUE, medium.getRGB(200, 700));
+
+        BufferedImage thumb = derivative("foto.jpg", ImageSize.THUMB);
+        assertEquals(100, thumb.getWidth());
+        assertEquals(200, thumb.getHeight());
+    }
+
+    @Test
+    void orientationsMatchTheExifDefinitions() {
+        BufferedImage source = halves(4, 2);
+        // 8: 90° antihorario, la mitad roja queda abajo
+        BufferedImage rotated = ImageDerivativeService.applyOrientation(source, 8);
+        assertEquals(2, rotated.getWidth());
+        assertColor(Color.BLUE, rotated.getRGB(0, 0));
+        assertColor(Color.RED, rotated.getRGB(0, 3));
+        // 2: espejo horizontal
+        assertColor(Color.BLUE, ImageDerivativeService.applyOrientation(source, 2).getRGB(0, 0));
+        // 5: transpuesta, la roja queda arriba
+        assertColor(Color.RED, ImageDerivativeService.applyOrientation(source, 5).getRGB(1, 0));
+        assertEquals(source, ImageDerivativeService.applyOrientation(source, 1));
+    }
+
+    @Test
+    void photoWithoutExifKeepsItsOrientation() throws IOException {
+        store.put("sin-exif.jpg", new ByteArrayInputStream(jpeg(halves(1600, 800))));
+
+        BufferedImage medium = derivative("sin-exif.jpg", ImageSize.MEDIUM);
+        assertEquals(800, medium.getWidth());
+        assertColor(Color.RED, medium.getRGB(100, 200));
+    }
+
+    private BufferedImage derivative(String key, ImageSize size) throws IOException {
+        String derivativeKey = service.resolve(key, size);
+        assertEquals(ImageDerivativeService.derivativeKey(key, size), derivativeKey);
+        try (InputStream in = store.find(derivativeKey).orElseThrow().resource().getInputStream()) {
+            return ImageIO.read(in);
+        }
+    }
+
+    private static BufferedImage halves(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.setColor(Color.BLUE);
+        graphics.fillRect(width / 2, 0, width - width / 2, height);
+        graphics.dispose();
+        return image;
+    }
+
+    private static byte[] jpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    // JPEG con un APP1 EXIF mínimo (TIFF big-endian con un solo tag: Orientation) después del APP0 JFIF
+    private static byte[] withOrientation(BufferedImage image, int orientation) throws IOException {
+        byte[] plain = jpeg(image);
+        byte[] exif = {
+                'E', 'x', 'i', 'f', 0, 0,
+                'M', 'M', 0, 42, 0, 0, 0, 8, // Cabecera TIFF, IFD0 en el byte 8
+                0, 1, // Una entrada
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0, // Orientation, SHORT, 1 valor
+                0, 0, 0, 0}; // Sin IFD siguiente
+        int app0End = 4 + (((plain[4] & 0xFF) << 8) | (plain[5] & 0xFF)); // SOI + marcador + largo del APP0
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(plain, 0, app0End);
+        out.write(0xFF);
+        out.write(0xE1);
+        out.write((exif.length + 2) >> 8);
+        out.write((exif.length + 2) & 0xFF);
+        out.write(exif);
+        out.write(plain, app0End, plain.length - app0End);
+        return out.toByteArray();
+    }
+
+    // JPEG no es exacto: alcanza con que domine el canal esperado
+    private static void assertColor(Color expected, int rgb) {
+        Color actual = new Color(rgb);
+        if (expected.equals(Color.RED)) {
+            assertEquals(true, actual.getRed() > 200 && actual.getBlue() < 60, "rojo esperado: " + actual);
+        } else {
+            assertEquals(true, actual.getBlue() > 200 && actual.getRed() < 60, "azul esperado: " + actual);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.QS.AppQuickSolutions.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.QS.AppQuickSolutions.TestFixtures;
+import com.QS.AppQuickSolutions.dto.OperatorMetricsDTO;
+import com.QS.AppQuickSolutions.entity.CustomPart;
+import com.QS.AppQuickSolutions.entity.Part;
+import com.QS.AppQuickSolutions.entity.PartStatusTracking;
+import com.QS.AppQuickSolutions.entity.Project;
+import com.QS.AppQuickSolutions.entity.User;
+import com.QS.AppQuickSolutions.enums.PartState;
+
+/**
+ * Métricas de un operario desde operator_daily_stats y desde el historial (mientras los resúmenes no están
+ * listos): las tareas sin duración cuentan como completadas pero no entran en los promedios.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({PartTrackingService.class, OperatorStatsService.class, PartLockService.class, PartStateHistoryService.class})
+class OperatorMetricsTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PartTrackingService partTrackingService;
+
+    @Autowired
+    private OperatorStatsService operatorStatsService;
+
+    private User operator;
+    private final List<PartStatusTracking> trackings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        operator = entityManager.persist(TestFixtures.operator("metricas"));
+        Project project = entityManager.persist(TestFixtures.project("cliente-metricas"));
+        CustomPart customPart = entityManager.persist(TestFixtures.customPart("puerta"));
+        Part part = entityManager.persist(TestFixtures.part(project, customPart, PartState.EMBALADO));
+        trackings.add(completed(part, PartState.REPARACION, 10L));
+        trackings.add(completed(part, PartState.REPARACION, 21L));
+        trackings.add(completed(part, PartState.REPARACION, null));
+        trackings.add(completed(part, PartState.EMBALADO, 5L));
+        entityManager.flush();
+    }
+
+    @Test
+    void dailyStatsAndHistoryGiveTheSameAverages() {
+        ReflectionTestUtils.setField(operatorStatsService, "ready", false);
+        OperatorMetricsDTO fromHistory = partTrackingService.getUserMetrics(operator.getUserID());
+
+        trackings.forEach(operatorStatsService::recordCompletedTask);
+        ReflectionTestUtils.setField(operatorStatsService, "ready", true);
+        OperatorMetricsDTO fromStats = partTrackingService.getUserMetrics(operator.getUserID());
+
+        for (OperatorMetricsDTO metrics : List.of(fromHistory, fromStats)) {
+            assertEquals(4, metrics.getTotalTasks());
+            assertEquals(12.0, metrics.getAverageTaskDuration(), 1e-9);
+            assertEquals(Map.of(PartState.REPARACION, 15.5, PartState.EMBALADO, 5.0), metrics.getAvgDurationByCategory());
+        }
+        assertEquals(10L, operatorStatsService.getStationStats(operator.getUserID(), null, null).stream()
+                .filter(stats -> stats.getPartState() == PartState.REPARACION).findFirst().orElseThrow().getMinDuration());
+    }
+
+    private PartStatusTracking completed(Part part, PartState state, Long duration) {
+        PartStatusTracking tracking = new PartStatusTracking();
+        tracking.setPart(part);
+        tracking.setUserOperator(operator);
+        tracking.setPartState(state);
+        tracking.setStartTime(LocalDateTime.now().minusHours(1));
+        tracking.setEndTime(LocalDateTime.now());
+        tracking.setTaskDuration(duration);
+        tracking.setCompleted(true);
+        return entityManager.persist(tracking);
+    }
+}
@@ -0,0 +1,149 @@
+package com.QS.AppQuickSolutions.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.QS.AppQuickSolutions.TestFixtures;
+import com.QS.AppQuickSolutions.dto.PartStateAtDTO;
+import com.QS.AppQuickSolutions.entity.CustomPart;
+import com.QS.AppQuickSolutions.entity.Part;
+import com.QS.AppQuickSolutions.entity.PartStateEvent;
+import com.QS.AppQuickSolutions.entity.PartStateSnapshot;
+import com.QS.AppQuickSolutions.entity.Project;
+import com.QS.AppQuickSolutions.enums.PartState;
+import com.QS.AppQuickSolutions.enums.PartStateEventSource;
+import com.QS.AppQuickSolutions.repository.PartStateSnapshotRepository;
+
+/**
+ * Línea de tiempo, estado en una fecha (foto contra evento) y fotos incrementales del historial de estados.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(PartStateHistoryService.class)
+class PartStateHistoryServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 3, 1, 8, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PartStateHistoryService partStateHistoryService;
+
+    @Autowired
+    private PartStateSnapshotRepository partStateSnapshotRepository;
+
+    private Project project;
+    private Part first;
+    private Part second;
+
+    @BeforeEach
+    void setUp() {
+        project = entityManager.persist(TestFixtures.project("cliente-historial"));
+        CustomPart customPart = entityManager.persist(TestFixtures.customPart("pieza-historial"));
+        first = entityManager.persist(TestFixtures.part(project, customPart, PartState.DESARROLLO));
+        second = entityManager.persist(TestFixtures.part(project, customPart, PartState.DESARROLLO));
+        entityManager.flush();
+    }
+
+    @Test
+    void timelineListsChangesInOrderAndSkipsNoOps() {
+        partStateHistoryService.record(first.getId(), PartState.DESARROLLO, PartState.EN_PRODUCCION,
+                PartStateEventSource.RECEPCION, null);
+        partStateHistoryService.record(first.getId(), PartState.EN_PRODUCCION, PartState.EN_PRODUCCION,
+                PartStateEventSource.EDICION, null);
+        partStateHistoryService.record(first.getId(), PartState.EN_PRODUCCION, PartState.CONTROL_CALIDAD_EN_FABRICA,
+                PartStateEventSource.TAREA_COMPLETADA, 7L);
+        entityManager.flush();
+
+        List<PartStateEvent> timeline = partStateHistoryService.getTimeline(first.getId());
+
+        assertEquals(2, timeline.size());
+        assertEquals(PartState.DESARROLLO, timeline.get(0).getFromState());
+        assertEquals(PartState.EN_PRODUCCION, timeline.get(0).getToState());
+        assertEquals(PartStateEventSource.RECEPCION, timeline.get(0).getSource());
+        assertEquals(PartState.CONTROL_CALIDAD_EN_FABRICA, timeline.get(1).getToState());
+        assertEquals(7L, timeline.get(1).getActorId());
+        assertEquals(List.of(), partStateHistoryService.getTimeline(second.getId()));
+    }
+
+    @Test
+    void stateAtTakesTheLatestOfSnapshotAndEvent() {
+        event(first, PartState.DESARROLLO, PartState.EN_PRODUCCION, T0);
+        snapshot(first, PartState.EN_PRODUCCION, T0.plusHours(1));
+        event(first, PartState.EN_PRODUCCION, PartState.PINTADO, T0.plusHours(2));
+        entityManager.flush();
+
+        // Antes del primer cambio: el estado de origen de ese cambio, sin fecha
+        PartStateAtDTO before = partStateHistoryService.getStateAt(first.getId(), T0.minusMinutes(1));
+        assertEquals(PartState.DESARROLLO, before.getState());
+        assertNull(before.getSince());
+
+        assertEquals(new PartStateAtDTO(first.getId(), PartState.EN_PRODUCCION, T0),
+                partStateHistoryService.getStateAt(first.getId(), T0.plusMinutes(30)));
+        assertEquals(new PartStateAtDTO(first.getId(), PartState.EN_PRODUCCION, T0.plusHours(1)),
+                partStateHistoryService.getStateAt(first.getId(), T0.plusMinutes(90)));
+        assertEquals(new PartStateAtDTO(first.getId(), PartState.PINTADO, T0.plusHours(2)),
+                partStateHistoryService.getStateAt(first.getId(), T0.plusHours(3)));
+
+        // Sin fotos ni cambios
+        assertEquals(new PartStateAtDTO(second.getId(), null, null),
+                partStateHistoryService.getStateAt(second.getId(), T0));
+    }
+
+    @Test
+    void eventCommittedAfterTheSnapshotWinsWithinTheOverlap() {
+        // La foto leyó el estado antes de que se confirmara un cambio con fecha anterior a la foto
+        event(first, PartState.DESARROLLO, PartState.EN_PRODUCCION, T0);
+        snapshot(first, PartState.DESARROLLO, T0.plusMinutes(2));
+        entityManager.flush();
+
+        assertEquals(new PartStateAtDTO(first.getId(), PartState.EN_PRODUCCION, T0),
+                partStateHistoryService.getStateAt(first.getId(), T0.plusMinutes(5)));
+        Map<UUID, PartStateAtDTO> byPart = partStateHistoryService.getProjectStateAt(project.getId(), T0.plusMinutes(5))
+                .stream().collect(Collectors.toMap(PartStateAtDTO::getPartId, dto -> dto));
+        assertEquals(PartState.EN_PRODUCCION, byPart.get(first.getId()).getState());
+    }
+
+    @Test
+    void snapshotsOnlyPartsWithoutSnapshotOrWithRecentChanges() {
+        assertEquals(2, partStateHistoryService.takeSnapshots());
+        assertEquals(0, partStateHistoryService.takeSnapshots());
+
+        LocalDateTime lastTakenAt = partStateSnapshotRepository.findLastTakenAt().orElseThrow();
+        // Cambio confirmado después de la foto anterior pero con fecha anterior a ella: entra por el margen
+        second.setPartState(PartState.EN_PRODUCCION);
+        event(second, PartState.DESARROLLO, PartState.EN_PRODUCCION, lastTakenAt.minusMinutes(2));
+        entityManager.flush();
+
+        assertEquals(1, partStateHistoryService.takeSnapshots());
+        PartStateSnapshot latest = partStateSnapshotRepository
+                .findFirstByPartIdAndTakenAtLessThanEqualOrderByTakenAtDesc(second.getId(), LocalDateTime.now())
+                .orElseThrow();
+        assertEquals(PartState.EN_PRODUCCION, latest.getPartState());
+        assertEquals(3, partStateSnapshotRepository.count());
+    }
+
+    private void event(Part part, PartState from, PartState to, LocalDateTime occurredAt) {
+        entityManager.persist(new PartStateEvent(part.getId(), from, to, PartStateEventSource.EDICION, null, null,
+                occurredAt));
+    }
+
+    private void snapshot(Part part, PartState state, LocalDateTime takenAt) {
+        entityManager.persist(new PartStateSnapshot(null, part.getId(), state, takenAt));
+    }
+}
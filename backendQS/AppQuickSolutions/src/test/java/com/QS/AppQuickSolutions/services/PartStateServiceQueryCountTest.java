@@ -0,0 +1,114 @@
+package com.QS.AppQuickSolutions.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.QS.AppQuickSolutions.TestFixtures;
+import com.QS.AppQuickSolutions.dto.PartTrackingSummaryDTO;
+import com.QS.AppQuickSolutions.dto.PartsByStateDTO;
+import com.QS.AppQuickSolutions.entity.CustomPart;
+import com.QS.AppQuickSolutions.entity.Part;
+import com.QS.AppQuickSolutions.entity.PartStatusTracking;
+import com.QS.AppQuickSolutions.entity.Project;
+import com.QS.AppQuickSolutions.entity.User;
+import com.QS.AppQuickSolutions.enums.PartState;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * El tablero de piezas por estado tiene que salir en una sola consulta, sin importar cuántas piezas,
+ * proyectos o seguimientos haya.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(PartStateService.class)
+class PartStateServiceQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PartStateService partStateService;
+
+    @Test
+    void loadsTheWholeBoardWithOneStatement() {
+        User operator = entityManager.persist(TestFixtures.operator("operario"));
+
+        Part tracked = null;
+        PartState[] states = {PartState.PINTADO, PartState.EMBALADO, PartState.SOLDADO_FLAPEADO, PartState.EN_PRODUCCION};
+        for (int p = 0; p < 3; p++) {
+            Project project = entityManager.persist(TestFixtures.project("cliente-" + p));
+            CustomPart customPart = entityManager.persist(TestFixtures.customPart("pieza-" + p));
+
+            for (int i = 0; i < 20; i++) {
+                Part part = entityManager.persist(TestFixtures.part(project, customPart, states[i % states.length]));
+                if (tracked == null && part.getPartState() == PartState.PINTADO) {
+                    tracked = part;
+                }
+            }
+        }
+
+        PartStatusTracking active = new PartStatusTracking();
+        active.setPart(tracked);
+        active.setUserOperator(operator);
+        active.setPartState(PartState.PINTADO);
+        active.setStartTime(LocalDateTime.now());
+        active.setTaken(true);
+        entityManager.persist(active);
+
+        PartStatusTracking finished = new PartStatusTracking();
+        finished.setPart(tracked);
+        finished.setUserOperator(operator);
+        finished.setPartState(PartState.SOLDADO_FLAPEADO);
+        finished.setCompleted(true);
+        entityManager.persist(finished);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<PartsByStateDTO> board = partStateService.getPartsByState();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        Map<PartState, List<PartTrackingSummaryDTO>> byState = board.stream()
+                .collect(Collectors.toMap(PartsByStateDTO::getState, PartsByStateDTO::getParts));
+        assertEquals(PartState.values().length - 2, board.size());
+        assertFalse(byState.containsKey(PartState.DESARROLLO));
+        assertFalse(byState.containsKey(PartState.EN_PRODUCCION));
+        assertEquals(15, byState.get(PartState.PINTADO).size());
+        assertEquals(15, byState.get(PartState.EMBALADO).size());
+        assertTrue(byState.get(PartState.REPARACION).isEmpty());
+
+        Map<Object, PartTrackingSummaryDTO> painted = byState.get(PartState.PINTADO).stream()
+                .collect(Collectors.toMap(PartTrackingSummaryDTO::getPartId, Function.identity()));
+        PartTrackingSummaryDTO withTracking = painted.get(tracked.getId());
+        assertEquals(active.getId(), withTracking.getTrackingId());
+        assertTrue(withTracking.isTaken());
+        assertFalse(withTracking.isCompleted());
+        assertEquals("pieza-0", withTracking.getPartName());
+        assertEquals(tracked.getProject().getId(), withTracking.getProjectId());
+        assertEquals(1, painted.values().stream().filter(dto -> dto.getTrackingId() != null).count());
+    }
+}
@@ -0,0 +1,221 @@
+package com.QS.AppQuickSolutions.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.QS.AppQuickSolutions.TestFixtures;
+import com.QS.AppQuickSolutions.dto.LockStatsDTO;
+import com.QS.AppQuickSolutions.entity.CustomPart;
+import com.QS.AppQuickSolutions.entity.Part;
+import com.QS.AppQuickSolutions.entity.PartStatusTracking;
+import com.QS.AppQuickSolutions.entity.Project;
+import com.QS.AppQuickSolutions.entity.User;
+import com.QS.AppQuickSolutions.enums.PartState;
+import com.QS.AppQuickSolutions.repository.CustomPartRepository;
+import com.QS.AppQuickSolutions.repository.OperatorDailyStatsRepository;
+import com.QS.AppQuickSolutions.repository.PartRepository;
+import com.QS.AppQuickSolutions.repository.PartStatusTrackingRepository;
+import com.QS.AppQuickSolutions.repository.ProjectRepository;
+import com.QS.AppQuickSolutions.repository.UserRepository;
+
+/**
+ * 50 operarios simulados toman y completan la misma pieza a la vez, cada uno en su propia transacción.
+ * Los índices únicos de PartStatusTracking y los UPDATE condicionales tienen que dejar a lo sumo una tarea
+ * activa por pieza y contar cada tarea completada una sola vez.
+ */
+@DataJpaTest(properties = {
+        "test.h2.url-options=;LOCK_TIMEOUT=10000",
+        "spring.datasource.hikari.maximum-pool-size=60",
+        "spring.jpa.show-sql=false"})
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PartTrackingService.class, OperatorStatsService.class, PartLockService.class, PartStateHistoryService.class})
+class PartTakeStressTest {
+
+    private static final int OPERATORS = 50;
+    private static final int ATTEMPTS_PER_OPERATOR = 20;
+
+    @Autowired
+    private PartTrackingService partTrackingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private CustomPartRepository customPartRepository;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private PartStatusTrackingRepository partStatusTrackingRepository;
+
+    @Autowired
+    private OperatorDailyStatsRepository operatorDailyStatsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PartLockService partLockService;
+
+    private final List<User> operators = new ArrayList<>();
+    private Part part;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < OPERATORS; i++) {
+            operators.add(userRepository.save(TestFixtures.operator("operario-" + i)));
+        }
+        Project project = projectRepository.save(TestFixtures.project("cliente"));
+        CustomPart customPart = customPartRepository.save(TestFixtures.customPart("frente"));
+        // REPARACION -> CONTROL_CALIDAD_EN_FABRICA -> sin siguiente
+        part = partRepository.save(TestFixtures.part(project, customPart, PartState.REPARACION));
+    }
+
+    @AfterEach
+    void tearDown() {
+        operatorDailyStatsRepository.deleteAll();
+        partStatusTrackingRepository.deleteAll();
+        partRepository.deleteAll();
+        projectRepository.deleteAll();
+        customPartRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void onlyOneOfFiftySimultaneousTakesWins() throws Exception {
+        CyclicBarrier start = new CyclicBarrier(OPERATORS);
+        AtomicInteger taken = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        runOnOperators(operator -> {
+            start.await();
+            try {
+                partTrackingService.takePart(part.getId(), operator.getUserID());
+                taken.incrementAndGet();
+            } catch (TaskConflictException e) {
+                conflicts.incrementAndGet();
+            }
+        }, unexpected);
+
+        assertTrue(unexpected.isEmpty(), () -> "Errores inesperados: " + unexpected);
+        assertEquals(1, taken.get());
+        assertEquals(OPERATORS - 1, conflicts.get());
+        assertEquals(1, activeTrackings());
+    }
+
+    @Test
+    void hammeringOnePartKeepsASingleActiveTaskAndCountsEachCompletionOnce() throws Exception {
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        LockStatsDTO locksBefore = partLockService.getStats();
+
+        runOnOperators(operator -> {
+            for (int attempt = 0; attempt < ATTEMPTS_PER_OPERATOR; attempt++) {
+                try {
+                    partTrackingService.takePart(part.getId(), operator.getUserID());
+                } catch (TaskConflictException e) {
+                    conflicts.incrementAndGet();
+                    continue;
+                }
+                partTrackingService.completePart(part.getId(), operator.getUserID());
+                completed.incrementAndGet();
+            }
+        }, unexpected);
+
+        int attempts = OPERATORS * ATTEMPTS_PER_OPERATOR;
+        // Cada intento tomó el lock de la pieza, todos pelearon por la misma franja y al final no queda ninguna tomada
+        LockStatsDTO locks = partLockService.getStats();
+        assertTrue(locks.getAcquisitions() - locksBefore.getAcquisitions() >= attempts);
+        assertTrue(locks.getContended() > locksBefore.getContended());
+        assertEquals(0, locks.getHeldStripes());
+
+        assertTrue(unexpected.isEmpty(), () -> "Errores inesperados: " + unexpected);
+        assertEquals(attempts, completed.get() + conflicts.get());
+        assertTrue(completed.get() > 0);
+        assertEquals(0, activeTrackings());
+        assertEquals(completed.get(), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM part_status_tracking WHERE is_completed = true", Integer.class));
+        assertEquals(completed.get(), jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(completed_count), 0) FROM operator_daily_stats", Integer.class));
+    }
+
+    @Test
+    void theDatabaseRejectsASecondActiveTrackingEvenWithoutTheService() {
+        partTrackingService.takePart(part.getId(), operators.get(0).getUserID());
+
+        PartStatusTracking duplicate = new PartStatusTracking();
+        duplicate.setPart(part);
+        duplicate.setUserOperator(operators.get(1));
+        duplicate.setPartState(part.getPartState());
+        duplicate.setStartTime(LocalDateTime.now());
+        duplicate.setTaken(true);
+        DataIntegrityViolationException violation = assertThrows(DataIntegrityViolationException.class,
+                () -> partStatusTrackingRepository.saveAndFlush(duplicate));
+        assertEquals("La pieza ya está tomada por otro usuario.",
+                TaskConflictException.fromActiveTrackingViolation(violation).getMessage());
+
+        // Completada la tarea, la pieza se puede volver a tomar
+        partTrackingService.completePart(part.getId(), operators.get(0).getUserID());
+        partTrackingService.takePart(part.getId(), operators.get(1).getUserID());
+        assertEquals(1, activeTrackings());
+    }
+
+    private int activeTrackings() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM part_status_tracking WHERE is_completed = false", Integer.class);
+    }
+
+    private void runOnOperators(OperatorTask task, ConcurrentLinkedQueue<Throwable> unexpected) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(OPERATORS);
+        CountDownLatch done = new CountDownLatch(OPERATORS);
+        for (User operator : operators) {
+            executor.execute(() -> {
+                try {
+                    task.run(operator);
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(2, TimeUnit.MINUTES));
+        executor.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface OperatorTask {
+        void run(User operator) throws Exception;
+    }
+}
@@ -0,0 +1,99 @@
+package com.QS.AppQuickSolutions.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doCallRealMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.QS.AppQuickSolutions.TestFixtures;
+import com.QS.AppQuickSolutions.dto.BulkTransitionRequestDTO;
+import com.QS.AppQuickSolutions.dto.BulkTransitionResultDTO;
+import com.QS.AppQuickSolutions.dto.PartTransitionResultDTO;
+import com.QS.AppQuickSolutions.entity.CustomPart;
+import com.QS.AppQuickSolutions.entity.Project;
+import com.QS.AppQuickSolutions.entity.User;
+import com.QS.AppQuickSolutions.enums.PartState;
+import com.QS.AppQuickSolutions.enums.PartTransitionStatus;
+import com.QS.AppQuickSolutions.repository.CustomPartRepository;
+import com.QS.AppQuickSolutions.repository.PartRepository;
+import com.QS.AppQuickSolutions.repository.ProjectRepository;
+import com.QS.AppQuickSolutions.repository.UserRepository;
+
+/**
+ * Movimiento masivo en tandas: si falla una tanda, las anteriores quedan aplicadas y se devuelve el resultado
+ * parcial con esa tanda como FALLIDA y las siguientes como NO_PROCESADA.
+ */
+@DataJpaTest(properties = "tracking.bulk-transition.chunk-size=2")
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PartTrackingService.class, OperatorStatsService.class, PartLockService.class, PartStateHistoryService.class})
+class PartTrackingBulkTransitionTest {
+
+    @Autowired
+    private PartTrackingService partTrackingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private CustomPartRepository customPartRepository;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @MockitoSpyBean
+    private PartStateHistoryService partStateHistoryService;
+
+    @Test
+    void failedChunkStopsTheMoveAndReportsWhatWasApplied() {
+        User operator = userRepository.save(TestFixtures.operator("masivo"));
+        Project project = projectRepository.save(TestFixtures.project("cliente-masivo"));
+        CustomPart customPart = customPartRepository.save(TestFixtures.customPart("zocalo"));
+        List<UUID> partIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // REPARACION -> CONTROL_CALIDAD_EN_FABRICA
+            partIds.add(partRepository.save(TestFixtures.part(project, customPart, PartState.REPARACION)).getId());
+        }
+        // La segunda tanda falla al registrar el historial, después de su UPDATE
+        doCallRealMethod()
+                .doThrow(new QueryTimeoutException("simulado"))
+                .when(partStateHistoryService).record(anyCollection(), any(), any(), any(), any());
+
+        BulkTransitionRequestDTO request = new BulkTransitionRequestDTO();
+        request.setUserId(operator.getUserID());
+        request.setPartIds(partIds);
+        BulkTransitionResultDTO result = partTrackingService.bulkTransition(request);
+
+        assertEquals(2, result.getTransitioned());
+        assertEquals(3, result.getSkipped());
+        assertNotNull(result.getError());
+        assertEquals(partIds, result.getResults().stream().map(PartTransitionResultDTO::getPartId).toList());
+        assertEquals(List.of(PartTransitionStatus.AVANZADA, PartTransitionStatus.AVANZADA, PartTransitionStatus.FALLIDA,
+                PartTransitionStatus.FALLIDA, PartTransitionStatus.NO_PROCESADA),
+                result.getResults().stream().map(PartTransitionResultDTO::getStatus).toList());
+
+        // La primera tanda quedó aplicada y la segunda se deshizo
+        List<PartState> states = partIds.stream()
+                .map(id -> partRepository.findById(id).orElseThrow().getPartState()).toList();
+        assertEquals(List.of(PartState.CONTROL_CALIDAD_EN_FABRICA, PartState.CONTROL_CALIDAD_EN_FABRICA,
+                PartState.REPARACION, PartState.REPARACION, PartState.REPARACION), states);
+    }
+}
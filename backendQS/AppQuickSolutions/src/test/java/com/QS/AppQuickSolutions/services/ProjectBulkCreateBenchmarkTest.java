@@ -0,0 +1,132 @@
+package com.QS.AppQuickSolutions.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.QS.AppQuickSolutions.TestFixtures;
+import com.QS.AppQuickSolutions.dto.PartDto;
+import com.QS.AppQuickSolutions.dto.ProjectDto;
+import com.QS.AppQuickSolutions.entity.CustomPart;
+import com.QS.AppQuickSolutions.entity.Part;
+import com.QS.AppQuickSolutions.entity.PartMaterial;
+import com.QS.AppQuickSolutions.entity.Project;
+import com.QS.AppQuickSolutions.repository.CustomPartRepository;
+import com.QS.AppQuickSolutions.repository.PartMaterialRepository;
+import com.QS.AppQuickSolutions.repository.PartRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Alta de proyectos con 10, 100 y 1000 piezas: cada pieza cuesta un solo INSERT, mandado en lotes JDBC. Cada
+ * alta corre en su propia transacción, con commit. La medición de piezas por segundo es @Tag("benchmark").
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"})
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProjectService.class, PartService.class, PartLockService.class, PartStateHistoryService.class})
+class ProjectBulkCreateBenchmarkTest {
+
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @Autowired
+    private CustomPartRepository customPartRepository;
+
+    @Autowired
+    private PartMaterialRepository partMaterialRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private QRCodeService qrCodeService;
+
+    @MockitoBean
+    private QRGenerationService qrGenerationService;
+
+    private CustomPart customPart;
+    private PartMaterial partMaterial;
+
+    @BeforeEach
+    void setUp() {
+        when(qrCodeService.generateQrDataFromPart(any(Part.class)))
+                .thenAnswer(invocation -> QRPayloadCodec.encodePart(invocation.<Part>getArgument(0).getId(), true));
+        when(qrCodeService.qrFileNameFor(any(UUID.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0) + "_qr.png");
+
+        customPart = customPartRepository.save(TestFixtures.customPart("frente-" + UUID.randomUUID()));
+        PartMaterial newMaterial = new PartMaterial();
+        newMaterial.setMaterialName("chapa");
+        partMaterial = partMaterialRepository.save(newMaterial);
+    }
+
+    @Test
+    void createsPartsWithOneBatchedInsertEach() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int size : new int[] {10, 100, 1000}) {
+            statistics.clear();
+            Project project = createProject(size);
+            long statements = statistics.getPrepareStatementCount();
+
+            // El INSERT del proyecto y un lote cada BATCH_SIZE piezas; sin lotes serían 1 + size
+            long maxStatements = 1 + (size + BATCH_SIZE - 1) / BATCH_SIZE;
+            assertTrue(statements <= maxStatements, "Se prepararon " + statements + " sentencias para " + size + " piezas");
+            assertEquals(size, partRepository.findDeliveryStateByProjectId(project.getId()).size());
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmarkPartsPerSecond() throws Exception {
+        createProject(10); // calentamiento
+
+        for (int size : new int[] {10, 100, 1000}) {
+            long start = System.nanoTime();
+            createProject(size);
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("Alta de %4d piezas: %6.1f ms, %8.0f piezas/s%n",
+                    size, elapsed / 1e6, size / (elapsed / 1e9));
+        }
+    }
+
+    private Project createProject(int size) throws Exception {
+        ProjectDto projectDto = new ProjectDto();
+        projectDto.setClientAlias("cliente-" + size);
+        projectDto.setContact(1L);
+        List<PartDto> partDtos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            PartDto partDto = new PartDto();
+            partDto.setCustomPart(customPart);
+            partDto.setPartMaterial(partMaterial);
+            partDto.setHeightMm(100.0 + i);
+            partDtos.add(partDto);
+        }
+        return projectService.createProjectWithParts(projectDto, partDtos);
+    }
+}
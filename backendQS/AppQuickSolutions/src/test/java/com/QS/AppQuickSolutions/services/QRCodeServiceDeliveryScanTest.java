@@ -0,0 +1,120 @@
+package com.QS.AppQuickSolutions.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.QS.AppQuickSolutions.TestFixtures;
+import com.QS.AppQuickSolutions.dto.DeliveryScanBatchDTO;
+import com.QS.AppQuickSolutions.dto.DeliveryScanResultDTO;
+import com.QS.AppQuickSolutions.entity.CustomPart;
+import com.QS.AppQuickSolutions.entity.Part;
+import com.QS.AppQuickSolutions.entity.Project;
+import com.QS.AppQuickSolutions.enums.DeliveryScanStatus;
+import com.QS.AppQuickSolutions.enums.PartState;
+import com.QS.AppQuickSolutions.repository.PartRepository;
+import com.QS.AppQuickSolutions.services.storage.BlobStore;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Escaneo de carga por lotes: un resultado por QR en el orden recibido, repetidos y piezas ya cargadas
+ * como YA_CARGADA, y un solo UPDATE para todas las pendientes.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "qrcode.delivery-scan.max-batch=10"})
+@ActiveProfiles("test")
+@Import({QRCodeService.class, QRImageCache.class, PartLockService.class, PartStateHistoryService.class})
+class QRCodeServiceDeliveryScanTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private QRCodeService qrCodeService;
+
+    @Autowired
+    private PartRepository partRepository;
+
+    @MockitoBean(name = "qrBlobStore")
+    private BlobStore qrBlobStore;
+
+    private Project project;
+    private Part pending;
+    private Part alreadyLoaded;
+
+    @BeforeEach
+    void setUp() {
+        project = entityManager.persist(TestFixtures.project("cliente-carga"));
+        CustomPart customPart = entityManager.persist(TestFixtures.customPart("frente"));
+        pending = entityManager.persist(TestFixtures.part(project, customPart, PartState.EMBALADO));
+        alreadyLoaded = TestFixtures.part(project, customPart, PartState.EMBALADO);
+        alreadyLoaded.setReadyForDelivery(true);
+        entityManager.persist(alreadyLoaded);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void reportsEachCodeInOrderAndMarksPendingPartsOnce() {
+        String pendingQr = QRPayloadCodec.encodePart(pending.getId(), true);
+        List<String> payloads = List.of(pendingQr, QRPayloadCodec.encodePart(alreadyLoaded.getId(), true),
+                "Part ID: " + pending.getId(), QRPayloadCodec.encodePart(UUID.randomUUID(), true), "no es un QR");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        DeliveryScanBatchDTO batch = qrCodeService.scanDeliveryQRCodes(payloads);
+
+        // Una lectura con lock y un UPDATE
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(List.of(DeliveryScanStatus.CARGADA, DeliveryScanStatus.YA_CARGADA, DeliveryScanStatus.YA_CARGADA,
+                DeliveryScanStatus.DESCONOCIDA, DeliveryScanStatus.QR_INVALIDO),
+                batch.getResults().stream().map(DeliveryScanResultDTO::getStatus).toList());
+        assertEquals(payloads, batch.getResults().stream().map(DeliveryScanResultDTO::getQrData).toList());
+        assertEquals(pending.getId(), batch.getResults().get(2).getPartId());
+        assertEquals(1, batch.getLoaded());
+        assertEquals(2, batch.getAlreadyLoaded());
+        assertEquals(1, batch.getUnknown());
+        assertEquals(1, batch.getInvalid());
+        assertEquals(Map.of(pending.getId(), true, alreadyLoaded.getId(), true), deliveryState());
+
+        // El mismo lote otra vez: ya no queda nada por cargar
+        assertEquals(0, qrCodeService.scanDeliveryQRCodes(List.of(pendingQr)).getLoaded());
+    }
+
+    @Test
+    void rejectsBatchesOverTheLimit() {
+        List<String> payloads = Collections.nCopies(11, QRPayloadCodec.encodePart(pending.getId(), true));
+
+        assertThrows(IllegalArgumentException.class, () -> qrCodeService.scanDeliveryQRCodes(payloads));
+        assertEquals(false, deliveryState().get(pending.getId()));
+    }
+
+    private Map<UUID, Boolean> deliveryState() {
+        Map<UUID, Boolean> state = new HashMap<>();
+        for (Object[] row : partRepository.findDeliveryStateByProjectId(project.getId())) {
+            state.put((UUID) row[0], (Boolean) row[1]);
+        }
+        return state;
+    }
+}
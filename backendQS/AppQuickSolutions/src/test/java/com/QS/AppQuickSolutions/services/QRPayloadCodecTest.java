@@ -0,0 +1,115 @@
+package com.QS.AppQuickSolutions.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+
+class QRPayloadCodecTest {
+
+    private static final String QR_ALPHANUMERIC = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:";
+
+    @Test
+    void roundTripsPartIds() {
+        for (int i = 0; i < 1000; i++) {
+            UUID partId = UUID.randomUUID();
+            assertEquals(Optional.of(partId), QRPayloadCodec.decodePartId(QRPayloadCodec.encodePart(partId, true)));
+            assertEquals(Optional.of(partId), QRPayloadCodec.decodePartId(QRPayloadCodec.encodePart(partId, false)));
+        }
+        UUID zero = new UUID(0, 0);
+        UUID max = new UUID(-1L, -1L);
+        assertEquals(Optional.of(zero), QRPayloadCodec.decodePartId(QRPayloadCodec.encodePart(zero, true)));
+        assertEquals(Optional.of(max), QRPayloadCodec.decodePartId(QRPayloadCodec.encodePart(max, true)));
+    }
+
+    @Test
+    void compactPayloadStaysInQrAlphanumericMode() {
+        String payload = QRPayloadCodec.encodePart(UUID.randomUUID(), true);
+        assertEquals(31, payload.length());
+        assertTrue(payload.chars().allMatch(c -> QR_ALPHANUMERIC.indexOf(c) >= 0), payload);
+    }
+
+    @Test
+    void rejectsCorruptedChecksum() {
+        String payload = QRPayloadCodec.encodePart(UUID.randomUUID(), true);
+        char original = payload.charAt(10);
+        char replacement = original == '7' ? '8' : '7';
+        String corrupted = payload.substring(0, 10) + replacement + payload.substring(11);
+        assertTrue(QRPayloadCodec.decodePartId(corrupted).isEmpty());
+        assertTrue(QRPayloadCodec.decodePartId("QS1P123").isEmpty());
+        assertTrue(QRPayloadCodec.decodePartId("otro contenido").isEmpty());
+    }
+
+    @Test
+    void decodesLegacyReceptionAndDeliveryText() {
+        UUID partId = UUID.randomUUID();
+        assertEquals(Optional.of(partId), QRPayloadCodec.decodePartId(legacyPayload(partId)));
+        assertEquals(Optional.of(partId), QRPayloadCodec.decodePartId("Project ID: 12, Part ID: " + partId));
+    }
+
+    @Test
+    void compactPayloadNeedsASmallerQrThanLegacyText() throws Exception {
+        UUID partId = UUID.randomUUID();
+        assertTrue(modules(QRPayloadCodec.encodePart(partId, true)) < modules(legacyPayload(partId)));
+    }
+
+    // Comparación de tamaño del QR y tiempo de parseo entre el texto legado y el formato compacto
+    @Test
+    @Tag("benchmark")
+    void benchmarkModuleCountAndParseTime() throws Exception {
+        UUID partId = UUID.randomUUID();
+        String legacy = legacyPayload(partId);
+        String compact = QRPayloadCodec.encodePart(partId, true);
+
+        int legacyModules = modules(legacy);
+        int compactModules = modules(compact);
+
+        int iterations = 200_000;
+        long legacyNanos = time(iterations, () -> UUID.fromString(legacy.split("\n")[0].split(":")[1].trim()));
+        long codecLegacyNanos = time(iterations, () -> QRPayloadCodec.decodePartId(legacy).orElseThrow());
+        long compactNanos = time(iterations, () -> QRPayloadCodec.decodePartId(compact).orElseThrow());
+
+        System.out.printf("QR legado:   %d caracteres, %dx%d módulos%n", legacy.length(), legacyModules, legacyModules);
+        System.out.printf("QR compacto: %d caracteres, %dx%d módulos%n", compact.length(), compactModules, compactModules);
+        System.out.printf("Parseo split() legado: %d ns/op, codec sobre legado: %d ns/op, codec compacto: %d ns/op%n",
+                legacyNanos / iterations, codecLegacyNanos / iterations, compactNanos / iterations);
+    }
+
+    private static String legacyPayload(UUID partId) {
+        return "Part ID: " + partId +
+               "\nProject ID: 42" +
+               "\nCustomPart: PUERTA_LEVADIZA" +
+               "\nMaterial: ACERO_INOX_ESMERILADO_304" +
+               "\nWeight: 12.5" +
+               "\nThickness: 1.2" +
+               "\nLength: 1450.0" +
+               "\nHeight: 600.0" +
+               "\nWidth: 450.0" +
+               "\nReception State: false";
+    }
+
+    private static int modules(String payload) throws Exception {
+        return Encoder.encode(payload, ErrorCorrectionLevel.L, Map.of(EncodeHintType.CHARACTER_SET, "UTF-8"))
+                .getVersion().getDimensionForVersion();
+    }
+
+    private static long time(int iterations, Runnable parse) {
+        for (int i = 0; i < iterations / 10; i++) {
+            parse.run(); // calentamiento del JIT
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            parse.run();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,125 @@
+package com.QS.AppQuickSolutions.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+/**
+ * Lectura de varios QR en una foto, con la foto reducida al tamaño de trabajo y el límite de fotos a la vez.
+ */
+class QRPhotoDecoderServiceTest {
+
+    private ThreadPoolTaskExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void readsEveryCodeInThePhoto() throws Exception {
+        List<String> payloads = List.of(QRPayloadCodec.encodePart(UUID.randomUUID(), true),
+                QRPayloadCodec.encodePart(UUID.randomUUID(), true),
+                QRPayloadCodec.encodePackage(UUID.randomUUID(), true));
+
+        List<String> found = decoder(2, 12_000_000).decodeAll(photo(1600, 1200, 300, payloads));
+
+        assertEquals(Set.copyOf(payloads), Set.copyOf(found));
+    }
+
+    @Test
+    void largePhotoIsSubsampledBeforeDecoding() throws Exception {
+        List<String> payloads = List.of(QRPayloadCodec.encodePart(UUID.randomUUID(), true),
+                QRPayloadCodec.encodePart(UUID.randomUUID(), true));
+
+        // 3200 x 2400 = 7,7 MP con un máximo de trabajo de 2 MP: se lee un pixel de cada 2 en cada eje
+        List<String> found = decoder(2, 2_000_000).decodeAll(photo(3200, 2400, 800, payloads));
+
+        assertEquals(Set.copyOf(payloads), Set.copyOf(found));
+        assertEquals(1, QRPhotoDecoderService.subsamplingStep(2_000_000, 2_000_000));
+        assertEquals(2, QRPhotoDecoderService.subsamplingStep(7_680_000, 2_000_000));
+        assertEquals(4, QRPhotoDecoderService.subsamplingStep(40_000_000, 3_000_000));
+    }
+
+    @Test
+    void rejectsPhotosOverTheSizeLimit() throws Exception {
+        QRPhotoDecoderService decoder = decoder(2, 12_000_000);
+        ReflectionTestUtils.setField(decoder, "maxPixels", 1_000_000L);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> decoder.decodeAll(photo(1600, 1200, 300, List.of("QS1P"))));
+    }
+
+    @Test
+    void rejectsWhenTooManyPhotosAreInProgress() throws Exception {
+        QRPhotoDecoderService decoder = decoder(0, 12_000_000);
+        ReflectionTestUtils.setField(decoder, "timeoutMs", 50L);
+
+        assertThrows(RejectedExecutionException.class,
+                () -> decoder.decodeAll(photo(800, 600, 300, List.of("QS1P"))));
+    }
+
+    private QRPhotoDecoderService decoder(int maxConcurrent, long workingPixels) {
+        QRPhotoDecoderService decoder = new QRPhotoDecoderService(executor, maxConcurrent);
+        ReflectionTestUtils.setField(decoder, "scales", new double[] {1.0, 0.5});
+        ReflectionTestUtils.setField(decoder, "rotations", new int[] {0});
+        ReflectionTestUtils.setField(decoder, "timeoutMs", 10_000L);
+        ReflectionTestUtils.setField(decoder, "maxPixels", 40_000_000L);
+        ReflectionTestUtils.setField(decoder, "workingPixels", workingPixels);
+        return decoder;
+    }
+
+    // Foto con los QR uno al lado del otro sobre fondo blanco, en PNG
+    private static ByteArrayInputStream photo(int width, int height, int qrSide, List<String> payloads)
+            throws WriterException, IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            int x = qrSide / 10;
+            for (String payload : payloads) {
+                BufferedImage qr = MatrixToImageWriter.toBufferedImage(
+                        new QRCodeWriter().encode(payload, BarcodeFormat.QR_CODE, qrSide, qrSide));
+                graphics.drawImage(qr, x, (height - qrSide) / 2, null);
+                x += qrSide + qrSide / 5;
+            }
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return new ByteArrayInputStream(png.toByteArray());
+    }
+}
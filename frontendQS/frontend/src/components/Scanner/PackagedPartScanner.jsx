@@ -161,98 +161,86 @@ const PackagedPartScanner = () => {
     try {
       console.log("Contenido del QR:", data);
 
-      const partIdMatch = data.match(/Part ID:\s*([a-f0-9-]+)/);
-      if (!partIdMatch) {
-        console.error(
-          "No se pudo extraer el ID de la pieza. Contenido del QR:",
-          data
-        );
-        throw new Error("No se pudo extraer el ID de la pieza del QR.");
-      }
-      const partId = partIdMatch[1];
-      console.log("ID de la pieza extraído:", partId);
-
-      const response = await PartScannerService.getPartById(partId);
+      // El servidor decide el resultado; si se corta la conexión el reintento usa la misma
+      // Idempotency-Key y recibe la respuesta original
+      const response = await PartScannerService.scanPart(data, "delivery");
       if (!response.success) {
         console.error("Respuesta del backend:", response);
-        throw new Error("Pieza no encontrada en la base de datos.");
+        throw new Error(response.message || "Error al registrar el escaneo.");
       }
 
-      const part = response.data;
-      console.log("Pieza encontrada (detalle completo):", part);
-
-      if (part.receptionState) {
-        console.log(`Pieza ${part.id} ya fue escaneada anteriormente.`);
-        toast.error(`Pieza ${part.id} ya fue escaneada anteriormente.`, {
+      const { partId, status } = response.data;
+      console.log("Resultado del escaneo:", response.data);
+      if (status === "QR_INVALIDO") {
+        throw new Error("No se pudo extraer el ID de la pieza del QR.");
+      }
+      if (status === "DESCONOCIDA") {
+        throw new Error("Pieza no encontrada en la base de datos.");
+      }
+      if (status === "YA_CARGADA") {
+        console.log(`Pieza ${partId} ya fue escaneada anteriormente.`);
+        toast.error(`Pieza ${partId} ya fue escaneada anteriormente.`, {
           duration: 2000,
           position: "center",
         });
         warningSound.play();
-      } else {
-        console.log("Actualizando estado de la pieza...");
-        const updateResponse = await PartScannerService.updatePart(part.id, {
-          ...part,
-          receptionState: true,
-          scanDateTime: new Date().toISOString(),
-          partState: "CONTROL_CALIDAD_EN_FABRICA",
-        });
+        return;
+      }
 
-        if (!updateResponse.success) {
-          console.error("Error al actualizar la pieza:", updateResponse);
-          throw new Error("Error al actualizar el estado de recepción.");
-        }
+      console.log(`Pieza ${partId} escaneada y marcada como lista para entrega.`);
+      toast.success(`Pieza ${partId} escaneada y marcada como lista para entrega.`, {
+        duration: 3000,
+        position: "center",
+      });
+      successSound.play();
 
-        console.log(`Pieza ${part.id} escaneada y marcada como recibida.`);
-        toast.success(`Pieza ${part.id} escaneada y marcada como recibida.`, {
-          duration: 3000,
-          position: "center",
-        });
-        successSound.play();
+      // Nombre, proyecto e imagen solo para la lista de últimas piezas escaneadas
+      const partResponse = await PartScannerService.getPartById(partId);
+      const part = partResponse.success ? partResponse.data : { id: partId };
 
-        let imageUrl = null;
-        if (part.customPart?.imageFilePath) {
-          console.log(
-            "Intentando cargar imagen desde:",
-            part.customPart.imageFilePath
-          );
-          const imageResponse = await PartScannerService.getPartImage(
-            part.customPart.imageFilePath
-          );
-          if (imageResponse.success) {
-            imageUrl = imageResponse.data;
-            console.log("Imagen cargada exitosamente:", imageUrl);
-          } else {
-            console.error("Error al cargar la imagen:", imageResponse.message);
-          }
+      let imageUrl = null;
+      if (part.customPart?.imageFilePath) {
+        console.log(
+          "Intentando cargar imagen desde:",
+          part.customPart.imageFilePath
+        );
+        const imageResponse = await PartScannerService.getPartImage(
+          part.customPart.imageFilePath
+        );
+        if (imageResponse.success) {
+          imageUrl = imageResponse.data;
+          console.log("Imagen cargada exitosamente:", imageUrl);
         } else {
-          console.warn(
-            "No se encontró imageFilePath en customPart:",
-            part.customPart
-          );
+          console.error("Error al cargar la imagen:", imageResponse.message);
         }
+      } else {
+        console.warn(
+          "No se encontró imageFilePath en customPart:",
+          part.customPart
+        );
+      }
 
-        const newPart = {
-          projectId: part.projectId || "Desconocido",
-          projectNumber: part.projectId || "Desconocido",
-          partId: part.id,
-          partName: part.customPart?.customPartName || "Sin nombre",
-          imageUrl: imageUrl,
-          scanDateTime: new Date().toISOString(),
-        };
-
-        console.log("Guardando pieza escaneada:", newPart);
-        const saveResponse = await PartScannerService.saveScannedPart(newPart);
-        if (!saveResponse.success) {
-          console.error("Error al guardar la pieza escaneada:", saveResponse);
-        }
+      const newPart = {
+        projectId: part.projectId || "Desconocido",
+        projectNumber: part.projectId || "Desconocido",
+        partId: part.id,
+        partName: part.customPart?.customPartName || "Sin nombre",
+        imageUrl: imageUrl,
+        scanDateTime: new Date().toISOString(),
+      };
+
+      console.log("Guardando pieza escaneada:", newPart);
+      const saveResponse = await PartScannerService.saveScannedPart(newPart);
+      if (!saveResponse.success) {
+        console.error("Error al guardar la pieza escaneada:", saveResponse);
+      }
 
-        console.log("Actualizando lista de piezas escaneadas...");
-        const scannedPartsResponse = await PartScannerService.getScannedParts();
-        if (scannedPartsResponse.success) {
-          setScannedParts(scannedPartsResponse.data);
-        } else {
-          setScannedParts((prev) => [newPart, ...prev].slice(0, 10));
-        }
+      console.log("Actualizando lista de piezas escaneadas...");
+      const scannedPartsResponse = await PartScannerService.getScannedParts();
+      if (scannedPartsResponse.success) {
+        setScannedParts(scannedPartsResponse.data);
+      } else {
+        setScannedParts((prev) => [newPart, ...prev].slice(0, 10));
       }
     } catch (err) {
       console.error("Error al procesar el escaneo:", err);
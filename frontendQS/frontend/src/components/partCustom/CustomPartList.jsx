@@ -48,7 +48,7 @@ const CustomPartList = () => {
           if (part.imageFilePath) {
             try {
               const response = await axios.get(
-                `http://localhost:8080/image-custom-part/${part.imageFilePath}`,
+                `http://localhost:8080/image-custom-part/${part.imageFilePath}?size=thumb`,
                 {
                   headers: {
                     Authorization: `Bearer ${token}`,
@@ -139,7 +139,7 @@ const CustomPartList = () => {
           return;
         }
         const response = await axios.get(
-          `http://localhost:8080/image-custom-part/${updatedPart.imageFilePath}`,
+          `http://localhost:8080/image-custom-part/${updatedPart.imageFilePath}?size=thumb`,
           {
             headers: {
               Authorization: `Bearer ${token}`,
@@ -79,7 +79,7 @@ function CreateProject() {
           }
 
           const response = await axios.get(
-            `http://localhost:8080/image-custom-part/${selectedPart.imageFilePath}`,
+            `http://localhost:8080/image-custom-part/${selectedPart.imageFilePath}?size=thumb`,
             {
               headers: {
                 Authorization: `Bearer ${token}`,
@@ -126,7 +126,7 @@ function CreateProject() {
             }
 
             const response = await axios.get(
-              `http://localhost:8080/image-custom-part/${customPart.imageFilePath}`,
+              `http://localhost:8080/image-custom-part/${customPart.imageFilePath}?size=thumb`,
               {
                 headers: {
                   Authorization: `Bearer ${token}`,
@@ -2,6 +2,7 @@ import PropTypes from "prop-types";
 import { useRef, useState } from "react";
 import { FaPrint } from "react-icons/fa";
 import { useReactToPrint } from "react-to-print";
+import ProjectService from "../../services/ProjectService";
 import QRPrintTemplate from "./QRPrintTemplate";
 
 const PrintQRModal = ({
@@ -12,8 +13,28 @@ const PrintQRModal = ({
 }) => {
   const [showModal, setShowModal] = useState(false);
   const [selectedPartsToPrint, setSelectedPartsToPrint] = useState([]);
+  const [downloadingLabels, setDownloadingLabels] = useState(false);
   const printRef = useRef();
 
+  // Descarga todas las etiquetas del proyecto en un solo PDF armado por el servidor,
+  // sin pedir cada imagen QR por separado
+  const handleDownloadLabels = async () => {
+    if (!project?.id) return;
+    setDownloadingLabels(true);
+    const result = await ProjectService.downloadQRLabels(project.id, "pdf");
+    setDownloadingLabels(false);
+    if (!result.success) {
+      alert("No se pudieron descargar las etiquetas. Por favor, intenta nuevamente.");
+      return;
+    }
+    const url = URL.createObjectURL(result.data);
+    const link = document.createElement("a");
+    link.href = url;
+    link.download = `etiquetas_qr_proyecto_${project.id}.pdf`;
+    link.click();
+    URL.revokeObjectURL(url);
+  };
+
   const handlePrint = useReactToPrint({
     content: () => {
       console.log("Accediendo a printRef.current:", printRef.current);
@@ -168,6 +189,13 @@ const PrintQRModal = ({
               )}
             </div>
             <div className="flex justify-end space-x-2">
+              <button
+                onClick={handleDownloadLabels}
+                disabled={downloadingLabels}
+                className="px-4 py-2 bg-green-500 text-white rounded hover:bg-green-600 disabled:opacity-50"
+              >
+                {downloadingLabels ? "Generando..." : "Descargar PDF (todas)"}
+              </button>
               <button
                 onClick={() => {
                   setShowModal(false);
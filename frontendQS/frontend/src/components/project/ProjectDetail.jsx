@@ -238,7 +238,7 @@ const ProjectDetail = () => {
         if (part.customPart?.imageFilePath) {
           try {
             const response = await axios.get(
-              `http://localhost:8080/image-custom-part/${part.customPart.imageFilePath}`,
+              `http://localhost:8080/image-custom-part/${part.customPart.imageFilePath}?size=thumb`,
               {
                 headers: {
                   Authorization: `Bearer ${token}`,
@@ -5,21 +5,36 @@ import { getAccessToken } from "../../auth/AuthService";
 import useAuthContext from "../../auth/UseAuthContext";
 import ProjectService from "../../services/ProjectService";
 
+const PAGE_SIZE = 20;
+const SEARCH_DEBOUNCE_MS = 300;
+
 const ProjectList = () => {
   const [projects, setProjects] = useState([]);
   const [displayedProjects, setDisplayedProjects] = useState([]);
   const [error, setError] = useState(null);
   const [searchTerm, setSearchTerm] = useState("");
+  const [activeSearch, setActiveSearch] = useState("");
   const [sortConfig, setSortConfig] = useState(null);
   const [showModal, setShowModal] = useState(false);
   const [projectToDelete, setProjectToDelete] = useState(null);
   const [showSuccessMessage, setShowSuccessMessage] = useState(false);
   const [hasMore, setHasMore] = useState(false);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingPage, setLoadingPage] = useState(false);
   const observerRef = useRef(null);
   const loadMoreRef = useRef(null);
+  const latestRequestRef = useRef(0);
   const navigate = useNavigate();
   const { role } = useAuthContext();
 
+  // El término que se manda al backend: el del buscador, cuando se deja de escribir
+  useEffect(() => {
+    const timeout = setTimeout(() => setActiveSearch(searchTerm.trim()), SEARCH_DEBOUNCE_MS);
+    return () => clearTimeout(timeout);
+  }, [searchTerm]);
+
+  // Primera página; se vuelve a pedir cada vez que cambia la búsqueda. La búsqueda la hace el backend
+  // sobre todos los proyectos (alias, contacto o ID), no solo sobre las páginas ya cargadas
   useEffect(() => {
     const fetchProjects = async () => {
       const token = getAccessToken();
@@ -29,19 +44,22 @@ const ProjectList = () => {
         return;
       }
 
+      const requestId = ++latestRequestRef.current;
       try {
         console.log("Solicitando lista de proyectos...");
         const response = await ProjectService.fetchProjects({
-          headers: {
-            Authorization: `Bearer ${token}`,
-          },
+          limit: PAGE_SIZE,
+          search: activeSearch || undefined,
         });
+        if (requestId !== latestRequestRef.current) return; // Llegó la respuesta de una búsqueda anterior
 
         if (response.success) {
           console.log("Lista de proyectos recibida:", response.data);
-          setProjects(response.data);
-          setDisplayedProjects(response.data.slice(0, 20));
-          setHasMore(response.data.length > 20);
+          setProjects(response.data.items);
+          setDisplayedProjects(response.data.items);
+          setSortConfig(null);
+          setNextCursor(response.data.nextCursor);
+          setHasMore(response.data.nextCursor != null);
         } else {
           setError("Error al cargar los proyectos.");
         }
@@ -60,19 +78,38 @@ const ProjectList = () => {
     };
 
     fetchProjects();
-  }, []);
+  }, [activeSearch]);
+
+  // La página siguiente se pide al backend con el cursor de la anterior y la misma búsqueda
+  const loadNextPage = async () => {
+    if (loadingPage || !nextCursor) return;
+    setLoadingPage(true);
+    const requestId = latestRequestRef.current;
+    try {
+      const response = await ProjectService.fetchProjects({
+        cursor: nextCursor,
+        limit: PAGE_SIZE,
+        search: activeSearch || undefined,
+      });
+      if (requestId !== latestRequestRef.current) return; // La búsqueda cambió mientras tanto
+      if (response.success) {
+        setProjects((prev) => [...prev, ...response.data.items]);
+        setDisplayedProjects((prev) => [...prev, ...response.data.items]);
+        setNextCursor(response.data.nextCursor);
+        setHasMore(response.data.nextCursor != null);
+      } else {
+        setError("Error al cargar los proyectos.");
+      }
+    } finally {
+      setLoadingPage(false);
+    }
+  };
 
   useEffect(() => {
     observerRef.current = new IntersectionObserver(
       (entries) => {
         if (entries[0].isIntersecting && hasMore) {
-          const currentLength = displayedProjects.length;
-          const nextProjects = projects.slice(
-            currentLength,
-            currentLength + 20
-          );
-          setDisplayedProjects((prev) => [...prev, ...nextProjects]);
-          setHasMore(currentLength + nextProjects.length < projects.length);
+          loadNextPage();
         }
       },
       { threshold: 0.1 }
@@ -88,7 +125,7 @@ const ProjectList = () => {
         observerRef.current.unobserve(currentLoadMoreRef);
       }
     };
-  }, [displayedProjects, hasMore, projects]);
+  }, [displayedProjects, hasMore, projects, nextCursor, loadingPage, activeSearch]);
 
   const basePath = role === "ADMIN" ? "/admin" : "/operator";
 
@@ -102,20 +139,7 @@ const ProjectList = () => {
   const handleMaterialList = () => navigate(`${basePath}/material-list`);
 
   const handleSearchChange = (e) => {
-    const value = e.target.value;
-    setSearchTerm(value);
-    if (value === "") {
-      setDisplayedProjects(projects.slice(0, 20));
-      setHasMore(projects.length > 20);
-    } else {
-      const filtered = projects.filter((project) =>
-        [project.id, project.clientAlias, project.contact].some((val) =>
-          String(val).toLowerCase().includes(value.toLowerCase())
-        )
-      );
-      setDisplayedProjects(filtered.slice(0, 20));
-      setHasMore(filtered.length > 20);
-    }
+    setSearchTerm(e.target.value);
   };
 
   const handleSort = (key) => {
@@ -140,8 +164,8 @@ const ProjectList = () => {
       }
 
       if (key === "pieces") {
-        const aValue = a.parts ? a.parts.length : 0;
-        const bValue = b.parts ? b.parts.length : 0;
+        const aValue = a.partCount ?? 0;
+        const bValue = b.partCount ?? 0;
         return direction === "ascending" ? aValue - bValue : bValue - aValue;
       }
 
@@ -468,7 +492,7 @@ const ProjectList = () => {
                       onClick={() => handleProjectClick(project.id)}
                       className="p-3 text-center text-gray-800 cursor-pointer sm:p-2 md:p-3 sm:hidden md:table-cell sm:text-sm md:text-base text-wrap leading-5"
                     >
-                      {project.parts ? project.parts.length : 0}
+                      {project.partCount ?? 0}
                     </td>
                     <td
                       onClick={() => handleProjectClick(project.id)}
@@ -1,11 +1,11 @@
 // EventService.js
 import api from "../auth/AxiosServerConfig";
+import { fetchAllPages } from "./Pagination";
 
 const EventService = {
   getAllEvents: async () => {
     try {
-      const response = await api.get("/events");
-      return response.data;
+      return await fetchAllPages("/events", { limit: 500 });
     } catch (error) {
       console.error("Error al obtener eventos:", error);
       throw error;
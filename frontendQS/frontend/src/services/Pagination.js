@@ -0,0 +1,15 @@
+// Listados paginados del backend: cada respuesta trae { items, nextCursor } y la página siguiente
+// se pide con ese cursor (null cuando no hay más).
+import api from "../auth/AxiosServerConfig";
+
+// Recorre todas las páginas de un listado y devuelve los elementos juntos
+export const fetchAllPages = async (url, params = {}) => {
+  const items = [];
+  let cursor;
+  do {
+    const response = await api.get(url, { params: { ...params, cursor } });
+    items.push(...response.data.items);
+    cursor = response.data.nextCursor;
+  } while (cursor);
+  return items;
+};
@@ -64,6 +64,40 @@ const PartScannerService = {
       api.get(`/scanned-parts?since=${since}`)
     );
   },
+
+  // Escaneo de un QR (type: "reception" | "delivery"). Si se corta la conexión se reintenta con la
+  // misma Idempotency-Key, así el servidor devuelve el resultado original en lugar de repetir el escaneo
+  scanPart: async (qrData, type = "reception") => {
+    if (import.meta.env.MODE === "development") {
+      console.log(`scanPart: Escaneo de ${type}: ${qrData}`);
+    }
+    const idempotencyKey = crypto.randomUUID();
+    return await handleServiceCall(() =>
+      withRetry(
+        (config) =>
+          api.post(`/qr/scan?type=${type}`, qrData, {
+            ...config,
+            headers: { ...config.headers, "Content-Type": "text/plain" },
+          }),
+        idempotencyKey
+      )
+    );
+  },
+};
+
+// Reintenta solo los errores de red (sin respuesta del servidor), siempre con la misma clave
+const withRetry = async (request, idempotencyKey, attempts = 3) => {
+  const config = { headers: { "Idempotency-Key": idempotencyKey } };
+  for (let attempt = 1; ; attempt++) {
+    try {
+      return await request(config);
+    } catch (error) {
+      if (error.response || attempt >= attempts) {
+        throw error;
+      }
+      await new Promise((resolve) => setTimeout(resolve, 500 * attempt));
+    }
+  }
 };
 
 const handleServiceCall = async (apiCall) => {
@@ -1,4 +1,5 @@
 import api from "../auth/AxiosServerConfig";
+import { fetchAllPages } from "./Pagination";
 
 const PartTrackingService = {
   getOperatorId: async () => {
@@ -68,14 +69,13 @@ const PartTrackingService = {
       }
       const operatorId = operatorIdResponse;
 
-      // Obtener todas las tareas (completadas y no completadas)
-      const response = await api.get(`/part-tracking/history/${operatorId}`);
-      if (!Array.isArray(response.data)) {
-        throw new Error("La respuesta del servidor no es un array de tareas.");
-      }
-
-      const currentTasks = response.data.filter((task) => !task.completed);
-      const completedTasks = response.data.filter((task) => task.completed);
+      // Todas las tareas en curso y las últimas completadas (el historial viene del más nuevo al más viejo)
+      const historyUrl = `/part-tracking/history/${operatorId}`;
+      const [currentTasks, completedResponse] = await Promise.all([
+        fetchAllPages(historyUrl, { completed: false, limit: 100 }),
+        api.get(historyUrl, { params: { completed: true, limit: 100 } }),
+      ]);
+      const completedTasks = completedResponse.data.items;
 
       return {
         success: true,
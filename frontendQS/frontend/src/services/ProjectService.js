@@ -33,12 +33,15 @@ const ProjectService = {
     }
   },
 
-  // Obtener todos los proyectos
-  fetchProjects: async () => {
+  // Obtener una página de proyectos ({ items, nextCursor }). Para la página siguiente se manda
+  // el nextCursor recibido; es null cuando no hay más
+  fetchProjects: async ({ cursor, limit = 20, from, to, search } = {}) => {
     if (import.meta.env.MODE === "development") {
       console.log("fetchProjects: Realizando llamada al backend...");
     }
-    return await handleServiceCall(() => api.get("/project/list"));
+    return await handleServiceCall(() =>
+      api.get("/project/list", { params: { cursor, limit, from, to, search } })
+    );
   },
 
   // Obtener un proyecto por ID
@@ -76,6 +79,19 @@ const ProjectService = {
     }
     return await handleServiceCall(() => api.delete(`/project/${id}/delete`));
   },
+
+  // Descargar las hojas de etiquetas QR del proyecto generadas en el servidor (pdf o png en zip)
+  downloadQRLabels: async (id, format = "pdf") => {
+    if (import.meta.env.MODE === "development") {
+      console.log(`downloadQRLabels: Solicitando etiquetas (${format}) del proyecto ${id}`);
+    }
+    return await handleServiceCall(() =>
+      api.get(`/project/${id}/qr-labels`, {
+        params: { format },
+        responseType: "blob",
+      })
+    );
+  },
 };
 
 // Manejo centralizado de errores y respuesta